@@ -20,11 +20,16 @@
 package com.earnix.webk.context;
 
 import com.earnix.webk.css.extend.AttributeResolver;
+import com.earnix.webk.css.extend.StylesheetFactory;
+import com.earnix.webk.css.sheet.PropertyDeclaration;
 import com.earnix.webk.extend.NamespaceHandler;
 import com.earnix.webk.extend.UserAgentCallback;
 import com.earnix.webk.extend.UserInterface;
+import com.earnix.webk.runtime.cssom.impl.CSSStyleDeclarationImpl;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 
+import java.util.List;
+
 /**
  * An instance which works together with a w3c DOM tree
  *
@@ -76,6 +81,10 @@ public class StandardAttributeResolver implements AttributeResolver {
         return nsh.getID((ElementImpl) e);
     }
 
+    public boolean hasClass(Object e, String className) {
+        return nsh.hasClass((ElementImpl) e, className);
+    }
+
     public String getNonCssStyling(Object e) {
         return nsh.getNonCssStyling((ElementImpl) e);
     }
@@ -90,6 +99,11 @@ public class StandardAttributeResolver implements AttributeResolver {
         return nsh.getElementStyling((ElementImpl) e);
     }
 
+    public List<PropertyDeclaration> getElementStyleDeclarations(Object e, StylesheetFactory factory) {
+        CSSStyleDeclarationImpl style = ((ElementImpl) e).getInlineStyle();
+        return style != null ? style.getPropertyDeclarations(factory) : null;
+    }
+
     /**
      * Gets the lang attribute of the StandardAttributeResolver object
      *
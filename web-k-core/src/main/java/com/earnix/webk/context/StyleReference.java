@@ -179,6 +179,16 @@ public class StyleReference {
         return _matcher.getCascadedStyle(e, restyle);
     }
 
+    /**
+     * Lets the element share the cascaded style of a preceding sibling with the same name and attributes, so that
+     * it isn't matched, see {@link Matcher#shareMapping(Object, Object)}
+     *
+     * @return true if the element now has the same cascaded style as the sibling
+     */
+    public boolean shareStyle(ElementImpl e, ElementImpl sibling) {
+        return _matcher.shareMapping(e, sibling);
+    }
+
     public PageInfo getPageStyle(String pageName, String pseudoPage) {
         return _matcher.getPageCascadedStyle(pageName, pseudoPage);
     }
@@ -36,6 +36,8 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.UnsupportedEncodingException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 
 /**
@@ -66,9 +68,29 @@ public class StylesheetFactoryImpl implements StylesheetFactory {
             };
     private CSSParser _cssParser;
 
+    /**
+     * Parsed style declarations (of style attributes) by their text, shared by all elements with the same style.
+     * Cleared once it grows over <code>xr.css.style-attribute.cache-size</code> entries.
+     */
+    private final Map<String, Ruleset> _declarationCache = new ConcurrentHashMap<>();
+
+    private final int _declarationCacheCapacity =
+            Configuration.valueAsInt("xr.css.style-attribute.cache-size", 4096);
+
+    /**
+     * Parsers of style declarations, one per thread, so that declarations are parsed without locking the factory
+     */
+    private final ThreadLocal<CSSParser> _declarationParser = ThreadLocal.withInitial(this::createParser);
+
+    private volatile boolean _supportCMYKColors;
+
     public StylesheetFactoryImpl(UserAgentCallback userAgentCallback) {
         _userAgentCallback = userAgentCallback;
-        _cssParser = new CSSParser(new CSSErrorHandler() {
+        _cssParser = createParser();
+    }
+
+    private CSSParser createParser() {
+        return new CSSParser(new CSSErrorHandler() {
             public void error(String uri, String message) {
                 XRLog.cssParse(Level.WARNING, "(" + uri + ") " + message);
             }
@@ -112,8 +134,23 @@ public class StylesheetFactoryImpl implements StylesheetFactory {
         }
     }
 
-    public synchronized Ruleset parseStyleDeclaration(int origin, String styleDeclaration) {
-        return _cssParser.parseDeclaration(origin, styleDeclaration);
+    /**
+     * Parses the style declaration, or returns the ruleset parsed earlier from the same text. The returned ruleset
+     * must not be modified.
+     */
+    public Ruleset parseStyleDeclaration(int origin, String styleDeclaration) {
+        Ruleset ruleset = _declarationCache.get(styleDeclaration);
+        if (ruleset != null && ruleset.getOrigin() == origin) {
+            return ruleset;
+        }
+        CSSParser parser = _declarationParser.get();
+        parser.setSupportCMYKColors(_supportCMYKColors);
+        ruleset = parser.parseDeclaration(origin, styleDeclaration);
+        if (_declarationCache.size() >= _declarationCacheCapacity) {
+            _declarationCache.clear();
+        }
+        _declarationCache.put(styleDeclaration, ruleset);
+        return ruleset;
     }
 
     /**
@@ -186,7 +223,11 @@ public class StylesheetFactoryImpl implements StylesheetFactory {
         _userAgentCallback = userAgent;
     }
 
-    public void setSupportCMYKColors(boolean b) {
+    public synchronized void setSupportCMYKColors(boolean b) {
         _cssParser.setSupportCMYKColors(b);
+        if (_supportCMYKColors != b) {
+            _supportCMYKColors = b;
+            _declarationCache.clear();
+        }
     }
 }
@@ -19,6 +19,10 @@
  */
 package com.earnix.webk.css.extend;
 
+import com.earnix.webk.css.sheet.PropertyDeclaration;
+import com.earnix.webk.runtime.dom.impl.internal.StringUtil;
+
+import java.util.List;
 
 /**
  * In XML, an application may or may not know how to find the ID and/or class
@@ -64,6 +68,17 @@ public interface AttributeResolver {
      */
     public String getID(Object e);
 
+    /**
+     * Tests if the class value contains the class name, case sensitive
+     *
+     * @param e         PARAM
+     * @param className PARAM
+     * @return true if the element has the class
+     */
+    public default boolean hasClass(Object e, String className) {
+        return containsClass(getClass(e), className);
+    }
+
     /**
      * may return null
      *
@@ -81,6 +96,18 @@ public interface AttributeResolver {
      */
     public String getElementStyling(Object e);
 
+    /**
+     * may return null
+     *
+     * @param e       PARAM
+     * @param factory factory to parse the declarations with
+     * @return The declarations of the style attribute kept by the element, which are applied after the element
+     * styling, with the same specificity
+     */
+    public default List<PropertyDeclaration> getElementStyleDeclarations(Object e, StylesheetFactory factory) {
+        return null;
+    }
+
     /**
      * may return null
      *
@@ -129,5 +156,30 @@ public interface AttributeResolver {
      */
     public boolean isFocus(Object e);
 
+    /**
+     * Tests if the HTML whitespace separated list of classes contains the class name, without allocation
+     *
+     * @param classValue class value, may be null
+     * @param className  PARAM
+     * @return true if the list contains the class
+     */
+    public static boolean containsClass(String classValue, String className) {
+        if (classValue == null) {
+            return false;
+        }
+        int wantLen = className.length();
+        int start = -1;
+        for (int i = 0, len = classValue.length(); i <= len; i++) {
+            boolean separator = i == len || StringUtil.isWhitespace(classValue.charAt(i));
+            if (separator && start != -1) {
+                if (i - start == wantLen && classValue.regionMatches(start, className, 0, wantLen)) {
+                    return true;
+                }
+                start = -1;
+            } else if (!separator && start == -1) {
+                start = i;
+            }
+        }
+        return false;
+    }
 }
-
@@ -51,6 +51,10 @@ public class DOMStaticXhtmlAttributeResolver implements AttributeResolver {
         return getAttributeValue(e, "id");
     }
 
+    public boolean hasClass(Object e, String className) {
+        return ((ElementImpl) e).hasClassName(className);
+    }
+
     public String getNonCssStyling(Object e) {
         return null;
     }
@@ -24,8 +24,6 @@ import com.earnix.webk.css.extend.TreeResolver;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 import com.earnix.webk.runtime.dom.impl.NodeImpl;
 
-import java.util.List;
-
 
 /**
  * @author scott
@@ -55,27 +53,11 @@ public class DOMTreeResolver implements TreeResolver {
     }
 
     public boolean isFirstChildElement(Object element) {
-        NodeImpl parent = ((ElementImpl) element).parentNode();
-        NodeImpl currentChild;
-        if (parent.childNodeSize() > 0) {
-            currentChild = parent.childNode(0);
-        } else {
-            currentChild = null;
-        }
-
-        while (currentChild != null && !(currentChild instanceof ElementImpl)) {
-            currentChild = currentChild.nextSibling();
-        }
-        return currentChild == element;
+        return ((ElementImpl) element).elementSiblingIndex() == 0;
     }
 
     public boolean isLastChildElement(Object element) {
-        NodeImpl parent = ((ElementImpl) element).parentNode();
-        NodeImpl currentChild = parent.childNode(parent.childNodeSize() - 1);
-        while (currentChild != null && !(currentChild instanceof ElementImpl)) {
-            currentChild = currentChild.previousSibling();
-        }
-        return currentChild == element;
+        return ((ElementImpl) element).isLastElementSibling();
     }
 
     public boolean matchesElement(Object element, String namespaceURI, String name) {
@@ -83,23 +65,7 @@ public class DOMTreeResolver implements TreeResolver {
     }
 
     public int getPositionOfElement(Object element) {
-        NodeImpl parent = ((ElementImpl) element).parent();
-        List<NodeImpl> nl = parent.getChildNodes();
-
-        int elt_count = 0;
-        int i = 0;
-        while (i < nl.size()) {
-            if (nl.get(i) instanceof ElementImpl) {
-                if (nl.get(i) == element) {
-                    return elt_count;
-                } else {
-                    elt_count++;
-                }
-            }
-            i++;
-        }
-
-        //should not happen
-        throw new RuntimeException("getPositionOfElement out of bounds");
+        // sibling indexes are cached by elements until their parent's child nodes change
+        return ((ElementImpl) element).elementSiblingIndex();
     }
 }
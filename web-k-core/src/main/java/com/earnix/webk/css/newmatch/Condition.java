@@ -22,9 +22,8 @@ package com.earnix.webk.css.newmatch;
 import com.earnix.webk.css.extend.AttributeResolver;
 import com.earnix.webk.css.extend.TreeResolver;
 import com.earnix.webk.css.parser.CSSParseException;
+import com.earnix.webk.runtime.dom.impl.internal.StringUtil;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -38,6 +37,13 @@ abstract class Condition {
 
     abstract boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes);
 
+    /**
+     * @return true if the result depends on the position of the element among its siblings
+     */
+    boolean isPositional() {
+        return false;
+    }
+
     /**
      * the CSS condition [attribute]
      *
@@ -274,14 +280,19 @@ abstract class Condition {
         }
 
         protected boolean compare(String attrValue, String conditionValue) {
-            String[] ca = split(attrValue, ' ');
-            boolean matched = false;
-            for (int j = 0; j < ca.length; j++) {
-                if (conditionValue.equals(ca[j])) {
-                    matched = true;
+            // a value which is empty or contains whitespace can't be one of the whitespace-separated words
+            if (conditionValue.isEmpty() || indexOfWhitespace(conditionValue, 0) != -1) {
+                return false;
+            }
+            int last = 0;
+            int next;
+            while ((next = indexOfWhitespace(attrValue, last)) != -1) {
+                if (next > last && partEquals(attrValue, last, next, conditionValue, false)) {
+                    return true;
                 }
+                last = next + 1;
             }
-            return matched;
+            return partEquals(attrValue, last, attrValue.length(), conditionValue, false);
         }
     }
 
@@ -291,35 +302,24 @@ abstract class Condition {
         }
 
         protected boolean compare(String attrValue, String conditionValue) {
-            String[] ca = split(attrValue, '-');
-            if (conditionValue.equals(ca[0])) {
-                return true;
-            }
-            return false;
+            return firstPartEquals(attrValue, '-', conditionValue, false);
         }
     }
 
     private static class ClassCondition extends Condition {
 
-        private String _paddedClassName;
+        private String _className;
 
         ClassCondition(String className) {
-            _paddedClassName = " " + className + " ";
+            _className = className;
         }
 
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             if (attRes == null) {
                 return false;
             }
-            String c = attRes.getClass(e);
-            if (c == null) {
-                return false;
-            }
-
-            // This is much faster than calling `split()` and comparing individual values in a loop.
-            // NOTE: In jQuery, for example, the attribute value first has whitespace normalized to spaces. But
-            // in an XML DOM, space normalization in attributes is supposed to have happened already.
-            return (" " + c + " ").indexOf(_paddedClassName) != -1;
+            // elements keep their class names split, so nothing is allocated here
+            return attRes.hasClass(e, _className);
         }
 
     }
@@ -329,7 +329,8 @@ abstract class Condition {
         private String _id;
 
         IDCondition(String id) {
-            _id = id;
+            // ids of elements are interned, so that equal ones are usually the same instance
+            _id = id.intern();
         }
 
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
@@ -362,11 +363,7 @@ abstract class Condition {
             if (_lang.equalsIgnoreCase(lang)) {
                 return true;
             }
-            String[] ca = split(lang, '-');
-            if (_lang.equalsIgnoreCase(ca[0])) {
-                return true;
-            }
-            return false;
+            return firstPartEquals(lang, '-', _lang, true);
         }
 
     }
@@ -376,6 +373,10 @@ abstract class Condition {
         FirstChildCondition() {
         }
 
+        boolean isPositional() {
+            return true;
+        }
+
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             return treeRes.isFirstChildElement(e);
         }
@@ -387,6 +388,10 @@ abstract class Condition {
         LastChildCondition() {
         }
 
+        boolean isPositional() {
+            return true;
+        }
+
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             return treeRes.isLastChildElement(e);
         }
@@ -405,6 +410,10 @@ abstract class Condition {
             this.b = b;
         }
 
+        boolean isPositional() {
+            return true;
+        }
+
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             // getPositionOfElement() starts at 0, CSS spec starts at 1
             int position = treeRes.getPositionOfElement(e) + 1;
@@ -457,6 +466,10 @@ abstract class Condition {
         EvenChildCondition() {
         }
 
+        boolean isPositional() {
+            return true;
+        }
+
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             int position = treeRes.getPositionOfElement(e);
             return position >= 0 && position % 2 == 0;
@@ -468,6 +481,10 @@ abstract class Condition {
         OddChildCondition() {
         }
 
+        boolean isPositional() {
+            return true;
+        }
+
         boolean matches(Object e, AttributeResolver attRes, TreeResolver treeRes) {
             int position = treeRes.getPositionOfElement(e);
             return position >= 0 && position % 2 == 1;
@@ -499,28 +516,28 @@ abstract class Condition {
 
     }
 
-    private static String[] split(String s, char ch) {
-        if (s.indexOf(ch) == -1) {
-            return new String[]{s};
-        } else {
-            List result = new ArrayList();
-
-            int last = 0;
-            int next = 0;
-
-            while ((next = s.indexOf(ch, last)) != -1) {
-                if (next != last) {
-                    result.add(s.substring(last, next));
-                }
-                last = next + 1;
-            }
+    /**
+     * Compares the first non-empty part of the string split by the separator, without splitting it
+     */
+    private static boolean firstPartEquals(String s, char ch, String value, boolean ignoreCase) {
+        int start = 0;
+        while (start < s.length() && s.charAt(start) == ch) {
+            start++;
+        }
+        int end = s.indexOf(ch, start);
+        return partEquals(s, start, end != -1 ? end : s.length(), value, ignoreCase);
+    }
 
-            if (last != s.length()) {
-                result.add(s.substring(last));
+    private static int indexOfWhitespace(String s, int from) {
+        for (int i = from; i < s.length(); i++) {
+            if (StringUtil.isWhitespace(s.charAt(i))) {
+                return i;
             }
-
-            return (String[]) result.toArray(new String[result.size()]);
         }
+        return -1;
     }
-}
 
+    private static boolean partEquals(String s, int start, int end, String value, boolean ignoreCase) {
+        return end - start == value.length() && s.regionMatches(ignoreCase, start, value, 0, value.length());
+    }
+}
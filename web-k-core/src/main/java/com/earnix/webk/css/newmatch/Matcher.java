@@ -59,12 +59,25 @@ public class Matcher {
     private Set _activeElements;
     private Set _focusElements;
     private Set _visitElements;
+    // elements matched by selectors depending on their position among siblings
+    private Set _positionElements;
 
     private List _pageRules;
     private List _fontFaceRules;
 
+    private final boolean _indexed;
+
     public Matcher(
             TreeResolver tr, AttributeResolver ar, StylesheetFactory factory, List stylesheets, String medium) {
+        this(tr, ar, factory, stylesheets, medium, true);
+    }
+
+    /**
+     * @param indexed false to test all selectors against each element, see {@link SelectorIndex}
+     */
+    Matcher(TreeResolver tr, AttributeResolver ar, StylesheetFactory factory, List stylesheets, String medium,
+            boolean indexed) {
+        _indexed = indexed;
         newMaps();
         _treeRes = tr;
         _attRes = ar;
@@ -145,6 +158,25 @@ public class Matcher {
         return _focusElements.contains(e);
     }
 
+    /**
+     * Lets the element use the mapping of a sibling with the same name and attributes, instead of matching it.
+     * Fails if the sibling hasn't been matched yet, or its matching depended on its position or dynamic state.
+     *
+     * @return true if the element now shares the mapping of the sibling, so that both have the same cascaded style
+     */
+    public boolean shareMapping(Object e, Object sibling) {
+        synchronized (e) {
+            Mapper m = (Mapper) _map.get(sibling);
+            if (m == null || _positionElements.contains(sibling) || _hoverElements.contains(sibling)
+                    || _activeElements.contains(sibling) || _focusElements.contains(sibling)
+                    || _visitElements.contains(sibling)) {
+                return false;
+            }
+            link(e, m);
+            return true;
+        }
+    }
+
     protected Mapper matchElement(Object e) {
         synchronized (e) {
             Object parent = _treeRes.getParentElement(e);
@@ -226,6 +258,7 @@ public class Matcher {
         _activeElements = Collections.synchronizedSet(new java.util.HashSet());
         _focusElements = Collections.synchronizedSet(new java.util.HashSet());
         _visitElements = Collections.synchronizedSet(new java.util.HashSet());
+        _positionElements = Collections.synchronizedSet(new java.util.HashSet());
     }
 
     private Mapper getMapper(Object e) {
@@ -291,11 +324,22 @@ public class Matcher {
             }
 
             String style = _attRes.getElementStyling(e);
-            if (Util.isNullOrEmpty(style)) {
-                return null;
+            List declarations = _attRes.getElementStyleDeclarations(e, _styleFactory);
+            if (declarations == null || declarations.isEmpty()) {
+                if (Util.isNullOrEmpty(style)) {
+                    return null;
+                }
+                return _styleFactory.parseStyleDeclaration(com.earnix.webk.css.sheet.StylesheetInfo.AUTHOR, style);
             }
 
-            return _styleFactory.parseStyleDeclaration(com.earnix.webk.css.sheet.StylesheetInfo.AUTHOR, style);
+            // parsed rulesets are cached by their text and shared, so they are copied rather than extended
+            Ruleset result = new Ruleset(com.earnix.webk.css.sheet.StylesheetInfo.AUTHOR);
+            if (!Util.isNullOrEmpty(style)) {
+                result.addAllProperties(_styleFactory.parseStyleDeclaration(
+                        com.earnix.webk.css.sheet.StylesheetInfo.AUTHOR, style).getPropertyDeclarations());
+            }
+            result.addAllProperties(declarations);
+            return result;
         }
     }
 
@@ -319,14 +363,13 @@ public class Matcher {
      * @author Torbjoern Gannholm
      */
     class Mapper {
-        java.util.List axes;
+        private SelectorIndex index;
         private HashMap pseudoSelectors;
         private List mappedSelectors;
         private HashMap children;
 
         Mapper(java.util.Collection selectors) {
-            axes = new java.util.ArrayList(selectors.size());
-            axes.addAll(selectors);
+            index = SelectorIndex.create(selectors, _indexed);
         }
 
         private Mapper() {
@@ -341,17 +384,17 @@ public class Matcher {
          */
         Mapper mapChild(Object e) {
             //Mapper childMapper = new Mapper();
-            java.util.List childAxes = new ArrayList(axes.size() + 10);
+            java.util.List childAxes = new ArrayList();
             java.util.HashMap pseudoSelectors = new java.util.HashMap();
             java.util.List mappedSelectors = new java.util.LinkedList();
             StringBuffer key = new StringBuffer();
-            for (int i = 0, size = axes.size(); i < size; i++) {
-                Selector sel = (Selector) axes.get(i);
-                if (sel.getAxis() == Selector.DESCENDANT_AXIS) {
-                    //carry it forward to other descendants
-                    childAxes.add(sel);
-                } else if (sel.getAxis() == Selector.IMMEDIATE_SIBLING_AXIS) {
-                    throw new RuntimeException();
+            // only selectors which may match the element are tested,
+            // descendant axis ones are carried forward to other descendants by the index
+            SelectorIndex.Entry[] candidates = index.candidates(e, _attRes, _treeRes);
+            for (int i = 0; i < candidates.length; i++) {
+                Selector sel = candidates[i].selector;
+                if (sel.isPositional()) {
+                    _positionElements.add(e);
                 }
                 if (!sel.matches(e, _attRes, _treeRes)) {
                     continue;
@@ -390,14 +433,14 @@ public class Matcher {
                 } else if (chain.getAxis() == Selector.IMMEDIATE_SIBLING_AXIS) {
                     throw new RuntimeException();
                 } else {
-                    childAxes.add(chain);
+                    childAxes.add(new SelectorIndex.Entry(chain, candidates[i].rank));
                 }
             }
             if (children == null) children = new HashMap();
             Mapper childMapper = (Mapper) children.get(key.toString());
             if (childMapper == null) {
                 childMapper = new Mapper();
-                childMapper.axes = childAxes;
+                childMapper.index = index.createChild(childAxes);
                 childMapper.pseudoSelectors = pseudoSelectors;
                 childMapper.mappedSelectors = mappedSelectors;
                 children.put(key.toString(), childMapper);
@@ -44,6 +44,13 @@ public class Selector {
     private int _pc = 0;
     private String _pe;
 
+    // first ID and class conditions, see SelectorIndex
+    private String _id;
+    private String _className;
+
+    // whether any condition or the sibling selector depends on the position among siblings
+    private boolean _positional;
+
     //specificity - correct values are gotten from the last Selector in the chain
     private int _specificityB;
     private int _specificityC;
@@ -206,6 +213,9 @@ public class Selector {
      */
     public void addIDCondition(String id) {
         _specificityB++;
+        if (_id == null) {
+            _id = id;
+        }
         addCondition(Condition.createIDCondition(id));
     }
 
@@ -214,6 +224,9 @@ public class Selector {
      */
     public void addClassCondition(String className) {
         _specificityC++;
+        if (_className == null) {
+            _className = className;
+        }
         addCondition(Condition.createClassCondition(className));
     }
 
@@ -428,6 +441,7 @@ public class Selector {
             XRLog.match(Level.WARNING, "Trying to append conditions to pseudoElement " + _pe);
         }
         conditions.add(c);
+        _positional |= c.isPositional();
     }
 
     /**
@@ -443,6 +457,32 @@ public class Selector {
         return selectorID;
     }
 
+    String getName() {
+        return _name;
+    }
+
+    /**
+     * @return value of the first ID condition, if any
+     */
+    String getID() {
+        return _id;
+    }
+
+    /**
+     * @return class name of the first class condition, if any
+     */
+    String getClassName() {
+        return _className;
+    }
+
+    /**
+     * @return true if matching of this selector, or of the selectors of its preceding siblings, depends on the
+     * position of the element among its siblings
+     */
+    boolean isPositional() {
+        return _positional;
+    }
+
     public void setName(String name) {
         _name = name;
         _specificityD++;
@@ -484,6 +524,8 @@ public class Selector {
 
     public void setSiblingSelector(Selector selector) {
         siblingSelector = selector;
+        // the sibling differs for elements with the same parent and attributes
+        _positional = true;
     }
 
     public void setNamespaceURI(String namespaceURI) {
@@ -0,0 +1,222 @@
+package com.earnix.webk.css.newmatch;
+
+import com.earnix.webk.css.extend.AttributeResolver;
+import com.earnix.webk.css.extend.TreeResolver;
+import com.earnix.webk.runtime.dom.impl.internal.StringUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Selectors to match children of a {@link Matcher.Mapper}, bucketed by their compound's most specific simple
+ * selector: ID, then class, then element name, the rest are universal. An element can only be matched by selectors
+ * of the buckets of its own ID, classes and name, so other selectors aren't tested at all.
+ * <p>
+ * Descendant axis selectors are carried to all descendants, so each index only buckets selectors added at its own
+ * level (chained selectors of the matched ones) and refers to the descendant axis selectors of its parent index,
+ * which are shared by all its children.
+ * <p>
+ * Selectors are kept in the order of the document mapper, a chained selector takes the rank of the selector it was
+ * chained from.
+ * <p>
+ * An index which isn't bucketed treats all selectors as universal, so all of them are tested, as a reference for
+ * the bucketed one.
+ */
+class SelectorIndex {
+
+    private static final Entry[] NONE = new Entry[0];
+
+    static final SelectorIndex EMPTY = new SelectorIndex(null, Collections.<Entry>emptyList(), true);
+
+    /**
+     * Descendant axis selectors of the parent index, may be null
+     */
+    private final SelectorIndex carried;
+
+    private final Map<String, Entry[]> ids;
+    private final Map<String, Entry[]> classes;
+    private final Map<String, Entry[]> names;
+    private final Entry[] universal;
+    private final boolean bucketed;
+
+    /**
+     * Selectors carried to children of the matched elements
+     */
+    private final SelectorIndex descendants;
+
+    /**
+     * @param carried descendant axis selectors of the parent index, or null
+     * @param entries own selectors, ascending by rank
+     * @param bucketed false to treat all selectors as universal
+     */
+    private SelectorIndex(SelectorIndex carried, List<Entry> entries, boolean bucketed) {
+        this.carried = carried;
+        this.bucketed = bucketed;
+        Map<String, List<Entry>> ids = new HashMap<>();
+        Map<String, List<Entry>> classes = new HashMap<>();
+        Map<String, List<Entry>> names = new HashMap<>();
+        List<Entry> universal = new ArrayList<>();
+        List<Entry> descendants = new ArrayList<>();
+        for (Entry entry : entries) {
+            Selector sel = entry.selector;
+            if (sel.getAxis() == Selector.DESCENDANT_AXIS) {
+                descendants.add(entry);
+            } else if (sel.getAxis() == Selector.IMMEDIATE_SIBLING_AXIS) {
+                throw new RuntimeException();
+            }
+            if (!bucketed) {
+                universal.add(entry);
+            } else if (sel.getID() != null) {
+                add(ids, sel.getID(), entry);
+            } else if (sel.getClassName() != null) {
+                add(classes, sel.getClassName(), entry);
+            } else if (sel.getName() != null) {
+                add(names, sel.getName().toLowerCase(Locale.ROOT), entry);
+            } else {
+                universal.add(entry);
+            }
+        }
+        this.ids = toArrays(ids);
+        this.classes = toArrays(classes);
+        this.names = toArrays(names);
+        this.universal = universal.toArray(NONE);
+        if (descendants.size() == entries.size()) {
+            this.descendants = this;
+        } else if (descendants.isEmpty()) {
+            this.descendants = carried;
+        } else {
+            this.descendants = new SelectorIndex(carried, descendants, bucketed);
+        }
+    }
+
+    /**
+     * @param selectors selectors of the document mapper, in cascade order
+     * @param bucketed  false to test all selectors against each element
+     */
+    static SelectorIndex create(Collection selectors, boolean bucketed) {
+        List<Entry> entries = new ArrayList<>(selectors.size());
+        int rank = 0;
+        for (Object sel : selectors) {
+            entries.add(new Entry((Selector) sel, rank++));
+        }
+        return new SelectorIndex(null, entries, bucketed);
+    }
+
+    /**
+     * @param chained chained selectors of the selectors matched by an element, ascending by rank
+     * @return index to match children of the element
+     */
+    SelectorIndex createChild(List<Entry> chained) {
+        if (chained.isEmpty()) {
+            return descendants != null ? descendants : EMPTY;
+        }
+        return new SelectorIndex(descendants, chained, bucketed);
+    }
+
+    /**
+     * @return selectors which may match the element, ascending by rank
+     */
+    Entry[] candidates(Object e, AttributeResolver attRes, TreeResolver treeRes) {
+        String name = treeRes.getElementName(e);
+        String id = null;
+        List<String> classNames = Collections.emptyList();
+        if (attRes != null) {
+            id = attRes.getID(e);
+            classNames = split(attRes.getClass(e));
+        }
+        return candidates(name != null ? name.toLowerCase(Locale.ROOT) : null, id, classNames);
+    }
+
+    private Entry[] candidates(String name, String id, List<String> classNames) {
+        Entry[] result = merge(merge(universal, get(ids, id)), get(names, name));
+        if (!classes.isEmpty()) {
+            for (String className : classNames) {
+                result = merge(result, get(classes, className));
+            }
+        }
+        return carried != null ? merge(carried.candidates(name, id, classNames), result) : result;
+    }
+
+    private static List<String> split(String className) {
+        if (className == null || className.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<>();
+        int start = -1;
+        for (int i = 0, length = className.length(); i <= length; i++) {
+            boolean separator = i == length || StringUtil.isWhitespace(className.charAt(i));
+            if (separator && start != -1) {
+                result.add(className.substring(start, i));
+                start = -1;
+            } else if (!separator && start == -1) {
+                start = i;
+            }
+        }
+        return result;
+    }
+
+    private static Entry[] get(Map<String, Entry[]> bucket, String key) {
+        if (key == null || bucket.isEmpty()) {
+            return NONE;
+        }
+        Entry[] entries = bucket.get(key);
+        return entries != null ? entries : NONE;
+    }
+
+    private static void add(Map<String, List<Entry>> bucket, String key, Entry entry) {
+        bucket.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+    }
+
+    private static Map<String, Entry[]> toArrays(Map<String, List<Entry>> bucket) {
+        if (bucket.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Entry[]> result = new HashMap<>(bucket.size() * 2);
+        for (Map.Entry<String, List<Entry>> entry : bucket.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toArray(NONE));
+        }
+        return result;
+    }
+
+    /**
+     * Merges arrays ascending by rank, entries of the first array go first on equal ranks
+     */
+    private static Entry[] merge(Entry[] a, Entry[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        Entry[] result = new Entry[a.length + b.length];
+        int i = 0, j = 0, k = 0;
+        while (i < a.length && j < b.length) {
+            result[k++] = b[j].rank < a[i].rank ? b[j++] : a[i++];
+        }
+        while (i < a.length) {
+            result[k++] = a[i++];
+        }
+        while (j < b.length) {
+            result[k++] = b[j++];
+        }
+        return result;
+    }
+
+    /**
+     * Selector along with the rank of its chain in the document mapper
+     */
+    static final class Entry {
+        final Selector selector;
+        final int rank;
+
+        Entry(Selector selector, int rank) {
+            this.selector = selector;
+            this.rank = rank;
+        }
+    }
+}
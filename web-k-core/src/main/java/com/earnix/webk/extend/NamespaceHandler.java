@@ -20,6 +20,7 @@
 package com.earnix.webk.extend;
 
 
+import com.earnix.webk.css.extend.AttributeResolver;
 import com.earnix.webk.css.extend.StylesheetFactory;
 import com.earnix.webk.css.sheet.StylesheetInfo;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
@@ -84,6 +85,17 @@ public interface NamespaceHandler {
      */
     String getID(ElementImpl e);
 
+    /**
+     * Tests if the class value contains the class name, case sensitive
+     *
+     * @param e         PARAM
+     * @param className PARAM
+     * @return true if the element has the class
+     */
+    default boolean hasClass(ElementImpl e, String className) {
+        return AttributeResolver.containsClass(getClass(e), className);
+    }
+
     /**
      * may return null
      *
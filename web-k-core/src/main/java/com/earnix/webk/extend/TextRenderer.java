@@ -47,6 +47,18 @@ public interface TextRenderer {
 
     public int getWidth(FontContext context, FSFont font, String string);
 
+    /**
+     * Measures the advances of all characters of a string at once. Element <code>i</code> of the result is the
+     * unrounded width of the first <code>i</code> characters, so the result has <code>string.length() + 1</code>
+     * elements. Line breaking uses them to find break positions in long texts without measuring every word.
+     *
+     * @return the advances, or <code>null</code> if widths of substrings can't be derived from them, e.g. for text
+     * which requires complex layout
+     */
+    default float[] getAdvances(FontContext context, FSFont font, String string) {
+        return null;
+    }
+
     public void setFontScale(float scale);
 
     public float getFontScale();
@@ -115,5 +115,15 @@ public interface UserAgentCallback {
     String getScriptResource(String scriptUri);
 
     void clearCaches();
+
+    /**
+     * Called once a document is parsed, before any of its resources is requested. Implementations may start
+     * fetching the document's scripts, stylesheets and images in background, they are still requested
+     * synchronously and in document order by the regular methods.
+     *
+     * @param document the document being loaded
+     */
+    default void preload(DocumentImpl document) {
+    }
 }
 
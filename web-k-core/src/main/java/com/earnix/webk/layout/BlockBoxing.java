@@ -68,6 +68,7 @@ public class BlockBoxing {
         for (Iterator i = localChildren.iterator(); i.hasNext(); ) {
             BlockBox child = (BlockBox) i.next();
             offset++;
+            c.checkCancelled();
 
             RelayoutData relayoutData = null;
 
@@ -1090,6 +1090,7 @@ public class BoxBuilder {
         if (working != null) {
             InlineBox previousIB = null;
             do {
+                c.checkCancelled();
                 Styleable child = null;
 //                short nodeType = working.getNodeType();
                 if (working instanceof ElementImpl) {
@@ -33,8 +33,10 @@ import java.util.List;
 
 /**
  * A class to collect boxes which intersect a given clip region.  If available,
- * aggregate bounds information will be used.  Block and inline content are
- * added to separate lists as they are painted in separate render phases.
+ * aggregate bounds information will be used.  Children of boxes with a
+ * {@link ChildBoundsIndex} which are outside of the clip are skipped without
+ * testing them.  Block and inline content are added to separate lists as they
+ * are painted in separate render phases.
  */
 public class BoxCollector {
     public void collect(
@@ -134,7 +136,15 @@ public class BoxCollector {
 
             if (container.getPaintingInfo() == null || intersectsAggregateBounds) {
                 if (container.getLayer() == null || container == layer.getMaster()) {
-                    for (int i = 0; i < container.getChildCount(); i++) {
+                    int first = 0;
+                    int end = container.getChildCount();
+                    ChildBoundsIndex index = clip != null ? ChildBoundsIndex.of(container) : null;
+                    if (index != null) {
+                        Rectangle bounds = clip.getBounds();
+                        first = index.getFirst(bounds.y);
+                        end = index.getEnd(bounds.y + bounds.height);
+                    }
+                    for (int i = first; i < end; i++) {
                         Box child = container.getChild(i);
                         collect(c, clip, layer, child, blockContent, inlineContent, rangeLists);
                     }
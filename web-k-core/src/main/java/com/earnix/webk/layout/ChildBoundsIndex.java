@@ -0,0 +1,95 @@
+package com.earnix.webk.layout;
+
+import com.earnix.webk.render.Box;
+
+import java.awt.Rectangle;
+
+/**
+ * An index of the vertical extents of the aggregate bounds of the children of a box, built along with its painting
+ * info. It finds the children which may intersect a clip region or contain a point in O(log n), so that painting and
+ * hit testing a long document don't test every box of it. Children stay in document order, which is the order they
+ * are painted and hit tested in, and need not be sorted by their position: the largest bottom of the children up to
+ * every index and the smallest top of the children from every index on both grow with the index and can be binary
+ * searched.
+ */
+public class ChildBoundsIndex {
+    /**
+     * Boxes with fewer children are not indexed, testing all of them is as fast
+     */
+    public static final int MIN_CHILD_COUNT = 16;
+
+    private final int[] _maxBottoms;
+    private final int[] _minTops;
+
+    /**
+     * @param box a box whose children have their painting info calculated
+     */
+    public ChildBoundsIndex(Box box) {
+        int count = box.getChildCount();
+        _maxBottoms = new int[count];
+        _minTops = new int[count];
+
+        int maxBottom = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            Rectangle bounds = box.getChild(i).getPaintingInfo().getAggregateBounds();
+            maxBottom = Math.max(maxBottom, bounds.y + bounds.height);
+            _maxBottoms[i] = maxBottom;
+        }
+        int minTop = Integer.MAX_VALUE;
+        for (int i = count - 1; i >= 0; i--) {
+            minTop = Math.min(minTop, box.getChild(i).getPaintingInfo().getAggregateBounds().y);
+            _minTops[i] = minTop;
+        }
+    }
+
+    /**
+     * Returns the index of the box, if it has one which is up to date with its children.
+     */
+    public static ChildBoundsIndex of(Box box) {
+        PaintingInfo info = box.getPaintingInfo();
+        if (info == null) {
+            return null;
+        }
+        ChildBoundsIndex index = info.getChildBoundsIndex();
+        return index != null && index.getChildCount() == box.getChildCount() ? index : null;
+    }
+
+    public int getChildCount() {
+        return _maxBottoms.length;
+    }
+
+    /**
+     * Returns the index of the first child which may reach below <code>top</code>. Children before it end above.
+     */
+    public int getFirst(int top) {
+        int low = 0;
+        int high = _maxBottoms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_maxBottoms[mid] > top) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index following the last child which may start above <code>bottom</code>. Children from it on
+     * start below.
+     */
+    public int getEnd(int bottom) {
+        int low = 0;
+        int high = _minTops.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (_minTops[mid] >= bottom) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+}
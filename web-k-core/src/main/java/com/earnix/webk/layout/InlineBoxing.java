@@ -122,6 +122,7 @@ public class InlineBoxing {
 
         for (Iterator i = box.getInlineContent().iterator(); i.hasNext(); ) {
             Styleable node = (Styleable) i.next();
+            c.checkCancelled();
 
             if (node.getStyle().isInline()) {
                 InlineBox iB = (InlineBox) node;
@@ -189,7 +190,7 @@ public class InlineBoxing {
 
                     zeroWidthInlineBlock = false;
 
-                    if (lbContext.getStartSubstring().length() == 0) {
+                    if (lbContext.getStart() == lbContext.getLast()) {
                         break;
                     }
 
@@ -894,7 +895,7 @@ public class InlineBoxing {
             LineBox line, CalculatedStyle style, LineBreakContext lbContext,
             boolean zeroWidthInlineBlock) {
         if ((!line.isContainsContent() || zeroWidthInlineBlock) &&
-                lbContext.getStartSubstring().startsWith(WhitespaceStripper.SPACE)) {
+                lbContext.getMaster().startsWith(WhitespaceStripper.SPACE, lbContext.getStart())) {
             IdentValue whitespace = style.getWhitespace();
             if (whitespace == IdentValue.NORMAL
                     || whitespace == IdentValue.NOWRAP
@@ -910,12 +911,12 @@ public class InlineBoxing {
     }
 
     private static void trimLeadingSpace(LineBreakContext lbContext) {
-        String s = lbContext.getStartSubstring();
-        int i = 0;
+        String s = lbContext.getMaster();
+        int i = lbContext.getStart();
         while (i < s.length() && s.charAt(i) == ' ') {
             i++;
         }
-        lbContext.setStart(lbContext.getStart() + i);
+        lbContext.setStart(i);
     }
 
     private static LineBox newLine(LayoutContext c, LineBox previousLine, Box box) {
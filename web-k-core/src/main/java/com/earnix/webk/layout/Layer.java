@@ -162,7 +162,25 @@ public class Layer {
     private void paintLayers(RenderingContext c, List layers) {
         for (int i = 0; i < layers.size(); i++) {
             Layer layer = (Layer) layers.get(i);
-            layer.paint(c);
+            if (!c.isFixedLayersSkipped() || !layer.getMaster().getStyle().isFixed()) {
+                layer.paint(c);
+            }
+        }
+    }
+
+    /**
+     * Paints the fixed positioned layers which were skipped by a painting of this layer, see
+     * {@link RenderingContext#isFixedLayersSkipped()}. They are painted over it, in document order.
+     */
+    public void paintFixedLayers(RenderingContext c) {
+        for (Iterator i = getChildren().iterator(); i.hasNext(); ) {
+            Layer child = (Layer) i.next();
+
+            if (child.getMaster().getStyle().isFixed()) {
+                child.paint(c);
+            } else {
+                child.paintFixedLayers(c);
+            }
         }
     }
 
@@ -611,6 +629,10 @@ public class Layer {
         return _fixedBackground || containsFixedLayer();
     }
 
+    public boolean isFixedBackground() {
+        return _fixedBackground;
+    }
+
     public void setFixedBackground(boolean b) {
         _fixedBackground = b;
     }
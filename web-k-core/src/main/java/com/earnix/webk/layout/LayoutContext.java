@@ -46,6 +46,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * This class tracks state which changes over the course of a layout run.
@@ -86,6 +87,31 @@ public class LayoutContext implements CssContext {
 
     private BreakAtLineContext _breakAtLineContext;
 
+    private volatile boolean _cancelled;
+
+    /**
+     * Cancels the layout run of this context, see {@link #checkCancelled()}. Layout runs in background are cancelled
+     * once superseded by another one.
+     */
+    public void cancel() {
+        _cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return _cancelled;
+    }
+
+    /**
+     * Called as the box tree is built and laid out, so that a cancelled layout run stops early.
+     *
+     * @throws CancellationException if the layout run was cancelled
+     */
+    public void checkCancelled() {
+        if (_cancelled) {
+            throw new CancellationException("Layout cancelled");
+        }
+    }
+
     public TextRenderer getTextRenderer() {
         return _sharedContext.getTextRenderer();
     }
@@ -19,6 +19,8 @@
  */
 package com.earnix.webk.layout;
 
+import com.earnix.webk.layout.breaker.TextBreakPoints;
+import com.earnix.webk.render.FSFont;
 import com.earnix.webk.runtime.dom.impl.TextImpl;
 
 /**
@@ -36,6 +38,9 @@ public class LineBreakContext {
     private int _width;
     private boolean _endsOnNL;
     private TextImpl _textNode;
+    private FSFont _advancesFont;
+    private float[] _advances;
+    private TextBreakPoints _breakPoints;
 
     public int getLast() {
         return _master.length();
@@ -61,6 +66,9 @@ public class LineBreakContext {
 
     public void setMaster(String master) {
         _master = master;
+        _advancesFont = null;
+        _advances = null;
+        _breakPoints = null;
     }
 
     public int getStart() {
@@ -130,6 +138,37 @@ public class LineBreakContext {
         _endsOnNL = b;
     }
 
+    /**
+     * @return whether {@link #getAdvances()} holds the advances of the master text measured with the given font
+     */
+    public boolean hasAdvances(FSFont font) {
+        return _advancesFont == font;
+    }
+
+    /**
+     * @return the advances of the master text, see {@link com.earnix.webk.extend.TextRenderer#getAdvances}, or
+     * <code>null</code> if they couldn't be measured
+     */
+    public float[] getAdvances() {
+        return _advances;
+    }
+
+    public void setAdvances(FSFont font, float[] advances) {
+        _advancesFont = font;
+        _advances = advances;
+    }
+
+    /**
+     * @return the break points of the master text, shared by its lines
+     */
+    public TextBreakPoints getBreakPoints() {
+        return _breakPoints;
+    }
+
+    public void setBreakPoints(TextBreakPoints breakPoints) {
+        _breakPoints = breakPoints;
+    }
+
     public TextImpl getTextNode() {
         return this._textNode;
     }
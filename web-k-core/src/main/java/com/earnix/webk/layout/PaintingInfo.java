@@ -32,6 +32,7 @@ import java.awt.Rectangle;
 public class PaintingInfo {
     private Dimension _outerMarginCorner;
     private Rectangle _aggregateBounds;
+    private ChildBoundsIndex _childBoundsIndex;
 
     public PaintingInfo() {
     }
@@ -52,6 +53,14 @@ public class PaintingInfo {
         _outerMarginCorner = outerMarginCorner;
     }
 
+    public ChildBoundsIndex getChildBoundsIndex() {
+        return _childBoundsIndex;
+    }
+
+    public void setChildBoundsIndex(ChildBoundsIndex childBoundsIndex) {
+        _childBoundsIndex = childBoundsIndex;
+    }
+
     public PaintingInfo copyOf() {
         PaintingInfo result = new PaintingInfo();
         result.setOuterMarginCorner(new Dimension(_outerMarginCorner));
@@ -59,6 +59,7 @@ import java.awt.Toolkit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The SharedContext is that which is kept between successive layout and render runs.
@@ -94,6 +95,11 @@ public class SharedContext {
 
     Map<ElementImpl, CalculatedStyle> styleMap;
 
+    /**
+     * Number of preceding element siblings checked for a style to share, see {@link #getSharedStyle(ElementImpl)}
+     */
+    final static int STYLE_SHARING_CANDIDATES = 4;
+
     ReplacedElementFactory replacedElementFactory;
 
     @Getter
@@ -504,7 +510,8 @@ public class SharedContext {
 
     public CalculatedStyle getStyle(ElementImpl e, boolean restyle) {
         if (styleMap == null) {
-            styleMap = new HashMap<>(1024, 0.75f);
+            // styles are computed by background layouts as well, see RootPanel
+            styleMap = new ConcurrentHashMap<>(1024, 0.75f);
         }
 
         CalculatedStyle result = null;
@@ -520,7 +527,12 @@ public class SharedContext {
                 parentCalculatedStyle = getStyle((ElementImpl) parent, false);
             }
 
-            result = parentCalculatedStyle.deriveStyle(getCss().getCascadedStyle(e, restyle));
+            if (!restyle) {
+                result = getSharedStyle(e);
+            }
+            if (result == null) {
+                result = parentCalculatedStyle.deriveStyle(getCss().getCascadedStyle(e, restyle));
+            }
 
             styleMap.put(e, result);
         }
@@ -528,6 +540,29 @@ public class SharedContext {
         return result;
     }
 
+    /**
+     * Finds a preceding element sibling with the same name and attributes, which has the same style as the element:
+     * they have the same parent style and match the same selectors, unless matching of the sibling depended on its
+     * position or dynamic state. The element then skips matching. Rows of identical table cells are styled this way.
+     *
+     * @return style of the sibling, or null if there is none to share
+     */
+    private CalculatedStyle getSharedStyle(ElementImpl e) {
+        ElementImpl sibling = e;
+        for (int i = 0; i < STYLE_SHARING_CANDIDATES; i++) {
+            sibling = sibling.previousElementSibling();
+            if (sibling == null) {
+                return null;
+            }
+            CalculatedStyle style = styleMap.get(sibling);
+            if (style != null && sibling.tagName().equals(e.tagName())
+                    && sibling.getAttributes().equals(e.getAttributes()) && getCss().shareStyle(e, sibling)) {
+                return style;
+            }
+        }
+        return null;
+    }
+
     public void reset() {
         styleMap = null;
         idMap = null;
@@ -27,7 +27,15 @@ public class BreakAnywhereLineBreakStrategy implements BreakPointsProvider {
     int position = 0;
 
     public BreakAnywhereLineBreakStrategy(String currentString) {
+        this(currentString, 0);
+    }
+
+    /**
+     * @param position the first break point to return
+     */
+    public BreakAnywhereLineBreakStrategy(String currentString, int position) {
         this.currentString = currentString;
+        this.position = position;
     }
 
     @Override
@@ -43,6 +43,11 @@ public class Breaker {
 
     private static final String DEFAULT_LANGUAGE = System.getProperty("com.earnix.webk.layout.breaker.default-language", "en");
 
+    /**
+     * Texts from this length on are broken with the help of advances measured for the whole text
+     */
+    private static final int MIN_MEASURED_ADVANCES_LENGTH = 256;
+
     public static void breakFirstLetter(LayoutContext c, LineBreakContext context,
                                         int avail, CalculatedStyle style) {
         FSFont font = style.getFSFont(c);
@@ -87,12 +92,14 @@ public class Breaker {
         }
 
         //check if we should break on the next newline
+        int end = context.getLast();
         if (whitespace == IdentValue.PRE ||
                 whitespace == IdentValue.PRE_WRAP ||
                 whitespace == IdentValue.PRE_LINE) {
-            int n = context.getStartSubstring().indexOf(WhitespaceStripper.EOL);
+            int n = context.getMaster().indexOf(WhitespaceStripper.EOL, context.getStart());
             if (n > -1) {
-                context.setEnd(context.getStart() + n + 1);
+                end = n + 1;
+                context.setEnd(end);
                 context.setWidth(c.getTextRenderer().getWidth(
                         c.getFontContext(), font, context.getCalculatedSubstring()));
                 context.setNeedsNewLine(true);
@@ -111,7 +118,7 @@ public class Breaker {
         }
 
         context.setEndsOnNL(false);
-        doBreakText(c, context, avail, style, false);
+        doBreakText(c, context, end, avail, style, false);
     }
 
     private static int getWidth(LayoutContext c, FSFont f, String text) {
@@ -144,14 +151,73 @@ public class Breaker {
         return DEFAULT_LANGUAGE;
     }
 
+    /**
+     * Returns the advances of the text being broken if it is long enough to measure them, see
+     * {@link com.earnix.webk.extend.TextRenderer#getAdvances}. They are measured once per text and font, shorter
+     * texts are broken by summing the widths of their words, which are cached by the text renderer.
+     */
+    private static float[] getAdvances(LayoutContext c, LineBreakContext context, FSFont f) {
+        if (context.getLast() < MIN_MEASURED_ADVANCES_LENGTH) {
+            return null;
+        }
+        if (!context.hasAdvances(f)) {
+            context.setAdvances(f, c.getTextRenderer().getAdvances(c.getFontContext(), f, context.getMaster()));
+        }
+        return context.getAdvances();
+    }
+
+    /**
+     * Returns the break points of the text up to <code>end</code>, following its start. Break points of the rest of
+     * the text are looked up only once for all its lines, so that long words aren't scanned again for every line.
+     */
+    private static BreakPointsProvider getBreakPoints(LayoutContext c, LineBreakContext context, int end,
+                                                      CalculatedStyle style) {
+        if (end != context.getLast()) {
+            return getBreakPointsProvider(
+                    context.getMaster().substring(context.getStart(), end), c, context.getTextNode(), style);
+        }
+        TextBreakPoints breakPoints = context.getBreakPoints();
+        if (breakPoints == null) {
+            breakPoints = new TextBreakPoints(getBreakPointsProvider(
+                    context.getStartSubstring(), c, context.getTextNode(), style), context.getStart());
+            context.setBreakPoints(breakPoints);
+        }
+        breakPoints.setStart(context.getStart());
+        return breakPoints;
+    }
+
+    /**
+     * Binary search for the number of characters following <code>start</code> which fit <code>avail</code>.
+     */
+    private static int getFittingLength(float[] advances, int start, int end, int avail) {
+        float limit = advances[start] + avail;
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (advances[mid] <= limit) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low - start;
+    }
+
     private static void doBreakText(LayoutContext c,
-                                    LineBreakContext context, int avail, CalculatedStyle style,
+                                    LineBreakContext context, int end, int avail, CalculatedStyle style,
                                     boolean tryToBreakAnywhere) {
         FSFont f = style.getFSFont(c);
-        String currentString = context.getStartSubstring();
-        BreakPointsProvider iterator = getBreakPointsProvider(currentString, c, context.getTextNode(), style);
+        int start = context.getStart();
+        String currentString = context.getMaster().substring(start, end);
+        float[] advances = getAdvances(c, context, f);
+        int fittingLength = advances != null ? getFittingLength(advances, start, end, avail) : -1;
+        BreakPointsProvider iterator;
         if (tryToBreakAnywhere) {
-            iterator = new BreakAnywhereLineBreakStrategy(currentString);
+            // any position fits up to the fitting length, so the search can start there
+            iterator = new BreakAnywhereLineBreakStrategy(currentString, Math.max(fittingLength, 0));
+        } else {
+            iterator = getBreakPoints(c, context, end, style);
         }
         BreakPoint bp = iterator.next();
         BreakPoint lastBreakPoint = null;
@@ -159,52 +225,68 @@ public class Breaker {
         int previousWidth = 0;
         int previousPosition = 0;
         while (bp != null && bp.getPosition() != BreakIterator.DONE) {
-            int currentWidth = getWidth(c, f, currentString.substring(previousPosition, bp.getPosition()) + bp.getHyphen());
-            int widthWithHyphen = previousWidth + currentWidth;
-            previousWidth = widthWithHyphen;
-            previousPosition = bp.getPosition();
-            if (widthWithHyphen > avail) break;
-            right = previousPosition;
+            boolean fits;
+            if (advances != null) {
+                fits = bp.getHyphen().isEmpty() ? bp.getPosition() <= fittingLength :
+                        advances[start + bp.getPosition()] - advances[start] + getWidth(c, f, bp.getHyphen()) <= avail;
+            } else {
+                // widths of words are cached by the text renderer, so the same string is looked up whenever possible
+                String word = currentString.substring(previousPosition, bp.getPosition());
+                int currentWidth = getWidth(c, f, bp.getHyphen().isEmpty() ? word : word + bp.getHyphen());
+                int widthWithHyphen = previousWidth + currentWidth;
+                previousWidth = widthWithHyphen;
+                previousPosition = bp.getPosition();
+                fits = widthWithHyphen <= avail;
+            }
+            if (!fits) break;
+            right = bp.getPosition();
             lastBreakPoint = bp;
             bp = iterator.next();
         }
-        ;
 
         // add hyphen if needed
         if (bp != null && bp.getPosition() != BreakIterator.DONE // it fits
                 && right >= 0 // some break point found
                 && !lastBreakPoint.getHyphen().isEmpty()) {
-            context.setMaster(new StringBuilder(context.getMaster()).insert(context.getStart() + right, lastBreakPoint.getHyphen()).toString());
+            context.setMaster(new StringBuilder(context.getMaster()).insert(start + right, lastBreakPoint.getHyphen()).toString());
             right += lastBreakPoint.getHyphen().length();
         }
 
         if (bp != null && bp.getPosition() == BreakIterator.DONE) {
-            context.setWidth(getWidth(c, f, currentString));
-            context.setEnd(context.getMaster().length());
             //It fits!
+            setEnd(context, end);
+            context.setWidth(getWidth(c, f, context.getCalculatedSubstring()));
             return;
         }
 
         context.setNeedsNewLine(true);
         if (right <= 0 && style.getWordWrap() == IdentValue.BREAK_WORD) {
             if (!tryToBreakAnywhere) {
-                doBreakText(c, context, avail, style, true);
+                doBreakText(c, context, end, avail, style, true);
                 return;
             }
         }
 
         if (right > 0) { // found a place to wrap
-            context.setEnd(context.getStart() + right);
-            context.setWidth(getWidth(c, f, context.getMaster().substring(context.getStart(), context.getStart() + right)));
+            context.setEnd(start + right);
+            context.setWidth(getWidth(c, f, context.getMaster().substring(start, start + right)));
             return;
         }
 
-        // unbreakable string
-        context.setEnd(context.getStart() + currentString.length());
+        // unbreakable string, up to the next place to wrap
+        setEnd(context, bp != null && bp.getPosition() > 0 ? start + bp.getPosition() : end);
         context.setUnbreakable(true);
         context.setWidth(getWidth(c, f, context.getCalculatedSubstring()));
     }
 
+    private static void setEnd(LineBreakContext context, int end) {
+        context.setEnd(end);
+        if (context.getMaster().charAt(end - 1) == WhitespaceStripper.EOLC) {
+            context.setNeedsNewLine(true);
+            context.setEndsOnNL(true);
+        }
+    }
+
 }
 
 
@@ -0,0 +1,58 @@
+package com.earnix.webk.layout.breaker;
+
+import java.text.BreakIterator;
+
+/**
+ * The break points of a whole text, shared by all of its lines so that the text is scanned for them only once.
+ * Positions returned are relative to the start of the current line, like the ones of a provider created for the
+ * rest of the text. The break point at which a line overflowed is returned again for the next line.
+ */
+public class TextBreakPoints implements BreakPointsProvider {
+
+    private final BreakPointsProvider provider;
+    private final int offset;
+    private int start;
+    private BreakPoint last;
+    private boolean replay;
+
+    /**
+     * @param provider break points of the text following <code>offset</code>
+     */
+    public TextBreakPoints(BreakPointsProvider provider, int offset) {
+        this.provider = provider;
+        this.offset = offset;
+        this.start = offset;
+    }
+
+    /**
+     * Moves to the line starting at the given position of the text, which must not precede the previous one.
+     */
+    public void setStart(int start) {
+        this.start = start;
+        replay = last != null;
+    }
+
+    @Override
+    public BreakPoint next() {
+        BreakPoint bp = replay ? last : nextInText();
+        replay = false;
+        while (bp != null && bp.getPosition() != BreakIterator.DONE && bp.getPosition() <= start) {
+            bp = nextInText();
+        }
+        last = bp;
+        if (bp == null || bp.getPosition() == BreakIterator.DONE) {
+            return bp;
+        }
+        BreakPoint result = new BreakPoint(bp.getPosition() - start);
+        result.setHyphen(bp.getHyphen());
+        return result;
+    }
+
+    private BreakPoint nextInText() {
+        BreakPoint bp = provider.next();
+        if (bp != null && bp.getPosition() != BreakIterator.DONE) {
+            bp.setPosition(bp.getPosition() + offset);
+        }
+        return bp;
+    }
+}
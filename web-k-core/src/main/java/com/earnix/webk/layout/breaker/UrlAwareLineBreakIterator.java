@@ -74,8 +74,13 @@ public class UrlAwareLineBreakIterator extends BreakIterator {
 
 
     private int findSlashInRange(Range searchRange) {
-        int nextSlash = text.indexOf('/', searchRange.getStart());
-        return nextSlash < searchRange.getStop() ? nextSlash : -1;
+        // only the range is searched, text without slashes would be scanned up to its end for every break
+        for (int i = searchRange.getStart(); i < searchRange.getStop(); i++) {
+            if (text.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return -1;
     }
 
 
@@ -866,6 +866,13 @@ public class TableBox extends BlockBox {
         return _contentLimitContainer != null;
     }
 
+    /**
+     * Header and footer sections are moved to every page while painting, see {@link #updateHeaderFooterPosition}.
+     */
+    protected boolean isChildBoundsIndexed() {
+        return false;
+    }
+
     public int getExtraSpaceTop() {
         return _extraSpaceTop;
     }
@@ -30,6 +30,7 @@ import com.earnix.webk.css.style.derived.BorderPropertySet;
 import com.earnix.webk.css.style.derived.RectPropertySet;
 import com.earnix.webk.layout.Layer;
 import com.earnix.webk.layout.LayoutContext;
+import com.earnix.webk.layout.ChildBoundsIndex;
 import com.earnix.webk.layout.PaintingInfo;
 import com.earnix.webk.layout.Styleable;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
@@ -678,8 +679,16 @@ public abstract class Box implements Styleable {
             return null;
         }
 
+        int first = 0;
+        int end = getChildCount();
+        ChildBoundsIndex index = ChildBoundsIndex.of(this);
+        if (index != null) {
+            first = index.getFirst(absY);
+            end = index.getEnd(absY + 1);
+        }
+
         Box result = null;
-        for (int i = 0; i < getChildCount(); i++) {
+        for (int i = first; i < end; i++) {
             Box child = getChild(i);
             result = child.find(cssCtx, absX, absY, findAnonymous);
             if (result != null) {
@@ -816,6 +825,17 @@ public abstract class Box implements Styleable {
             moveIfGreater(result.getOuterMarginCorner(), info.getOuterMarginCorner());
             result.getAggregateBounds().add(info.getAggregateBounds());
         }
+        if (getChildCount() >= ChildBoundsIndex.MIN_CHILD_COUNT && isChildBoundsIndexed()) {
+            result.setChildBoundsIndex(new ChildBoundsIndex(this));
+        }
+    }
+
+    /**
+     * Whether the bounds of the children are indexed for painting and hit testing, see {@link ChildBoundsIndex}.
+     * Boxes whose children are moved after their painting info is calculated must not index them.
+     */
+    protected boolean isChildBoundsIndexed() {
+        return true;
     }
 
     public int getMarginBorderPadding(CssContext cssCtx, int which) {
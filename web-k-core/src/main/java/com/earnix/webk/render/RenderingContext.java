@@ -53,6 +53,8 @@ public class RenderingContext implements CssContext {
 
     private int initialPageNo;
 
+    private boolean fixedLayersSkipped;
+
     /**
      * <p/>
      * needs a new instance every run
@@ -231,6 +233,18 @@ public class RenderingContext implements CssContext {
         this.initialPageNo = initialPageNo;
     }
 
+    /**
+     * Whether fixed positioned layers are left out of the painting, to be painted over it by
+     * {@link Layer#paintFixedLayers}.
+     */
+    public boolean isFixedLayersSkipped() {
+        return fixedLayersSkipped;
+    }
+
+    public void setFixedLayersSkipped(boolean fixedLayersSkipped) {
+        this.fixedLayersSkipped = fixedLayersSkipped;
+    }
+
     public Box getBoxById(String id) {
         return sharedContext.getBoxById(id);
     }
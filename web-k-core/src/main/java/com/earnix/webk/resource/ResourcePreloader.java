@@ -0,0 +1,141 @@
+package com.earnix.webk.resource;
+
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.util.ImageUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * Fetches resources referenced by a document (scripts, stylesheets and images) concurrently, right after the document
+ * is parsed. Fetched content is then taken by the regular synchronous resource loading, so scripts are still
+ * evaluated and stylesheets are cascaded in document order, but waiting for the network happens in parallel.
+ * <p>
+ * Content is kept in memory until it's taken or the next document is preloaded.
+ */
+@Slf4j
+public class ResourcePreloader {
+
+    /**
+     * Opens stream of resolved resource URI
+     */
+    public interface StreamOpener {
+        InputStream open(String uri) throws IOException;
+    }
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Future<byte[]>> resources = new ConcurrentHashMap<>();
+
+    /**
+     * @param threads maximum number of concurrent fetches, preloading is disabled if 0
+     */
+    public ResourcePreloader(int threads) {
+        if (threads > 0) {
+            executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "resource-preloader-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            executor.allowCoreThreadTimeOut(true);
+        } else {
+            executor = null;
+        }
+    }
+
+    /**
+     * Starts fetching of the document's resources, dropping previously preloaded ones.
+     *
+     * @param resolver resolves URIs of the document's resources
+     * @param opener   opens streams of the resolved URIs
+     */
+    public void preload(DocumentImpl document, UnaryOperator<String> resolver, StreamOpener opener) {
+        clear();
+        if (executor == null) {
+            return;
+        }
+
+        for (String uri : collectUris(document)) {
+            String resolvedUri = resolver.apply(uri);
+            if (resolvedUri != null && !resources.containsKey(resolvedUri)) {
+                resources.put(resolvedUri, executor.submit(() -> {
+                    try (InputStream is = opener.open(resolvedUri)) {
+                        return is != null ? IOUtils.toByteArray(is) : null;
+                    }
+                }));
+            }
+        }
+        log.trace("Preloading {} resources", resources.size());
+    }
+
+    /**
+     * Takes preloaded content of the resource, waiting for its fetch completion if needed.
+     *
+     * @param resolvedUri resolved URI of the resource
+     * @return content stream or null if resource wasn't preloaded or its fetch has failed
+     */
+    public InputStream take(String resolvedUri) {
+        if (resolvedUri == null || resources.isEmpty()) {
+            return null;
+        }
+        Future<byte[]> resource = resources.remove(resolvedUri);
+        if (resource == null) {
+            return null;
+        }
+        try {
+            byte[] content = resource.get();
+            return content != null ? new ByteArrayInputStream(content) : null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            log.debug("Preloading of {} failed", resolvedUri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Cancels pending fetches and drops preloaded content
+     */
+    public void clear() {
+        resources.values().forEach(f -> f.cancel(true));
+        resources.clear();
+    }
+
+    private static List<String> collectUris(DocumentImpl document) {
+        List<String> uris = new ArrayList<>();
+        for (ElementImpl element : document.select("script[src], link[href], img[src]")) {
+            if (element.nodeName().equals("link")) {
+                String rel = element.attr("rel");
+                if (!StringUtils.containsIgnoreCase(rel, "stylesheet")) {
+                    continue;
+                }
+                uris.add(element.attr("href"));
+            } else {
+                String src = element.attr("src");
+                if (StringUtils.isNotBlank(src) && !ImageUtil.isEmbeddedBase64Image(src)) {
+                    uris.add(src);
+                }
+            }
+        }
+        return uris;
+    }
+}
@@ -10,17 +10,18 @@ import com.earnix.webk.runtime.ui_events.impl.MouseEventsAdapter;
 import com.earnix.webk.runtime.ui_events.impl.UIEventImpl;
 import com.earnix.webk.runtime.web_idl.Constructor;
 import com.earnix.webk.runtime.web_idl.Exposed;
+import com.earnix.webk.runtime.web_idl.impl.AdapterCache;
 import com.earnix.webk.runtime.web_idl.impl.FunctionAdapter;
 import com.earnix.webk.runtime.web_idl.impl.WebIDLAdapter;
 import com.earnix.webk.runtime.dom.impl.EventImpl;
 import com.earnix.webk.runtime.dom.impl.EventManager;
+import com.earnix.webk.runtime.xhr.impl.XMLHttpRequestClient;
 import com.earnix.webk.runtime.xhr.impl.XMLHttpRequestImpl;
 import com.earnix.webk.swing.BasicPanel;
 import jdk.nashorn.api.scripting.AbstractJSObject;
 import jdk.nashorn.api.scripting.NashornException;
 import jdk.nashorn.api.scripting.NashornScriptEngine;
-import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
-import jdk.nashorn.api.scripting.URLReader;
+import jdk.nashorn.api.scripting.ScriptObjectMirror;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.experimental.FieldDefaults;
@@ -59,7 +60,24 @@ public class ScriptContext implements DocumentListener {
     WindowImpl window;
     private WebIDLAdapter<WindowImpl> windowAdapter;
 
-    int documentHash;
+    /**
+     * See window-bindings.js
+     */
+    ScriptObjectMirror windowSynchronizer;
+
+    /**
+     * Adapters of objects exposed to JavaScript, released on document unload
+     */
+    @Getter
+    final AdapterCache adapterCache = new AdapterCache();
+
+    /**
+     * HTTP client of XMLHttpRequests, released on document unload
+     */
+    @Getter
+    final XMLHttpRequestClient xhrClient = new XMLHttpRequestClient();
+
+    long documentMutationCount;
     boolean rendered;
 
     public ScriptContext(BasicPanel panel) {
@@ -67,6 +85,7 @@ public class ScriptContext implements DocumentListener {
         // initializing mouse events translation
         eventManager = new EventManager(this);
         mouseEventsAdapter = new MouseEventsAdapter(this);
+        SharedScriptEngine.prewarm();
     }
 
     public void dispatchLoadEvents() {
@@ -85,13 +104,13 @@ public class ScriptContext implements DocumentListener {
             //UIEvent.view : Window
             //UIEvent.detail : 0
 
-            storeDocumentHash();
+            storeDocumentState();
             val eventInit = new UIEventInit();
             eventInit.bubbles = false;
             eventInit.cancelable = false;
             eventInit.view = window;
             eventManager.publishEvent(window, new UIEventImpl("load", eventInit));
-            handleDocumentHashUpdate();
+            handleDocumentUpdate();
         } else {
             SwingUtilities.invokeLater(this::dispatchLoadEvents);
         }
@@ -149,10 +168,8 @@ public class ScriptContext implements DocumentListener {
     }
 
     private void initEngine() {
-        String[] options = {"--language=es6", "--no-java"};
-        NashornScriptEngineFactory jsFactory = new NashornScriptEngineFactory();
-        engine = (NashornScriptEngine) jsFactory.getScriptEngine(options);
-        context = engine.getContext();
+        engine = SharedScriptEngine.getEngine();
+        context = SharedScriptEngine.createContext();
 
         expose(CanvasGradientImpl.class);
         expose(CanvasPatternImpl.class);
@@ -163,30 +180,22 @@ public class ScriptContext implements DocumentListener {
         windowAdapter = WebIDLAdapter.obtain(this, window);
 
         try {
-            context.setAttribute("window", engine.eval("this"), ENGINE_SCOPE);
-            context.setAttribute("self", engine.eval("this"), ENGINE_SCOPE);
+            context.setAttribute("window", engine.eval("this", context), ENGINE_SCOPE);
+            context.setAttribute("self", engine.eval("this", context), ENGINE_SCOPE);
             context.setAttribute("__win", windowAdapter, ENGINE_SCOPE);
+
+            // window members are exposed as accessors of global object properties
+            val keys = windowAdapter.keySet().stream()
+                    .filter(key -> !key.equals("window") && !key.equals("self"))
+                    .toArray(String[]::new);
+            val bindWindow = (ScriptObjectMirror) SharedScriptEngine.compileResource("/window-bindings.js").eval(context);
+            windowSynchronizer = (ScriptObjectMirror) bindWindow.call(null, windowAdapter, keys);
         } catch (ScriptException e) {
             throw new RuntimeException(e);
         }
 
-
-        // no way to track attributes write operation on global scope...
-        // limitation - to use "window" property
-        windowAdapter.keySet().forEach(key -> {
-            if (!key.equals("window") && !key.equals("self")) {
-                try {
-                    engine.eval("this." + key + " = " + " __win." + key + ";");
-                    engine.eval("self." + key + " = " + " __win." + key + ";");
-                } catch (ScriptException e) {
-                    throw new RuntimeException(e);
-                }
-            }
-        });
-
         try {
-            engine.eval(new URLReader(ScriptContext.class.getResource("/symbol-polyfill.js")), context);
-            engine.eval(new URLReader(ScriptContext.class.getResource("/es6-shim.min.js")), context);
+            SharedScriptEngine.evalPolyfills(context);
         } catch (ScriptException e) {
             throw new RuntimeException(e);
         }
@@ -242,13 +251,14 @@ public class ScriptContext implements DocumentListener {
             if(document != null){
                 dispatchUnloadEvents();
             }
+            adapterCache.clear();
+            xhrClient.release();
             
             initEngine();
 
 //            val doc = new DocumentImpl(getPanel().getSharedContext().getBaseURL())
             nextDocument.setScriptContext(this);
             window.setDocument(nextDocument);
-            context.setAttribute("document", windowAdapter.getMember("document"), ENGINE_SCOPE);
             
             document = nextDocument;
             
@@ -283,22 +293,11 @@ public class ScriptContext implements DocumentListener {
 
     public Object eval(String scr) {
         Object res;
+        storeDocumentState();
         try {
-            res = engine.eval(scr, context);
-            windowAdapter.keySet().forEach(key -> {
-                if (!key.equals("window") && !key.equals("self")) {
-                    try {
-                        if ((Boolean) engine.eval("!!__win." + key)) {
-                            engine.eval("this." + key + " = " + " __win." + key);
-                            engine.eval("self." + key + " = " + " __win." + key);
-                        }
-                    } catch (ScriptException e) {
-                        throw new RuntimeException(e);
-                    }
-                }
-            });
+            res = SharedScriptEngine.compile(scr).eval(context);
             synchronize();
-            panel.reset();
+            handleDocumentUpdate();
         } catch (ScriptException e) {
             if (e.getCause() instanceof NashornException) {
                 log.error(NashornException.getScriptStackString(e.getCause()));
@@ -309,34 +308,58 @@ public class ScriptContext implements DocumentListener {
     }
 
     /**
-     * Updates fields of window WebIDL implementation from current fields of global Nashorn context
+     * Passes globals declared by the script, e.g. window members declared as functions, to window WebIDL
+     * implementation
      */
     private void synchronize() {
-        try {
-            engine.eval("this.__keys = Object.keys(this); for (let i = 0; i < __keys.length; i++) { if (this[__keys[i]]) this.__win[__keys[i]] = this[__keys[i]]; }");
-        } catch (ScriptException e) {
-            throw new RuntimeException(e);
-        }
+        windowSynchronizer.call(null);
     }
     
+    /**
+     * Sets a variable of the document's global scope
+     */
+    public void put(String name, Object value) {
+        context.setAttribute(name, value, ENGINE_SCOPE);
+    }
+
     public WindowImpl getWindow() {
         return window;
     }
 
 
-    public void storeDocumentHash() {
-        documentHash = document != null ? document.outerHtml().hashCode() : 0;
+    /**
+     * Remembers current document mutation count, to be compared by {@link #handleDocumentUpdate()}. Called before
+     * scripts and event handlers run, so a layout in progress on the layout thread, which reads the document, is
+     * cancelled before the document is changed.
+     */
+    public void storeDocumentState() {
+        panel.cancelBackgroundLayout();
+        documentMutationCount = document != null ? document.getMutationCount() : 0;
     }
 
     /**
-     * Checks whether document model is change since last {@link #storeDocumentHash()} call and 
+     * Checks whether document model is changed since last {@link #storeDocumentState()} call and 
      * resets browser panel (causes it's re-rendering), if so.
      */
-    public void handleDocumentHashUpdate() {
-        int currentHash = document != null ? document.outerHtml().hashCode() : 0;
-        if (documentHash != currentHash) {
+    public void handleDocumentUpdate() {
+        long currentMutationCount = document != null ? document.getMutationCount() : 0;
+        if (documentMutationCount != currentMutationCount) {
+            panel.reset();
+        }
+    }
+
+    /**
+     * Brings the layout of the document up to date before a script reads geometry of it: document changes not handled
+     * yet are handled as by {@link #handleDocumentUpdate()}, so that only the changed parts are re-created, and the
+     * panel is laid out right away if needed, see {@link BasicPanel#forceLayout()}. Reads with no changes in between
+     * don't lay out again.
+     */
+    public void flushLayout() {
+        if (document != null && documentMutationCount != document.getMutationCount()) {
             panel.reset();
+            storeDocumentState();
         }
+        panel.forceLayout();
     }
 
     public void setRendered(boolean rendered) {
@@ -0,0 +1,127 @@
+package com.earnix.webk.runtime;
+
+import com.earnix.webk.util.Configuration;
+import jdk.nashorn.api.scripting.NashornScriptEngine;
+import jdk.nashorn.api.scripting.NashornScriptEngineFactory;
+import jdk.nashorn.api.scripting.URLReader;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+import javax.script.SimpleScriptContext;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static javax.script.ScriptContext.ENGINE_SCOPE;
+
+/**
+ * Nashorn engine shared by all {@link ScriptContext}s. Each document gets its own global object (see
+ * {@link #createContext()}), while scripts are compiled once and re-used across documents:
+ * <ul>
+ * <li>bundled resources, like polyfills, are compiled once per JVM</li>
+ * <li>document scripts are kept in LRU cache, matched by their source (see <code>xr.script.cache-size</code>
+ * configuration property)</li>
+ * </ul>
+ *
+ * @see #prewarm()
+ */
+@Slf4j
+public class SharedScriptEngine {
+
+    private static final String[] OPTIONS = {"--language=es6", "--no-java"};
+
+    /**
+     * Scripts executed in every global, evaluated by {@link #prewarm()}
+     */
+    private static final String[] POLYFILLS = {"/symbol-polyfill.js", "/es6-shim.min.js"};
+
+    private static final AtomicBoolean prewarmed = new AtomicBoolean();
+
+    private static final Map<URL, CompiledScript> resources = new ConcurrentHashMap<>();
+
+    private static final Map<String, CompiledScript> scripts = Collections.synchronizedMap(
+            new LinkedHashMap<String, CompiledScript>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+                    return size() > Configuration.valueAsInt("xr.script.cache-size", 64);
+                }
+            });
+
+    private static class EngineHolder {
+        private static final NashornScriptEngine engine =
+                (NashornScriptEngine) new NashornScriptEngineFactory().getScriptEngine(OPTIONS);
+    }
+
+    public static NashornScriptEngine getEngine() {
+        return EngineHolder.engine;
+    }
+
+    /**
+     * @return new script context with its own global object
+     */
+    public static javax.script.ScriptContext createContext() {
+        SimpleScriptContext context = new SimpleScriptContext();
+        context.setBindings(getEngine().createBindings(), ENGINE_SCOPE);
+        return context;
+    }
+
+    /**
+     * Starts engine initialization and compilation of polyfills in background, unless already started.
+     */
+    public static void prewarm() {
+        if (prewarmed.compareAndSet(false, true)) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (String polyfill : POLYFILLS) {
+                        compileResource(polyfill);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("prewarm", e);
+                }
+            }, "script-engine-prewarm");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    /**
+     * Evaluates polyfills in the given context
+     */
+    public static void evalPolyfills(javax.script.ScriptContext context) throws ScriptException {
+        for (String polyfill : POLYFILLS) {
+            compileResource(polyfill).eval(context);
+        }
+    }
+
+    /**
+     * @param path bundled resource path
+     * @return compiled resource, compiled once per JVM
+     */
+    public static CompiledScript compileResource(String path) {
+        URL url = SharedScriptEngine.class.getResource(path);
+        return resources.computeIfAbsent(url, u -> {
+            try {
+                return getEngine().compile(new URLReader(u));
+            } catch (ScriptException e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * @return compiled script, re-used for scripts with the same source
+     */
+    public static CompiledScript compile(String script) throws ScriptException {
+        // compiled scripts refer to their source anyway, so it's kept as the key instead of a digest of it
+        CompiledScript compiled = scripts.get(script);
+        if (compiled == null) {
+            compiled = getEngine().compile(script);
+            scripts.put(script, compiled);
+        }
+        return compiled;
+    }
+}
@@ -1,11 +1,13 @@
 package com.earnix.webk.runtime.cssom.impl;
 
+import com.earnix.webk.css.extend.StylesheetFactory;
+import com.earnix.webk.css.sheet.PropertyDeclaration;
+import com.earnix.webk.css.sheet.StylesheetInfo;
 import com.earnix.webk.runtime.ScriptContext;
 import com.earnix.webk.runtime.cssom.CSSRule;
 import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 import com.earnix.webk.runtime.web_idl.Attribute;
-import com.earnix.webk.runtime.dom.Element;
 import com.earnix.webk.util.XRLog;
 import com.helger.css.ECSSVersion;
 import com.helger.css.reader.CSSReaderDeclarationList;
@@ -13,9 +15,24 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
+ * Declarations of the <code>style</code> attribute of an element, as scripts see them through
+ * <code>element.style</code>. Written properties are kept in this declaration block and serialized to the attribute
+ * only once something reads the attributes of the element, so that a script setting several properties in a row
+ * serializes them once. The block is parsed again once the attribute is written by other means.
+ * <p>
+ * Declarations of the block are parsed by property and kept for the {@link com.earnix.webk.css.newmatch.Matcher}, which
+ * takes them instead of parsing the attribute, see {@link #getPropertyDeclarations(StylesheetFactory)}.
+ *
  * @author Taras Maslov
  * 11/12/2018
  */
@@ -24,8 +41,17 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
 
     private final ScriptContext context;
     LinkedHashMap<String, String> map = new LinkedHashMap<>();
+    Set<String> importantProperties = new HashSet<>();
     ElementImpl model;
 
+    String syncedText; // value of the style attribute the declarations were parsed from or serialized to
+    boolean pending; // declarations changed since they were serialized
+
+    // declarations parsed for the matcher by property, and all of them in order
+    StylesheetFactory factory;
+    Map<String, List<PropertyDeclaration>> parsedDeclarations = new HashMap<>();
+    List<PropertyDeclaration> propertyDeclarations;
+
 
     public CSSStyleDeclarationImpl(ElementImpl model, ScriptContext context) {
         this(model.attr("style"), context);
@@ -37,7 +63,7 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
      * @param css
      * @param ctx
      *
-     * @see com.earnix.webk.runtime.cssom.Window#getComputedStyle(Element, String)
+     * @see ComputedStyleDeclarationImpl
      */
     public CSSStyleDeclarationImpl(String css, ScriptContext ctx) {
         setCSSText(css);
@@ -49,24 +75,27 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
         return new Attribute<String>() {
             @Override
             public String get() {
+                sync();
                 return toCSSString();
             }
 
             @Override
             public void set(String s) {
                 setCSSText(s);
-                synchronize();
+                changed();
             }
         };
     }
 
     @Override
     public int length() {
+        sync();
         return map.size();
     }
 
     @Override
     public String item(int index) {
+        sync();
         try {
             return (String) map.values().toArray()[index];
         } catch (ArrayIndexOutOfBoundsException e) {
@@ -77,6 +106,7 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
 
     @Override
     public String getPropertyValue(String property) {
+        sync();
         val res = map.get(toKebabCase(property));
         if (res == null) {
             return "";
@@ -87,20 +117,34 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
 
     @Override
     public String getPropertyPriority(String property) {
-        return null;
+        sync();
+        return importantProperties.contains(toKebabCase(property)) ? "important" : "";
     }
 
     @Override
     public void setProperty(String property, String value, String priority) {
-        map.put(toKebabCase(property), value);
-        synchronize();
+        sync();
+        val name = toKebabCase(property);
+        if (value == null || value.isEmpty()) {
+            removeDeclaration(name);
+        } else {
+            map.put(name, value);
+            if ("important".equalsIgnoreCase(priority)) {
+                importantProperties.add(name);
+            } else {
+                importantProperties.remove(name);
+            }
+            parsedDeclarations.remove(name);
+        }
+        changed();
     }
 
     @Override
     public String removeProperty(String property) {
-        val res = map.remove(property);
-        synchronize();
-        return res;
+        sync();
+        val res = removeDeclaration(toKebabCase(property));
+        changed();
+        return res == null ? "" : res;
     }
 
     @Override
@@ -114,20 +158,82 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
     }
 
     public String toCSSString() {
-        return map.entrySet()
-                .stream()
-                .map(e -> e.getKey() + ": " + e.getValue() + ";")
-                .reduce("", (a, b) -> a + " \n " + b);
+        StringBuilder result = new StringBuilder();
+        map.forEach((name, value) -> {
+            result.append(" \n ").append(name).append(": ").append(value);
+            if (importantProperties.contains(name)) {
+                result.append(" !important");
+            }
+            result.append(';');
+        });
+        return result.toString();
     }
-    
+
     public void setCSSText(String css){
         map.clear();
+        importantProperties.clear();
+        parsedDeclarations.clear();
+        propertyDeclarations = null;
         val declarations = CSSReaderDeclarationList.readFromString(css, ECSSVersion.CSS30);
         if (declarations != null) {
             declarations.forEach(d -> {
                 map.put(d.getProperty(), d.getExpressionAsCSSString());
+                if (d.isImportant()) {
+                    importantProperties.add(d.getProperty());
+                }
             });
         }
+        syncedText = css;
+    }
+
+    /**
+     * @return true if the declarations changed since they were serialized to the style attribute
+     */
+    public boolean isPending() {
+        return pending;
+    }
+
+    /**
+     * Serializes the declarations for the style attribute, which the element writes.
+     *
+     * @return value of the style attribute
+     */
+    public String flush() {
+        pending = false;
+        syncedText = toCSSString();
+        return syncedText;
+    }
+
+    /**
+     * Returns the declarations of the block as the given factory parses them. Properties are parsed once until they
+     * are changed, the declarations aren't serialized or parsed as a whole.
+     *
+     * @return declarations in the order of the properties, not to be modified
+     */
+    public List<PropertyDeclaration> getPropertyDeclarations(StylesheetFactory factory) {
+        sync();
+        if (this.factory != factory) {
+            this.factory = factory;
+            parsedDeclarations.clear();
+            propertyDeclarations = null;
+        }
+        if (propertyDeclarations == null) {
+            List<PropertyDeclaration> result = new ArrayList<>();
+            map.forEach((name, value) -> result.addAll(parsedDeclarations.computeIfAbsent(name, n -> {
+                String declaration = n + ": " + value + (importantProperties.contains(n) ? " !important" : "");
+                // copied, the parsed ruleset may be cached by the factory and shared
+                return new ArrayList<PropertyDeclaration>(
+                        factory.parseStyleDeclaration(StylesheetInfo.AUTHOR, declaration).getPropertyDeclarations());
+            })));
+            propertyDeclarations = Collections.unmodifiableList(result);
+        }
+        return propertyDeclarations;
+    }
+
+    private String removeDeclaration(String name) {
+        importantProperties.remove(name);
+        parsedDeclarations.remove(name);
+        return map.remove(name);
     }
 
     private String toKebabCase(String camel) {
@@ -145,9 +251,23 @@ public class CSSStyleDeclarationImpl implements CSSStyleDeclaration {
         return result.toString();
     }
 
-    private void synchronize() {
+    /**
+     * Parses the declarations again if the style attribute was written since they were parsed or serialized.
+     */
+    private void sync() {
+        if (model != null && !pending) {
+            val css = model.attr("style");
+            if (!css.equals(syncedText)) {
+                setCSSText(css);
+            }
+        }
+    }
+
+    private void changed() {
+        propertyDeclarations = null;
         if (model != null) {
-            model.attr("style", toCSSString());
+            pending = true;
+            model.inlineStyleChanged(this);
         }
     }
 }
@@ -0,0 +1,153 @@
+package com.earnix.webk.runtime.cssom.impl;
+
+import com.earnix.webk.css.constants.CSSName;
+import com.earnix.webk.css.style.CalculatedStyle;
+import com.earnix.webk.css.style.FSDerivedValue;
+import com.earnix.webk.runtime.cssom.CSSRule;
+import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
+import com.earnix.webk.runtime.web_idl.Attribute;
+import com.earnix.webk.runtime.web_idl.DOMException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read-only declaration of the computed style of an element, as returned by
+ * {@link com.earnix.webk.runtime.cssom.Window#getComputedStyle}. Values are read from the calculated style of the
+ * element when asked for, so reading a property neither serializes the whole style nor parses it.
+ * <p>
+ * The declaration lists every primitive (non-shorthand) property, in the order of their names. Properties are looked
+ * up by their CSS names as well as by the camel-cased names scripts use.
+ *
+ * @see CSSStyleDeclarationImpl
+ */
+public class ComputedStyleDeclarationImpl implements CSSStyleDeclaration {
+
+    private static final CSSName[] PROPERTIES;
+    private static final Map<String, CSSName> PROPERTIES_BY_NAME;
+
+    static {
+        List<CSSName> properties = new ArrayList<>();
+        Map<String, CSSName> byName = new HashMap<>();
+        for (Iterator i = CSSName.allCSS2PrimitivePropertyNames(); i.hasNext(); ) {
+            String name = (String) i.next();
+            CSSName property = CSSName.getByPropertyName(name);
+            properties.add(property);
+            byName.put(name, property);
+            byName.put(toCamelCase(name), property);
+        }
+        PROPERTIES = properties.toArray(new CSSName[0]);
+        PROPERTIES_BY_NAME = Collections.unmodifiableMap(byName);
+    }
+
+    private final CalculatedStyle style;
+
+    public ComputedStyleDeclarationImpl(CalculatedStyle style) {
+        this.style = style;
+    }
+
+    @Override
+    public Attribute<String> cssText() {
+        return new Attribute<String>() {
+            @Override
+            public String get() {
+                StringBuilder result = new StringBuilder();
+                for (CSSName property : PROPERTIES) {
+                    String value = valueOf(property);
+                    if (!value.isEmpty()) {
+                        result.append(property).append(": ").append(value).append(";\n");
+                    }
+                }
+                return result.toString();
+            }
+
+            @Override
+            public void set(String s) {
+                throw readOnly();
+            }
+        };
+    }
+
+    @Override
+    public int length() {
+        return PROPERTIES.length;
+    }
+
+    @Override
+    public String item(int index) {
+        return index >= 0 && index < PROPERTIES.length ? PROPERTIES[index].toString() : "";
+    }
+
+    @Override
+    public String getPropertyValue(String property) {
+        CSSName name = PROPERTIES_BY_NAME.get(property);
+        return name != null ? valueOf(name) : "";
+    }
+
+    @Override
+    public String getPropertyPriority(String property) {
+        return "";
+    }
+
+    @Override
+    public void setProperty(String property, String value, String priority) {
+        throw readOnly();
+    }
+
+    @Override
+    public String removeProperty(String property) {
+        throw readOnly();
+    }
+
+    @Override
+    public CSSRule parentRule() {
+        return null;
+    }
+
+    @Override
+    public Attribute<String> cssFloat() {
+        return new Attribute<String>() {
+            @Override
+            public String get() {
+                return valueOf(CSSName.FLOAT);
+            }
+
+            @Override
+            public void set(String s) {
+                throw readOnly();
+            }
+        };
+    }
+
+    /**
+     * @return the value of the property, which the calculated style derives once and keeps, or an empty string if
+     * the property is not implemented
+     */
+    private String valueOf(CSSName property) {
+        FSDerivedValue value = style.valueByName(property);
+        return value != null ? value.toString() : "";
+    }
+
+    private static DOMException readOnly() {
+        return new DOMException("NoModificationAllowedError");
+    }
+
+    private static String toCamelCase(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        boolean upper = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '-') {
+                upper = result.length() > 0;
+            } else {
+                result.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,28 @@
+package com.earnix.webk.runtime.cssom_view;
+
+import com.earnix.webk.runtime.dom.Element;
+import com.earnix.webk.runtime.web_idl.Nullable;
+import com.earnix.webk.runtime.web_idl.Partial;
+import com.earnix.webk.runtime.web_idl.ReadonlyAttribute;
+
+/**
+ * https://drafts.csswg.org/cssom-view/#extensions-to-the-htmlelement-interface
+ */
+@Partial
+public interface HTMLElement {
+    @Nullable
+    @ReadonlyAttribute
+    Element offsetParent();
+
+    @ReadonlyAttribute
+    int offsetTop();
+
+    @ReadonlyAttribute
+    int offsetLeft();
+
+    @ReadonlyAttribute
+    int offsetWidth();
+
+    @ReadonlyAttribute
+    int offsetHeight();
+}
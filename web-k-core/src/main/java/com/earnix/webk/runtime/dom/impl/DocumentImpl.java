@@ -38,7 +38,10 @@ import lombok.val;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 
 /**
  * @author Taras Maslov
@@ -54,6 +57,14 @@ public class DocumentImpl extends ElementImpl implements Document {
     private DocumentImpl.QuirksMode quirksMode = DocumentImpl.QuirksMode.noQuirks;
     String location;
     private boolean updateMetaCharset = false;
+
+    /**
+     * Count of dirty nodes after which the whole document is considered dirty
+     */
+    private static final int MAX_DIRTY_NODES = 256;
+    private volatile long mutationCount; // read by the layout thread
+    private Set<NodeImpl> dirtyNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private ElementIndex elementIndex; // built on the first lookup
     
     @Override
     public ScriptContext scriptContext() {
@@ -120,8 +131,7 @@ public class DocumentImpl extends ElementImpl implements Document {
 
     @Override
     public HTMLCollection getElementsByTagName(String qualifiedName) {
-        val elements = getElementsByTag(qualifiedName.toString());
-        return new HTMLCollectionImpl(elements);
+        return new HTMLCollectionImpl(this, () -> getElementsByTag(qualifiedName));
     }
 
     @Override
@@ -131,8 +141,7 @@ public class DocumentImpl extends ElementImpl implements Document {
 
     @Override
     public HTMLCollection getElementsByClassName(String classNames) {
-        val modelElements = getElementsByClass(classNames.toString());
-        return new HTMLCollectionImpl(modelElements);
+        return new HTMLCollectionImpl(this, () -> getElementsByClass(classNames));
     }
 
     @Override
@@ -215,7 +224,7 @@ public class DocumentImpl extends ElementImpl implements Document {
 
     @Override
     public HTMLCollection children() {
-        return new HTMLCollectionImpl(getChildren());
+        return new HTMLCollectionImpl(this, this::getChildren);
     }
 
     @Override
@@ -534,6 +543,8 @@ public class DocumentImpl extends ElementImpl implements Document {
     public DocumentImpl clone() {
         DocumentImpl clone = (DocumentImpl) super.clone();
         clone.outputSettings = this.outputSettings.clone();
+        clone.dirtyNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        clone.elementIndex = null;
         return clone;
     }
 
@@ -861,5 +872,85 @@ public class DocumentImpl extends ElementImpl implements Document {
     }
     
     // endregion
+
+    // region mutation tracking
+
+    /**
+     * Registers a change of the given node's attributes, character data or children list.
+     * The node is remembered as a root of a dirty subtree; once too many subtrees are dirty,
+     * the document itself is considered dirty.
+     *
+     * @param node changed node of this document
+     */
+    public void nodeChanged(NodeImpl node) {
+        mutationCount++;
+        if (elementIndex != null && node instanceof ElementImpl) {
+            elementIndex.update((ElementImpl) node);
+        }
+        if (dirtyNodes.contains(this)) {
+            return;
+        }
+        if (node == this || dirtyNodes.size() >= MAX_DIRTY_NODES) {
+            dirtyNodes.clear();
+            node = this;
+        }
+        dirtyNodes.add(node);
+    }
+
+    /**
+     * @return number of modifications made to this document since its creation
+     */
+    public long getMutationCount() {
+        return mutationCount;
+    }
+
+    /**
+     * @return roots of the subtrees changed since last {@link #clearDirtyNodes()} call
+     */
+    public Set<NodeImpl> getDirtyNodes() {
+        return Collections.unmodifiableSet(dirtyNodes);
+    }
+
+    public boolean isDirty() {
+        return !dirtyNodes.isEmpty();
+    }
+
+    public void clearDirtyNodes() {
+        dirtyNodes.clear();
+    }
+
+    // endregion
+
+    // region element index
+
+    /**
+     * @return index of the elements of this document by id, class and tag name
+     */
+    public ElementIndex getElementIndex() {
+        if (elementIndex == null) {
+            elementIndex = new ElementIndex(this);
+        }
+        return elementIndex;
+    }
+
+    /**
+     * Adds an element attached to this document to the index, if there is one already.
+     */
+    public void elementAttached(ElementImpl element) {
+        if (elementIndex != null) {
+            elementIndex.add(element);
+        }
+    }
+
+    /**
+     * Removes an element detached from this document from the index, if there is one already.
+     */
+    public void elementDetached(ElementImpl element) {
+        if (elementIndex != null) {
+            elementIndex.remove(element);
+        }
+    }
+
+    // endregion
 }
 
@@ -17,13 +17,16 @@ import com.earnix.webk.runtime.dom.impl.select.NodeTraversor;
 import com.earnix.webk.runtime.dom.impl.select.NodeVisitor;
 import com.earnix.webk.runtime.dom.impl.select.QueryParser;
 import com.earnix.webk.runtime.dom.impl.select.Selector;
+import com.earnix.webk.layout.LayoutContext;
 import com.earnix.webk.render.Box;
+import com.earnix.webk.runtime.ScriptContext;
 import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
 import com.earnix.webk.runtime.cssom.impl.CSSStyleDeclarationImpl;
 import com.earnix.webk.runtime.cssom_view.ScrollToOptions;
 import com.earnix.webk.runtime.geom.DOMRect;
 import com.earnix.webk.runtime.geom.DOMRectList;
 import com.earnix.webk.runtime.geom.impl.DOMRectImpl;
+import com.earnix.webk.runtime.geom.impl.DOMRectListImpl;
 import com.earnix.webk.runtime.html.HTMLElement;
 import com.earnix.webk.runtime.html.canvas.HTMLSlotElement;
 import com.earnix.webk.runtime.web_idl.Attribute;
@@ -47,6 +50,8 @@ import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
+import java.awt.Point;
+import java.awt.Rectangle;
 import java.io.IOException;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
@@ -59,6 +64,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -75,13 +81,26 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     private static final List<NodeImpl> EMPTY_NODES = Collections.emptyList();
     private static final Pattern classSplit = Pattern.compile("\\s+");
+    private static final String[] NO_CLASS_NAMES = new String[0];
+    private static final AtomicInteger childrenVersions = new AtomicInteger();
     private Tag tag;
     private WeakReference<List<ElementImpl>> shadowChildrenRef; // points to child elements shadowed from node children
     public List<NodeImpl> childNodes; // todo acc fix
     private AttributesModel attributes;
     private String baseUri;
 
+    // id and class names of the attributes with the version they were derived from
+    private AttributesModel derivedAttributes;
+    private int derivedVersion;
+    private String internedId;
+    private String[] classNameTokens;
+
+    private int childrenVersion; // changes on each change of child nodes, unique across elements
+    private int siblingIndex;
+    private int siblingIndexVersion; // children version of the parent the sibling index was assigned at
+
     private WeakReference<Box> view = new WeakReference<>(null);
+    private CSSStyleDeclarationImpl inlineStyle; // created once scripts access the style
     
     // endregion
 
@@ -184,7 +203,8 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public boolean hasAttributes() {
-        return attributes != null;
+        // pending style declarations are serialized once the attributes are read, not by this test
+        return inlineStyle != null && inlineStyle.isPending() || attributes != null && attributes.size() > 0;
     }
 
     @Override
@@ -298,7 +318,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public HTMLCollection getElementsByTagName(@DOMString String qualifiedName) {
-        return new HTMLCollectionImpl(getElementsByTag(qualifiedName));
+        return new HTMLCollectionImpl(this, () -> getElementsByTag(qualifiedName));
     }
 
     @Override
@@ -308,7 +328,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public HTMLCollection getElementsByClassName(@DOMString String classNames) {
-        return new HTMLCollectionImpl(getElementsByClass(classNames));
+        return new HTMLCollectionImpl(this, () -> getElementsByClass(classNames));
     }
 
     @Override
@@ -347,8 +367,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     public ElementImpl previousElementSibling() {
         if (parentNode == null) return null;
         List<ElementImpl> siblings = parent().childElementsList();
-        Integer index = indexInList(this, siblings);
-        Validate.notNull(index);
+        int index = elementSiblingIndex();
         if (index > 0)
             return siblings.get(index - 1);
         else
@@ -369,8 +388,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     public ElementImpl nextElementSibling() {
         if (parentNode == null) return null;
         List<ElementImpl> siblings = parent().childElementsList();
-        Integer index = indexInList(this, siblings);
-        Validate.notNull(index);
+        int index = elementSiblingIndex();
         if (siblings.size() > index + 1)
             return siblings.get(index + 1);
         else
@@ -378,7 +396,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public HTMLCollection children() {
-        return new HTMLCollectionImpl(getChildren());
+        return new HTMLCollectionImpl(this, this::getChildren);
     }
 
     @Override
@@ -523,7 +541,32 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public CSSStyleDeclaration style() {
-        return new CSSStyleDeclarationImpl(this, scriptContext());
+        if (inlineStyle == null) {
+            inlineStyle = new CSSStyleDeclarationImpl(this, scriptContext());
+        }
+        return inlineStyle;
+    }
+
+    /**
+     * @return declaration block of the style attribute, if scripts accessed it, or null
+     */
+    public CSSStyleDeclarationImpl getInlineStyle() {
+        return inlineStyle;
+    }
+
+    /**
+     * Registers a change of the declarations of the style attribute, which are serialized to the attribute once the
+     * attributes are read.
+     */
+    public void inlineStyleChanged(CSSStyleDeclarationImpl style) {
+        inlineStyle = style;
+        markChanged();
+    }
+
+    private void flushInlineStyle() {
+        if (inlineStyle != null && inlineStyle.isPending()) {
+            ensureAttributes().put("style", inlineStyle.flush());
+        }
     }
 
     @Override
@@ -596,18 +639,16 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public DOMRectList getClientRects() {
-        return null;
+        val box = getLayoutView();
+        return new DOMRectListImpl(box != null
+                ? Collections.singletonList(toClientRect(box))
+                : Collections.emptyList());
     }
 
     @Override
     public DOMRect getBoundingClientRect() {
-        val view = getView();
-        val x = view.getX();
-        val y = view.getY();
-        val paddingStyle = view.getPadding(this.scriptContext().getPanel().getLayoutContext());
-        val width = view.getContentWidth() + paddingStyle.left() + paddingStyle.right();
-        val height = view.getHeight() + paddingStyle.top() + paddingStyle.bottom();
-        return new DOMRectImpl(x, y, width, height);
+        val box = getLayoutView();
+        return box != null ? toClientRect(box) : new DOMRectImpl(0, 0, 0, 0);
     }
 
     @Override
@@ -667,30 +708,118 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
 
     @Override
     public int clientTop() {
-        return 0;
+        val box = getLayoutView();
+        return box != null ? (int) box.getBorder(layoutContext()).top() : 0;
     }
 
     @Override
     public int clientLeft() {
-        return 0;
+        val box = getLayoutView();
+        return box != null ? (int) box.getBorder(layoutContext()).left() : 0;
     }
 
     @Override
     public int clientWidth() {
-        val box = getView();
-        if (box != null) {
-            val paddingStyle = box.getPadding(this.scriptContext().getPanel().getLayoutContext());
-            return (int) (box.getContentWidth() + paddingStyle.left() + paddingStyle.right());
-        } else {
-            return 0;
-        }
+        val box = getLayoutView();
+        return box != null ? box.getPaddingEdge(0, 0, layoutContext()).width : 0;
     }
 
     @Override
     public int clientHeight() {
-        val view = getView();
-        val paddingStyle = view.getPadding(this.scriptContext().getPanel().getLayoutContext());
-        return (int) (view.getHeight() + paddingStyle.top() + paddingStyle.bottom());
+        val box = getLayoutView();
+        return box != null ? box.getPaddingEdge(0, 0, layoutContext()).height : 0;
+    }
+
+    @Override
+    public ElementImpl offsetParent() {
+        val box = getLayoutView();
+        if (box == null || box.getStyle().isFixed() || isBody()) {
+            return null;
+        }
+        val panel = scriptContext().getPanel();
+        for (ElementImpl e = parent(); e != null; e = e.parent()) {
+            val view = e.getView();
+            if (view != null && panel.isInBoxTree(view) && (view.getStyle().isPositioned() || e.isBody()
+                    || e.nodeName().equals("td") || e.nodeName().equals("th") || e.nodeName().equals("table"))) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int offsetTop() {
+        return getOffset().y;
+    }
+
+    @Override
+    public int offsetLeft() {
+        return getOffset().x;
+    }
+
+    @Override
+    public int offsetWidth() {
+        val box = getLayoutView();
+        return box != null ? getBorderEdge(box).width : 0;
+    }
+
+    @Override
+    public int offsetHeight() {
+        val box = getLayoutView();
+        return box != null ? getBorderEdge(box).height : 0;
+    }
+
+    /**
+     * Brings the layout of the document up to date, see {@link ScriptContext#flushLayout()}, and returns the box of
+     * the element in it. Geometry of the box is then read as it is, boxes keep their absolute position.
+     *
+     * @return box of the element, or null if the element isn't rendered
+     */
+    private Box getLayoutView() {
+        val context = scriptContext();
+        if (context == null || context.getPanel() == null) {
+            return null;
+        }
+        context.flushLayout();
+        val box = getView();
+        return box != null && context.getPanel().isInBoxTree(box) ? box : null;
+    }
+
+    private LayoutContext layoutContext() {
+        return scriptContext().getPanel().getLayoutContext();
+    }
+
+    private Rectangle getBorderEdge(Box box) {
+        return box.getBorderEdge(box.getAbsX(), box.getAbsY(), layoutContext());
+    }
+
+    private DOMRect toClientRect(Box box) {
+        val edge = getBorderEdge(box);
+        // relative to the viewport, which is the visible part of the panel
+        val viewport = scriptContext().getPanel().getVisibleRect();
+        return new DOMRectImpl(edge.x - viewport.x, edge.y - viewport.y, edge.width, edge.height);
+    }
+
+    /**
+     * @return position of the border edge relative to the padding edge of the offset parent
+     */
+    private Point getOffset() {
+        val box = getLayoutView();
+        if (box == null || isBody()) {
+            return new Point();
+        }
+        val edge = getBorderEdge(box);
+        val parent = offsetParent();
+        if (parent != null) {
+            val parentBox = parent.getView();
+            val parentEdge = parentBox.getPaddingEdge(parentBox.getAbsX(), parentBox.getAbsY(), layoutContext());
+            return new Point(edge.x - parentEdge.x, edge.y - parentEdge.y);
+        }
+        return edge.getLocation();
+    }
+
+    private boolean isBody() {
+        return nodeName().equals("body");
     }
 
     @Override
@@ -1038,8 +1167,22 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
         return childNodes;
     }
     
+    /**
+     * Returns the attributes of this element. Changes made to them directly aren't registered by the document, so
+     * its element index, live collections and rendering don't reflect them: attributes of an attached element are to
+     * be changed by {@link #attr(String, String)} and {@link #removeAttr(String)}.
+     */
     public AttributesModel getAttributes() {
-        if (!hasAttributes())
+        flushInlineStyle();
+        return ensureAttributes();
+    }
+
+    /**
+     * Returns the attributes, without serializing pending changes of the style declarations first. The id and class
+     * attributes are read this way, so that they don't serialize the style on every change of the element.
+     */
+    AttributesModel ensureAttributes() {
+        if (attributes == null)
             attributes = new AttributesModel();
         return attributes;
     }
@@ -1074,6 +1217,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     public ElementImpl tagName(String tagName) {
         Validate.notEmpty(tagName, "Tag name must not be empty.");
         tag = Tag.valueOf(tagName, NodeModelUtils.parser(this).settings()); // maintains the case option of the original parse
+        markChanged();
         return this;
     }
 
@@ -1102,7 +1246,44 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      * @return The id attribute, if present, or an empty string if not.
      */
     public String getId() {
-        return getAttributes().getIgnoreCase("id");
+        deriveFromAttributes();
+        return internedId;
+    }
+
+    /**
+     * @return class names of this element, as split from the {@code class} attribute. Not to be modified.
+     */
+    public String[] classNameTokens() {
+        deriveFromAttributes();
+        return classNameTokens;
+    }
+
+    /**
+     * Derives the interned id and the class names from the attributes, unless they changed since last time.
+     */
+    private void deriveFromAttributes() {
+        final AttributesModel attributes = ensureAttributes();
+        if (derivedAttributes == attributes && derivedVersion == attributes.version())
+            return;
+
+        internedId = attributes.getIgnoreCase("id").intern();
+        final String classAttr = attributes.getIgnoreCase("class");
+        List<String> names = null;
+        int start = -1;
+        for (int i = 0, len = classAttr.length(); i <= len; i++) {
+            final boolean separator = i == len || StringUtil.isWhitespace(classAttr.charAt(i));
+            if (separator && start != -1) {
+                if (names == null)
+                    names = new ArrayList<>(4);
+                names.add(classAttr.substring(start, i));
+                start = -1;
+            } else if (!separator && start == -1) {
+                start = i;
+            }
+        }
+        classNameTokens = names != null ? names.toArray(NO_CLASS_NAMES) : NO_CLASS_NAMES;
+        derivedAttributes = attributes;
+        derivedVersion = attributes.version();
     }
 
     /**
@@ -1127,6 +1308,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      */
     public ElementImpl attr(String attributeKey, boolean attributeValue) {
         getAttributes().put(attributeKey, attributeValue);
+        markChanged();
         return this;
     }
 
@@ -1145,7 +1327,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      * @return a map of {@code key=value} custom data attributes.
      */
     public Map<String, String> dataset() {
-        return getAttributes().dataset();
+        return getAttributes().dataset(this::markChanged);
     }
 
     @Override
@@ -1229,6 +1411,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     void nodelistChanged() {
         super.nodelistChanged();
         shadowChildrenRef = null;
+        childrenVersion = childrenVersions.incrementAndGet();
     }
 
     /**
@@ -1550,6 +1733,10 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      * @return this element
      */
     public ElementImpl empty() {
+        for (NodeImpl child : childNodes) {
+            child.parentNode = null;
+            child.updateOwnerDocument(null);
+        }
         childNodes.clear();
         return this;
     }
@@ -1659,8 +1846,39 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      * @return position in element sibling list
      */
     public int elementSiblingIndex() {
-        if (parent() == null) return 0;
-        return indexInList(this, parent().childElementsList());
+        final ElementImpl parent = parent();
+        if (parent == null) return 0;
+        if (siblingIndexVersion == 0 || siblingIndexVersion != parent.childrenVersion) {
+            parent.indexChildElements();
+            if (siblingIndexVersion != parent.childrenVersion)
+                return indexInList(this, parent.childElementsList());
+        }
+        return siblingIndex;
+    }
+
+    /**
+     * Tests if this element is the last element among its siblings.
+     *
+     * @return true if there are no element siblings after this element
+     */
+    public boolean isLastElementSibling() {
+        final ElementImpl parent = parent();
+        return parent == null || elementSiblingIndex() == parent.childElementsList().size() - 1;
+    }
+
+    /**
+     * Assigns sibling indexes to all child elements, valid until the child nodes change.
+     */
+    private void indexChildElements() {
+        if (childrenVersion == 0)
+            childrenVersion = childrenVersions.incrementAndGet();
+        final List<ElementImpl> children = childElementsList();
+        final int size = children.size();
+        for (int i = 0; i < size; i++) {
+            final ElementImpl child = children.get(i);
+            child.siblingIndex = i;
+            child.siblingIndexVersion = childrenVersion;
+        }
     }
 
     /**
@@ -1694,7 +1912,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
         Validate.notEmpty(tagName);
         tagName = Normalizer.normalize(tagName);
 
-        return Collector.collect(new Evaluator.Tag(tagName), this);
+        return Selector.select(new Evaluator.Tag(tagName), this);
     }
 
     /**
@@ -1710,7 +1928,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     public ElementImpl getElementById(String id) {
         Validate.notEmpty(id);
 
-        Elements elements = Collector.collect(new Evaluator.Id(id), this);
+        Elements elements = Selector.select(new Evaluator.Id(id), this);
         if (elements.size() > 0)
             return elements.get(0);
         else
@@ -1731,7 +1949,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     public Elements getElementsByClass(String className) {
         Validate.notEmpty(className);
 
-        return Collector.collect(new Evaluator.Class(className), this);
+        return Selector.select(new Evaluator.Class(className), this);
     }
 
     /**
@@ -2191,9 +2409,29 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
         } else {
             getAttributes().put("class", StringUtil.join(classNames, " "));
         }
+        markChanged();
         return this;
     }
 
+    /**
+     * Tests if this element has a class, as CSS class selectors do. Case sensitive, unlike {@link #hasClass(String)}.
+     * Class names are kept split until the attributes change, so the test doesn't allocate.
+     *
+     * @param className name of class to check for
+     * @return true if it does, false if not
+     */
+    // performance sensitive
+    public boolean hasClassName(String className) {
+        deriveFromAttributes();
+        final String[] names = classNameTokens;
+        //noinspection ForLoopReplaceableByForEach
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(className))
+                return true;
+        }
+        return false;
+    }
+
     /**
      * Tests if this element has a class. Case insensitive.
      *
@@ -2202,7 +2440,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
      */
     // performance sensitive
     public boolean hasClass(String className) {
-        final String classAttr = getAttributes().getIgnoreCase("class");
+        final String classAttr = ensureAttributes().getIgnoreCase("class");
         final int len = classAttr.length();
         final int wantLen = className.length();
 
@@ -2219,7 +2457,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
         boolean inClass = false;
         int start = 0;
         for (int i = 0; i < len; i++) {
-            if (Character.isWhitespace(classAttr.charAt(i))) {
+            if (StringUtil.isWhitespace(classAttr.charAt(i))) {
                 if (inClass) {
                     // white space ends a class name, compare it with the requested one, ignore case
                     if (i - start == wantLen && classAttr.regionMatches(true, start, className, 0, wantLen)) {
@@ -2331,6 +2569,7 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
             }
         }
         accum.append('<').append(tagName());
+        flushInlineStyle();
         if (attributes != null) attributes.html(accum, out);
 
         // selfclosing includes unknown tags, isEmpty defines tags that are always empty
@@ -2397,12 +2636,15 @@ public class ElementImpl extends NodeImpl implements HTMLElement {
     @Override
     public ElementImpl shallowClone() {
         // simpler than implementing a clone version with no child copy
+        flushInlineStyle();
         return new ElementImpl(tag, baseUri, attributes);
     }
 
     @Override
     protected ElementImpl doClone(NodeImpl parent) {
+        flushInlineStyle();
         ElementImpl clone = (ElementImpl) super.doClone(parent);
+        clone.inlineStyle = null;
         clone.attributes = attributes != null ? attributes.clone() : null;
         clone.baseUri = baseUri;
         clone.childNodes = new ChangeNotifyingNodeList(clone, childNodes.size());
@@ -0,0 +1,158 @@
+package com.earnix.webk.runtime.dom.impl;
+
+import com.earnix.webk.runtime.dom.impl.nodes.AttributesModel;
+import com.earnix.webk.runtime.dom.impl.parser.Tag;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Elements of a document by their id, class names and tag name, so that looking them up doesn't visit the whole
+ * document. The index is built once, on the first lookup, and then maintained as elements are attached to and
+ * detached from the document and as their attributes or tag change. Class and tag names are indexed case
+ * insensitively, ids as they are.
+ */
+public class ElementIndex {
+    private final Map<String, Set<ElementImpl>> byId = new HashMap<>();
+    private final Map<String, Set<ElementImpl>> byClass = new HashMap<>();
+    private final Map<String, Set<ElementImpl>> byTag = new HashMap<>();
+    // the keys each element is indexed under, to remove it once they change
+    private final Map<ElementImpl, Entry> entries = new IdentityHashMap<>();
+
+    ElementIndex(DocumentImpl document) {
+        ArrayDeque<NodeImpl> stack = new ArrayDeque<>();
+        stack.push(document);
+        while (!stack.isEmpty()) {
+            NodeImpl node = stack.pop();
+            if (node instanceof ElementImpl) {
+                add((ElementImpl) node);
+            }
+            for (int i = 0; i < node.childNodeSize(); i++) {
+                stack.push(node.childNode(i));
+            }
+        }
+    }
+
+    /**
+     * @return the elements with the given id, in no particular order
+     */
+    public Collection<ElementImpl> getById(String id) {
+        return get(byId, id);
+    }
+
+    /**
+     * @return the elements with the given class name, in no particular order
+     */
+    public Collection<ElementImpl> getByClass(String className) {
+        return get(byClass, key(className));
+    }
+
+    /**
+     * @return the elements with the given tag name, in no particular order
+     */
+    public Collection<ElementImpl> getByTag(String tagName) {
+        return get(byTag, key(tagName));
+    }
+
+    /**
+     * @return number of the indexed elements
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    void add(ElementImpl element) {
+        Entry entry = new Entry(element);
+        entries.put(element, entry);
+        if (!entry.id.isEmpty()) {
+            put(byId, entry.id, element);
+        }
+        for (String className : entry.classNames) {
+            put(byClass, className, element);
+        }
+        put(byTag, entry.tagName, element);
+    }
+
+    void remove(ElementImpl element) {
+        Entry entry = entries.remove(element);
+        if (entry == null) {
+            return;
+        }
+        if (!entry.id.isEmpty()) {
+            remove(byId, entry.id, element);
+        }
+        for (String className : entry.classNames) {
+            remove(byClass, className, element);
+        }
+        remove(byTag, entry.tagName, element);
+    }
+
+    /**
+     * Indexes the element again if its attributes or tag changed since it was indexed.
+     */
+    void update(ElementImpl element) {
+        Entry entry = entries.get(element);
+        if (entry != null && !entry.isCurrent(element)) {
+            remove(element);
+            add(element);
+        }
+    }
+
+    private static Collection<ElementImpl> get(Map<String, Set<ElementImpl>> map, String key) {
+        Set<ElementImpl> elements = map.get(key);
+        return elements != null ? Collections.unmodifiableSet(elements) : Collections.emptySet();
+    }
+
+    private static void put(Map<String, Set<ElementImpl>> map, String key, ElementImpl element) {
+        map.computeIfAbsent(key, k -> Collections.newSetFromMap(new IdentityHashMap<>())).add(element);
+    }
+
+    private static void remove(Map<String, Set<ElementImpl>> map, String key, ElementImpl element) {
+        Set<ElementImpl> elements = map.get(key);
+        if (elements != null && elements.remove(element) && elements.isEmpty()) {
+            map.remove(key);
+        }
+    }
+
+    /**
+     * Folds the case of the name the way {@link String#equalsIgnoreCase(String)} compares characters.
+     */
+    private static String key(String name) {
+        char[] chars = name.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static class Entry {
+        final AttributesModel attributes;
+        final int version;
+        final Tag tag;
+        final String id;
+        final String[] classNames;
+        final String tagName;
+
+        Entry(ElementImpl element) {
+            attributes = element.ensureAttributes();
+            version = attributes.version();
+            tag = element.tag();
+            id = element.getId();
+            String[] names = element.classNameTokens();
+            classNames = new String[names.length];
+            for (int i = 0; i < names.length; i++) {
+                classNames[i] = key(names[i]);
+            }
+            tagName = key(element.tagName());
+        }
+
+        boolean isCurrent(ElementImpl element) {
+            return element.ensureAttributes() == attributes && attributes.version() == version && element.tag() == tag;
+        }
+    }
+}
@@ -31,7 +31,7 @@ public class EventManager {
         log.debug("Dispatching event {} to {}", event, target);
 
 //        if(reRender) {
-            scriptContext.storeDocumentHash();
+            scriptContext.storeDocumentState();
 //        }
         
         // preparing propagation path 
@@ -77,7 +77,7 @@ public class EventManager {
         }
         
 //        if(reRender) {
-            scriptContext.handleDocumentHashUpdate();
+            scriptContext.handleDocumentUpdate();
 //        }
     }
 
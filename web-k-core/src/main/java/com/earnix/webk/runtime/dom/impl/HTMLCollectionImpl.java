@@ -7,6 +7,9 @@ import com.earnix.webk.runtime.dom.Element;
 import com.earnix.webk.runtime.dom.HTMLCollection;
 import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
+import lombok.val;
+
+import java.util.function.Supplier;
 
 /**
  * @author Taras Maslov
@@ -16,6 +19,7 @@ import lombok.experimental.FieldDefaults;
 public class HTMLCollectionImpl implements HTMLCollection {
 
     Elements elements;
+    LiveQuery<Elements> query;
     ScriptContext ctx;
 
     public HTMLCollectionImpl(Elements elements) {
@@ -23,22 +27,39 @@ public class HTMLCollectionImpl implements HTMLCollection {
         this.ctx = ctx;
     }
 
+    /**
+     * Creates a live collection, which reflects the elements the query finds under the root until the document is
+     * modified, and then queries them again.
+     */
+    public HTMLCollectionImpl(NodeImpl root, Supplier<Elements> query) {
+        this.query = new LiveQuery<>(root, query);
+    }
+
     @Override
     public int length() {
-        return elements.size();
+        return getModel().size();
     }
 
     @Override
     public Element item(int index) {
-        return elements.get(index);
+        val elements = getModel();
+        return index >= 0 && index < elements.size() ? elements.get(index) : null;
     }
 
     @Override
     public Element namedItem(@DOMString String name) {
+        if (name.isEmpty()) {
+            return null;
+        }
+        for (ElementImpl element : getModel()) {
+            if (name.equals(element.getId()) || name.equals(element.attr("name"))) {
+                return element;
+            }
+        }
         return null;
     }
 
     public Elements getModel() {
-        return elements;
+        return query != null ? query.get() : elements;
     }
 }
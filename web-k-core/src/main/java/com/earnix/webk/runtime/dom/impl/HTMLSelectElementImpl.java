@@ -79,12 +79,12 @@ public class HTMLSelectElementImpl extends ElementImpl implements HTMLSelectElem
 
 	@Override public HTMLCollection selectedOptions()
 	{
-		return new HTMLCollectionImpl(select("option[selected]"));
+		return new HTMLCollectionImpl(this, () -> select("option[selected]"));
 	}
 
 	@Override public HTMLCollection options()
 	{
-		return new HTMLCollectionImpl(select("option"));
+		return new HTMLCollectionImpl(this, () -> select("option"));
 	}
 
 	@Override public boolean multiple()
@@ -57,6 +57,7 @@ public abstract class LeafNode extends NodeImpl {
     public NodeImpl attr(String key, String value) {
         if (!hasAttributes() && key.equals(nodeName())) {
             this.value = value;
+            markChanged();
         } else {
             ensureAttributes();
             super.attr(key, value);
@@ -0,0 +1,34 @@
+package com.earnix.webk.runtime.dom.impl;
+
+import java.util.function.Supplier;
+
+/**
+ * Result of a query of the nodes under a root, as seen by a live collection. The query is run on the first access
+ * and again only once the document of the root has been modified since, which is told by its mutation count. Under a
+ * detached root modifications aren't counted, so the query is run on every access.
+ *
+ * @param <T> type of the result
+ */
+class LiveQuery<T> {
+    private final NodeImpl root;
+    private final Supplier<T> query;
+
+    private T result;
+    private DocumentImpl document; // the document of the root and its mutation count the result was queried at
+    private long mutationCount;
+
+    LiveQuery(NodeImpl root, Supplier<T> query) {
+        this.root = root;
+        this.query = query;
+    }
+
+    T get() {
+        DocumentImpl current = root.ownerDocument();
+        if (result == null || current == null || current != document || current.getMutationCount() != mutationCount) {
+            result = query.get();
+            document = current;
+            mutationCount = current != null ? current.getMutationCount() : 0;
+        }
+        return result;
+    }
+}
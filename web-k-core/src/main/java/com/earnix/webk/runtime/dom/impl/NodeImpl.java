@@ -26,6 +26,7 @@ import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -64,6 +65,7 @@ public abstract class NodeImpl implements Node, Cloneable {
 
     protected static final String EmptyString = "";
     public NodeImpl parentNode; // todo make pack
+    DocumentImpl ownerDocument; // the document this node is attached to, maintained on insertion and removal
    
     int siblingIndex;
     
@@ -82,6 +84,9 @@ public abstract class NodeImpl implements Node, Cloneable {
     //endregion
 
     public NodeImpl() {
+        if (this instanceof DocumentImpl) {
+            ownerDocument = (DocumentImpl) this;
+        }
         eventTargetImpl = new EventTargetImpl(this::scriptContext);
         level1EventTarget = new Level1EventTarget(this::scriptContext, eventTargetImpl);
     }
@@ -291,6 +296,7 @@ public abstract class NodeImpl implements Node, Cloneable {
     public NodeImpl attr(String attributeKey, String attributeValue) {
         attributeKey = NodeModelUtils.parser(this).settings().normalizeAttribute(attributeKey);
         getAttributes().putIgnoreCase(attributeKey, attributeValue);
+        markChanged();
         return this;
     }
 
@@ -320,6 +326,7 @@ public abstract class NodeImpl implements Node, Cloneable {
     public NodeImpl removeAttr(String attributeKey) {
         Validate.notNull(attributeKey);
         getAttributes().removeIgnoreCase(attributeKey);
+        markChanged();
         return this;
     }
 
@@ -334,6 +341,7 @@ public abstract class NodeImpl implements Node, Cloneable {
             it.next();
             it.remove();
         }
+        markChanged();
         return this;
     }
 
@@ -495,8 +503,36 @@ public abstract class NodeImpl implements Node, Cloneable {
      * @return the Document associated with this Node, or null if there is no such Document.
      */
     public DocumentImpl ownerDocument() {
-        NodeImpl root = root();
-        return (root instanceof DocumentImpl) ? (DocumentImpl) root : null;
+        return ownerDocument;
+    }
+
+    /**
+     * Sets owner document of this node and its descendants. Subtree of a node always shares the same owner, so
+     * the walk is skipped when the owner is not changed. Elements are moved between the element indexes of the
+     * documents.
+     */
+    void updateOwnerDocument(DocumentImpl document) {
+        if (ownerDocument == document) {
+            return;
+        }
+        val previous = ownerDocument;
+        val stack = new ArrayDeque<NodeImpl>();
+        stack.push(this);
+        while (!stack.isEmpty()) {
+            val node = stack.pop();
+            if (node instanceof ElementImpl) {
+                if (previous != null) {
+                    previous.elementDetached((ElementImpl) node);
+                }
+                if (document != null) {
+                    document.elementAttached((ElementImpl) node);
+                }
+            }
+            node.ownerDocument = document;
+            for (int i = 0; i < node.childNodeSize(); i++) {
+                stack.push(node.childNode(i));
+            }
+        }
     }
 
     /**
@@ -637,6 +673,17 @@ public abstract class NodeImpl implements Node, Cloneable {
 
     void nodelistChanged() {
         // Element overrides this to clear its shadow children elements
+        markChanged();
+    }
+
+    /**
+     * Notifies owner document about modification of this node, if the node is attached to one.
+     */
+    protected void markChanged() {
+        val owner = ownerDocument();
+        if (owner != null) {
+            owner.nodeChanged(this);
+        }
     }
 
     /**
@@ -655,6 +702,7 @@ public abstract class NodeImpl implements Node, Cloneable {
         if (this.parentNode != null)
             this.parentNode.removeChild(this);
         this.parentNode = parentNode;
+        updateOwnerDocument(parentNode.ownerDocument);
     }
 
     protected void replaceChild(NodeImpl out, NodeImpl in) {
@@ -667,7 +715,9 @@ public abstract class NodeImpl implements Node, Cloneable {
         ensureChildNodes().set(index, in);
         in.parentNode = this;
         in.setSiblingIndex(index);
+        in.updateOwnerDocument(ownerDocument);
         out.parentNode = null;
+        out.updateOwnerDocument(null);
     }
 
     protected void removeChild(NodeImpl out) {
@@ -676,6 +726,7 @@ public abstract class NodeImpl implements Node, Cloneable {
         ensureChildNodes().remove(index);
         reindexChildren(index);
         out.parentNode = null;
+        out.updateOwnerDocument(null);
     }
 
     protected void addChildren(NodeImpl... children) {
@@ -939,6 +990,11 @@ public abstract class NodeImpl implements Node, Cloneable {
 
         clone.parentNode = parent; // can be null, to create an orphan split
         clone.siblingIndex = parent == null ? 0 : siblingIndex;
+        if (parent != null) {
+            clone.ownerDocument = parent.ownerDocument;
+        } else {
+            clone.ownerDocument = clone instanceof DocumentImpl ? (DocumentImpl) clone : null;
+        }
 
         return clone;
     }
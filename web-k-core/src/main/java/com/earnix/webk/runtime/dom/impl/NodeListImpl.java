@@ -7,6 +7,7 @@ import lombok.AccessLevel;
 import lombok.experimental.FieldDefaults;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * @author Taras Maslov
@@ -16,6 +17,7 @@ import java.util.List;
 public class NodeListImpl implements NodeList {
 
     List<NodeImpl> model;
+    LiveQuery<List<NodeImpl>> query;
     ScriptContext ctx;
 
     public NodeListImpl(List<NodeImpl> model) {
@@ -23,8 +25,17 @@ public class NodeListImpl implements NodeList {
         this.ctx = ctx;
     }
 
+    /**
+     * Creates a live list, which reflects the nodes the query finds under the root until the document is modified,
+     * and then queries them again.
+     */
+    public NodeListImpl(NodeImpl root, Supplier<List<NodeImpl>> query) {
+        this.query = new LiveQuery<>(root, query);
+    }
+
     @Override
     public com.earnix.webk.runtime.dom.Node item(int index) {
+        List<NodeImpl> model = getModel();
         if (model.size() > index) {
             return model.get(index);
         } else {
@@ -34,6 +45,10 @@ public class NodeListImpl implements NodeList {
 
     @Override
     public int length() {
-        return model.size();
+        return getModel().size();
+    }
+
+    private List<NodeImpl> getModel() {
+        return query != null ? query.get() : model;
     }
 }
@@ -71,8 +71,10 @@ public class AttributeModel implements Map.Entry<String, String>, Cloneable {
         Validate.notEmpty(key); // trimming could potentially make empty, so validate here
         if (parent != null) {
             int i = parent.indexOfKey(this.key);
-            if (i != AttributesModel.NotFound)
+            if (i != AttributesModel.NotFound) {
                 parent.keys[i] = key;
+                parent.version++;
+            }
         }
         this.key = key;
     }
@@ -95,8 +97,10 @@ public class AttributeModel implements Map.Entry<String, String>, Cloneable {
         String oldVal = parent.get(this.key);
         if (parent != null) {
             int i = parent.indexOfKey(this.key);
-            if (i != AttributesModel.NotFound)
+            if (i != AttributesModel.NotFound) {
                 parent.vals[i] = val;
+                parent.version++;
+            }
         }
         this.val = val;
         return oldVal;
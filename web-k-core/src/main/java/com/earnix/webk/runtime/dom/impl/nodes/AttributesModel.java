@@ -9,11 +9,11 @@ import java.io.IOException;
 import java.util.AbstractMap;
 import java.util.AbstractSet;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import static com.earnix.webk.runtime.dom.impl.internal.Normalizer.lowerCase;
@@ -44,6 +44,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
     private int size = 0; // number of slots used (not capacity, which is keys.length
     String[] keys = Empty;
     String[] vals = Empty;
+    int version; // incremented on each change of keys or values
 
     // check there's room for more
     private void checkCapacity(int minNewSize) {
@@ -120,6 +121,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
         keys[size] = key;
         vals[size] = value;
         size++;
+        version++;
     }
 
     /**
@@ -131,9 +133,10 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
      */
     public AttributesModel put(String key, String value) {
         int i = indexOfKey(key);
-        if (i != NotFound)
+        if (i != NotFound) {
             vals[i] = value;
-        else
+            version++;
+        } else
             add(key, value);
         return this;
     }
@@ -144,6 +147,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
             vals[i] = value;
             if (!keys[i].equals(key)) // case changed, update
                 keys[i] = key;
+            version++;
         } else
             add(key, value);
     }
@@ -187,6 +191,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
         size--;
         keys[size] = null; // release hold
         vals[size] = null;
+        version++;
     }
 
     /**
@@ -231,6 +236,16 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
         return indexOfKeyIgnoreCase(key) != NotFound;
     }
 
+    /**
+     * Get the version of these attributes, which changes whenever an attribute is added, removed or changed. Lets
+     * values derived from the attributes be cached.
+     *
+     * @return version
+     */
+    public int version() {
+        return version;
+    }
+
     /**
      * Get the number of attributes in this set.
      *
@@ -303,7 +318,19 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
      * @return map of custom data attributes.
      */
     public Map<String, String> dataset() {
-        return new Dataset(this);
+        return dataset(() -> {
+        });
+    }
+
+    /**
+     * Retrieves a filtered view of attributes that are HTML5 custom data attributes, which runs the given callback
+     * after each change made through it.
+     *
+     * @param changed run after an attribute is set or removed through the view
+     * @return map of custom data attributes.
+     */
+    public Map<String, String> dataset(Runnable changed) {
+        return new Dataset(this, changed);
     }
 
     /**
@@ -358,8 +385,11 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
         AttributesModel that = (AttributesModel) o;
 
         if (size != that.size) return false;
-        if (!Arrays.equals(keys, that.keys)) return false;
-        return Arrays.equals(vals, that.vals);
+        // only the first size entries are used, capacity doesn't matter
+        for (int i = 0; i < size; i++) {
+            if (!keys[i].equals(that.keys[i]) || !Objects.equals(vals[i], that.vals[i])) return false;
+        }
+        return true;
     }
 
     /**
@@ -370,8 +400,10 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
     @Override
     public int hashCode() {
         int result = size;
-        result = 31 * result + Arrays.hashCode(keys);
-        result = 31 * result + Arrays.hashCode(vals);
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + keys[i].hashCode();
+            result = 31 * result + Objects.hashCode(vals[i]);
+        }
         return result;
     }
 
@@ -396,13 +428,16 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
         for (int i = 0; i < size; i++) {
             keys[i] = lowerCase(keys[i]);
         }
+        version++;
     }
 
     private static class Dataset extends AbstractMap<String, String> {
         private final AttributesModel attributes;
+        private final Runnable changed;
 
-        private Dataset(AttributesModel attributes) {
+        private Dataset(AttributesModel attributes, Runnable changed) {
             this.attributes = attributes;
+            this.changed = changed;
         }
 
         @Override
@@ -415,6 +450,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
             String dataKey = dataKey(key);
             String oldValue = attributes.hasKey(dataKey) ? attributes.get(dataKey) : null;
             attributes.put(dataKey, value);
+            changed.run();
             return oldValue;
         }
 
@@ -453,6 +489,7 @@ public class AttributesModel implements Iterable<AttributeModel>, Cloneable {
 
             public void remove() {
                 attributes.remove(attr.getKey());
+                changed.run();
             }
         }
     }
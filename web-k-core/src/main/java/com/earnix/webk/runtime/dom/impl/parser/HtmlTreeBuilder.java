@@ -2,6 +2,7 @@ package com.earnix.webk.runtime.dom.impl.parser;
 
 import com.earnix.webk.runtime.dom.impl.helper.Validate;
 import com.earnix.webk.runtime.dom.impl.internal.StringUtil;
+import com.earnix.webk.runtime.dom.impl.nodes.AttributeModel;
 import com.earnix.webk.runtime.dom.impl.nodes.DataImpl;
 import com.earnix.webk.runtime.dom.impl.nodes.FormElement;
 import com.earnix.webk.runtime.dom.impl.select.Elements;
@@ -647,7 +648,9 @@ public class HtmlTreeBuilder extends TreeBuilder {
             skip = false; // can only skip increment from 4.
             ElementImpl newEl = insertStartTag(entry.nodeName()); // todo: avoid fostering here?
             // newEl.namespace(entry.namespace()); // todo: namespaces
-            newEl.getAttributes().addAll(entry.getAttributes());
+            // set one by one, as the element is attached already and the document registers the change
+            for (AttributeModel attribute : entry.getAttributes())
+                newEl.attr(attribute.getKey(), attribute.getValue());
 
             // 10. replace entry with new entry
             formattingElements.set(pos, newEl);
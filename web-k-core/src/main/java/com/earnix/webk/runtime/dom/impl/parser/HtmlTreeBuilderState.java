@@ -329,7 +329,7 @@ enum HtmlTreeBuilderState {
                         ElementImpl html = tb.getStack().get(0);
                         for (AttributeModel attribute : startTag.getAttributes()) {
                             if (!html.hasAttr(attribute.getKey()))
-                                html.getAttributes().put(attribute);
+                                html.attr(attribute.getKey(), attribute.getValue());
                         }
                     } else if (StringUtil.inSorted(name, Constants.InBodyStartToHead)) {
                         return tb.process(t, InHead);
@@ -344,7 +344,7 @@ enum HtmlTreeBuilderState {
                             ElementImpl body = stack.get(1);
                             for (AttributeModel attribute : startTag.getAttributes()) {
                                 if (!body.hasAttr(attribute.getKey()))
-                                    body.getAttributes().put(attribute);
+                                    body.attr(attribute.getKey(), attribute.getValue());
                             }
                         }
                     } else if (name.equals("frameset")) {
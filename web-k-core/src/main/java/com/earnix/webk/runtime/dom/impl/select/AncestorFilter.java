@@ -0,0 +1,190 @@
+package com.earnix.webk.runtime.dom.impl.select;
+
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Counting Bloom filter of tag names, ids and class names of the ancestors of the element being matched, maintained
+ * while walking the tree: an element is {@link #push(ElementImpl) pushed} before its children are visited and
+ * {@link #pop() popped} after. Pushed elements are only hashed once the filter is queried.
+ * <p>
+ * Evaluators of descendant combinators use it to reject elements whose ancestors lack a required tag, id or class,
+ * without walking up the tree, see {@link Evaluator#matches(ElementImpl, ElementImpl, AncestorFilter)}. The filter
+ * has false positives, but no false negatives.
+ * <p>
+ * Tag and class names are hashed ignoring case, as they are matched by {@link Evaluator.Tag} and
+ * {@link Evaluator.Class}.
+ */
+public final class AncestorFilter {
+
+    private static final int BITS = 12;
+    private static final int MASK = (1 << BITS) - 1;
+
+    // kind of feature is kept in the top bits of its hash, counters are indexed by lower bits
+    private static final int KIND_SHIFT = 30;
+    private static final int TAG = 1;
+    private static final int ID = 2;
+    private static final int CLASS = 3;
+
+    private final int[] counters = new int[1 << BITS];
+
+    /**
+     * Kinds of features which are counted, bit per kind
+     */
+    private final int kinds;
+
+    private ElementImpl[] pushed = new ElementImpl[32];
+    private int pushedCount;
+
+    /**
+     * Hashes of the first {@link #countedCount} pushed elements, which are counted. Hashes of the i-th element end at
+     * <code>ends[i]</code>. The rest of the elements are counted on next query.
+     */
+    private int[] hashes = new int[64];
+    private int[] ends = new int[32];
+    private int countedCount;
+
+    /**
+     * Creates filter counting all tags, ids and classes
+     */
+    public AncestorFilter() {
+        this.kinds = 1 << TAG | 1 << ID | 1 << CLASS;
+    }
+
+    /**
+     * Creates filter counting only the kinds of features (tags, ids or classes) of the hashes it is going to be
+     * queried with
+     */
+    public AncestorFilter(Collection<Integer> queried) {
+        int kinds = 0;
+        for (int hash : queried) {
+            kinds |= 1 << (hash >>> KIND_SHIFT);
+        }
+        this.kinds = kinds;
+    }
+
+    /**
+     * Adds features of the element, which becomes an ancestor of the elements matched next
+     */
+    public void push(ElementImpl element) {
+        if (pushedCount == pushed.length) {
+            pushed = Arrays.copyOf(pushed, pushedCount * 2);
+        }
+        pushed[pushedCount++] = element;
+    }
+
+    /**
+     * Removes features of the last pushed element
+     */
+    public void pop() {
+        pushed[--pushedCount] = null;
+        if (countedCount > pushedCount) {
+            countedCount--;
+            for (int i = countedCount > 0 ? ends[countedCount - 1] : 0; i < ends[countedCount]; i++) {
+                counters[hashes[i] & MASK]--;
+                counters[(hashes[i] >>> BITS) & MASK]--;
+            }
+        }
+    }
+
+    /**
+     * @param hash hash of a feature, see {@link #tagHash(String)}, {@link #idHash(String)}, {@link #classHash(String)}
+     * @return <tt>false</tt> if no pushed element has the feature
+     */
+    public boolean mayContain(int hash) {
+        count();
+        return isCounted(hash);
+    }
+
+    /**
+     * @return <tt>false</tt> if any of the features isn't present on pushed elements
+     */
+    public boolean mayContainAll(int[] hashes) {
+        count();
+        for (int hash : hashes) {
+            if (!isCounted(hash)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isCounted(int hash) {
+        return counters[hash & MASK] != 0 && counters[(hash >>> BITS) & MASK] != 0;
+    }
+
+    private void count() {
+        if (ends.length < pushedCount) {
+            ends = Arrays.copyOf(ends, pushed.length);
+        }
+        int end = countedCount > 0 ? ends[countedCount - 1] : 0;
+        for (; countedCount < pushedCount; countedCount++) {
+            ElementImpl element = pushed[countedCount];
+            if ((kinds & 1 << TAG) != 0) {
+                end = add(end, tagHash(element.tagName()));
+            }
+            if ((kinds & 1 << ID) != 0) {
+                String id = element.getId();
+                if (!id.isEmpty()) {
+                    end = add(end, idHash(id));
+                }
+            }
+            if ((kinds & 1 << CLASS) != 0) {
+                // split once per change of the attributes, and without serializing pending style declarations
+                for (String className : element.classNameTokens()) {
+                    end = add(end, classHash(className));
+                }
+            }
+            ends[countedCount] = end;
+        }
+    }
+
+    /**
+     * Counts the hash of a pushed element
+     *
+     * @return end of the hashes
+     */
+    private int add(int end, int hash) {
+        if (end == hashes.length) {
+            hashes = Arrays.copyOf(hashes, end * 2);
+        }
+        hashes[end] = hash;
+        counters[hash & MASK]++;
+        counters[(hash >>> BITS) & MASK]++;
+        return end + 1;
+    }
+
+    public static int tagHash(String tagName) {
+        return hash(TAG, tagName, 0, tagName.length(), true);
+    }
+
+    public static int idHash(String id) {
+        return hash(ID, id, 0, id.length(), false);
+    }
+
+    public static int classHash(String className) {
+        return hash(CLASS, className, 0, className.length(), true);
+    }
+
+    private static int hash(int kind, String s, int start, int end, boolean ignoreCase) {
+        int h = kind;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (ignoreCase) {
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                } else if (c >= 128) {
+                    // same folding as String.equalsIgnoreCase
+                    c = Character.toLowerCase(Character.toUpperCase(c));
+                }
+            }
+            h = 31 * h + c;
+        }
+        // spread, so that both counter indexes depend on all characters
+        h *= 0x9E3779B9;
+        h ^= h >>> 15;
+        return h & ~(-1 << KIND_SHIFT) | kind << KIND_SHIFT;
+    }
+}
@@ -3,6 +3,9 @@ package com.earnix.webk.runtime.dom.impl.select;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 import com.earnix.webk.runtime.dom.impl.NodeImpl;
 
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Collects a list of elements that match the supplied criteria.
  *
@@ -26,27 +29,41 @@ public class Collector {
         return elements;
     }
 
+    /**
+     * @return filter to maintain while visiting elements, if the evaluator can use it
+     */
+    private static AncestorFilter ancestorFilter(Evaluator eval) {
+        Set<Integer> hashes = new HashSet<>();
+        eval.addFilterHashes(hashes);
+        return hashes.isEmpty() ? null : new AncestorFilter(hashes);
+    }
+
     private static class Accumulator implements NodeVisitor {
         private final ElementImpl root;
         private final Elements elements;
         private final Evaluator eval;
+        private final AncestorFilter ancestors;
 
         Accumulator(ElementImpl root, Elements elements, Evaluator eval) {
             this.root = root;
             this.elements = elements;
             this.eval = eval;
+            this.ancestors = ancestorFilter(eval);
         }
 
         public void head(NodeImpl node, int depth) {
             if (node instanceof ElementImpl) {
                 ElementImpl el = (ElementImpl) node;
-                if (eval.matches(root, el))
+                if (ancestors != null ? eval.matches(root, el, ancestors) : eval.matches(root, el))
                     elements.add(el);
+                if (ancestors != null)
+                    ancestors.push(el);
             }
         }
 
         public void tail(NodeImpl node, int depth) {
-            // void
+            if (ancestors != null && node instanceof ElementImpl)
+                ancestors.pop();
         }
     }
 
@@ -60,26 +77,32 @@ public class Collector {
         private final ElementImpl root;
         private ElementImpl match = null;
         private final Evaluator eval;
+        private final AncestorFilter ancestors;
 
         FirstFinder(ElementImpl root, Evaluator eval) {
             this.root = root;
             this.eval = eval;
+            this.ancestors = ancestorFilter(eval);
         }
 
         @Override
         public FilterResult head(NodeImpl node, int depth) {
             if (node instanceof ElementImpl) {
                 ElementImpl el = (ElementImpl) node;
-                if (eval.matches(root, el)) {
+                if (ancestors != null ? eval.matches(root, el, ancestors) : eval.matches(root, el)) {
                     match = el;
                     return FilterResult.STOP;
                 }
+                if (ancestors != null)
+                    ancestors.push(el);
             }
             return FilterResult.CONTINUE;
         }
 
         @Override
         public FilterResult tail(NodeImpl node, int depth) {
+            if (ancestors != null && node instanceof ElementImpl)
+                ancestors.pop();
             return FilterResult.CONTINUE;
         }
     }
@@ -38,6 +38,13 @@ abstract class CombiningEvaluator extends Evaluator {
         num = evaluators.size();
     }
 
+    @Override
+    void addFilterHashes(Collection<Integer> hashes) {
+        for (int i = 0; i < num; i++) {
+            evaluators.get(i).addFilterHashes(hashes);
+        }
+    }
+
     static final class And extends CombiningEvaluator {
         And(Collection<Evaluator> evaluators) {
             super(evaluators);
@@ -57,6 +64,23 @@ abstract class CombiningEvaluator extends Evaluator {
             return true;
         }
 
+        @Override
+        public boolean matches(ElementImpl root, ElementImpl node, AncestorFilter ancestors) {
+            for (int i = 0; i < num; i++) {
+                Evaluator s = evaluators.get(i);
+                if (!s.matches(root, node, ancestors))
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            for (int i = 0; i < num; i++) {
+                evaluators.get(i).addAncestorHashes(hashes);
+            }
+        }
+
         @Override
         public String toString() {
             return StringUtil.join(evaluators, " ");
@@ -101,6 +125,16 @@ abstract class CombiningEvaluator extends Evaluator {
             return false;
         }
 
+        @Override
+        public boolean matches(ElementImpl root, ElementImpl node, AncestorFilter ancestors) {
+            for (int i = 0; i < num; i++) {
+                Evaluator s = evaluators.get(i);
+                if (s.matches(root, node, ancestors))
+                    return true;
+            }
+            return false;
+        }
+
         @Override
         public String toString() {
             return StringUtil.join(evaluators, ", ");
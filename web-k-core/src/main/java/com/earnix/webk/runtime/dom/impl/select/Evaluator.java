@@ -11,6 +11,7 @@ import com.earnix.webk.runtime.html.impl.DocumentImpl;
 import com.earnix.webk.runtime.dom.impl.DocumentTypeImpl;
 import com.earnix.webk.runtime.dom.impl.TextImpl;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -36,6 +37,33 @@ public abstract class Evaluator {
      */
     public abstract boolean matches(ElementImpl root, ElementImpl element);
 
+    /**
+     * Test if the element meets the evaluator's requirements. Descendant combinators use the filter to reject
+     * the element without walking up the tree, if its ancestors lack a required tag, id or class.
+     *
+     * @param root      Root of the matching subtree
+     * @param element   tested element
+     * @param ancestors ancestors of the tested element, up to the root
+     * @return Returns <tt>true</tt> if the requirements are met or
+     * <tt>false</tt> otherwise
+     */
+    public boolean matches(ElementImpl root, ElementImpl element, AncestorFilter ancestors) {
+        return matches(root, element);
+    }
+
+    /**
+     * Adds hashes which {@link #matches(ElementImpl, ElementImpl, AncestorFilter)} queries the filter with
+     */
+    void addFilterHashes(Collection<Integer> hashes) {
+    }
+
+    /**
+     * Adds hashes of tags, ids and classes which the element or its ancestors must have to match, see
+     * {@link AncestorFilter}
+     */
+    void addAncestorHashes(Collection<Integer> hashes) {
+    }
+
     /**
      * Evaluator for tag name
      */
@@ -46,11 +74,20 @@ public abstract class Evaluator {
             this.tagName = tagName;
         }
 
+        String getTagName() {
+            return tagName;
+        }
+
         @Override
         public boolean matches(ElementImpl root, ElementImpl element) {
             return (element.tagName().equalsIgnoreCase(tagName));
         }
 
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            hashes.add(AncestorFilter.tagHash(tagName));
+        }
+
         @Override
         public String toString() {
             return String.format("%s", tagName);
@@ -89,11 +126,22 @@ public abstract class Evaluator {
             this.id = id;
         }
 
+        String getId() {
+            return id;
+        }
+
         @Override
         public boolean matches(ElementImpl root, ElementImpl element) {
             return (id.equals(element.getId()));
         }
 
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            if (!id.isEmpty()) {
+                hashes.add(AncestorFilter.idHash(id));
+            }
+        }
+
         @Override
         public String toString() {
             return String.format("#%s", id);
@@ -111,11 +159,20 @@ public abstract class Evaluator {
             this.className = className;
         }
 
+        String getClassName() {
+            return className;
+        }
+
         @Override
         public boolean matches(ElementImpl root, ElementImpl element) {
             return (element.hasClass(className));
         }
 
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            hashes.add(AncestorFilter.classHash(className));
+        }
+
         @Override
         public String toString() {
             return String.format(".%s", className);
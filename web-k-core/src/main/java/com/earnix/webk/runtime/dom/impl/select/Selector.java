@@ -2,7 +2,10 @@ package com.earnix.webk.runtime.dom.impl.select;
 
 import com.earnix.webk.runtime.dom.impl.helper.Validate;
 import com.earnix.webk.runtime.dom.impl.nodes.PseudoTextElement;
+import com.earnix.webk.runtime.dom.impl.DocumentImpl;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.ElementIndex;
+import com.earnix.webk.runtime.dom.impl.NodeImpl;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -76,6 +79,12 @@ import java.util.IdentityHashMap;
  * @see ElementImpl#select(String)
  */
 public class Selector {
+    /**
+     * Minimal ratio of the elements of a document to the candidates found in its index for a query to use the index.
+     * Otherwise visiting the elements under the root is likely cheaper than sorting the candidates in document order.
+     */
+    private static final int MIN_INDEX_SELECTIVITY = 16;
+
     // not instantiable
     private Selector() {
     }
@@ -103,7 +112,8 @@ public class Selector {
     public static Elements select(Evaluator evaluator, ElementImpl root) {
         Validate.notNull(evaluator);
         Validate.notNull(root);
-        return Collector.collect(evaluator, root);
+        Elements indexed = selectIndexed(evaluator, root);
+        return indexed != null ? indexed : Collector.collect(evaluator, root);
     }
 
     /**
@@ -159,7 +169,73 @@ public class Selector {
      */
     public static ElementImpl selectFirst(String cssQuery, ElementImpl root) {
         Validate.notEmpty(cssQuery);
-        return Collector.findFirst(QueryParser.parse(cssQuery), root);
+        Evaluator evaluator = QueryParser.parse(cssQuery);
+        Elements indexed = selectIndexed(evaluator, root);
+        if (indexed != null)
+            return indexed.isEmpty() ? null : indexed.get(0);
+        return Collector.findFirst(evaluator, root);
+    }
+
+    /**
+     * Finds elements matching an id, class or tag selector among the ones indexed under its name by the document,
+     * instead of visiting every element of the document. Queries under other roots visit their elements, as the
+     * candidates of the whole document may be far more than the elements under the root.
+     *
+     * @return matching elements in document order, or null if the selector or the root can't use the index, or it is
+     * not selective enough
+     */
+    private static Elements selectIndexed(Evaluator evaluator, ElementImpl root) {
+        if (!(root instanceof DocumentImpl))
+            return null;
+        DocumentImpl document = (DocumentImpl) root;
+
+        ElementIndex index = document.getElementIndex();
+        Collection<ElementImpl> candidates;
+        if (evaluator instanceof Evaluator.Id && !((Evaluator.Id) evaluator).getId().isEmpty())
+            candidates = index.getById(((Evaluator.Id) evaluator).getId());
+        else if (evaluator instanceof Evaluator.Class)
+            candidates = index.getByClass(((Evaluator.Class) evaluator).getClassName());
+        else if (evaluator instanceof Evaluator.Tag)
+            candidates = index.getByTag(((Evaluator.Tag) evaluator).getTagName());
+        else
+            return null;
+        if ((long) candidates.size() * MIN_INDEX_SELECTIVITY > index.size())
+            return null;
+
+        Elements elements = new Elements();
+        for (ElementImpl element : candidates) {
+            if (evaluator.matches(root, element))
+                elements.add(element);
+        }
+        elements.sort(Selector::compareDocumentOrder);
+        return elements;
+    }
+
+    private static int compareDocumentOrder(NodeImpl a, NodeImpl b) {
+        if (a == b)
+            return 0;
+        final int depthA = depth(a);
+        final int depthB = depth(b);
+        NodeImpl x = a;
+        NodeImpl y = b;
+        for (int depth = depthA; depth > depthB; depth--)
+            x = x.parentNode;
+        for (int depth = depthB; depth > depthA; depth--)
+            y = y.parentNode;
+        if (x == y) // one contains the other, which comes first
+            return depthA < depthB ? -1 : 1;
+        while (x.parentNode != y.parentNode) {
+            x = x.parentNode;
+            y = y.parentNode;
+        }
+        return Integer.compare(x.siblingIndex(), y.siblingIndex());
+    }
+
+    private static int depth(NodeImpl node) {
+        int depth = 0;
+        for (; node.parentNode != null; node = node.parentNode)
+            depth++;
+        return depth;
     }
 
     public static class SelectorParseException extends IllegalStateException {
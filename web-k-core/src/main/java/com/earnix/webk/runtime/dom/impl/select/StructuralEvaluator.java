@@ -2,12 +2,31 @@ package com.earnix.webk.runtime.dom.impl.select;
 
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 /**
  * Base structural evaluator.
  */
 abstract class StructuralEvaluator extends Evaluator {
     Evaluator evaluator;
 
+    /**
+     * Hashes of tags, ids and classes which an ancestor matched by {@link #evaluator} and its own ancestors must have,
+     * lazily computed
+     */
+    private int[] ancestorHashes;
+
+    int[] ancestorHashes() {
+        if (ancestorHashes == null) {
+            Set<Integer> hashes = new LinkedHashSet<>();
+            evaluator.addAncestorHashes(hashes);
+            ancestorHashes = hashes.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return ancestorHashes;
+    }
+
     static class Root extends Evaluator {
         public boolean matches(ElementImpl root, ElementImpl element) {
             return root == element;
@@ -68,6 +87,23 @@ abstract class StructuralEvaluator extends Evaluator {
             return false;
         }
 
+        @Override
+        public boolean matches(ElementImpl root, ElementImpl element, AncestorFilter ancestors) {
+            return ancestors.mayContainAll(ancestorHashes()) && matches(root, element);
+        }
+
+        @Override
+        void addFilterHashes(Collection<Integer> hashes) {
+            for (int hash : ancestorHashes()) {
+                hashes.add(hash);
+            }
+        }
+
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            evaluator.addAncestorHashes(hashes);
+        }
+
         @Override
         public String toString() {
             return String.format(":parent%s", evaluator);
@@ -87,6 +123,23 @@ abstract class StructuralEvaluator extends Evaluator {
             return parent != null && evaluator.matches(root, parent);
         }
 
+        @Override
+        public boolean matches(ElementImpl root, ElementImpl element, AncestorFilter ancestors) {
+            return ancestors.mayContainAll(ancestorHashes()) && matches(root, element);
+        }
+
+        @Override
+        void addFilterHashes(Collection<Integer> hashes) {
+            for (int hash : ancestorHashes()) {
+                hashes.add(hash);
+            }
+        }
+
+        @Override
+        void addAncestorHashes(Collection<Integer> hashes) {
+            evaluator.addAncestorHashes(hashes);
+        }
+
         @Override
         public String toString() {
             return String.format(":ImmediateParent%s", evaluator);
@@ -1,8 +1,20 @@
 package com.earnix.webk.runtime.geom;
 
+import com.earnix.webk.runtime.web_idl.Getter;
+import com.earnix.webk.runtime.web_idl.Nullable;
+import com.earnix.webk.runtime.web_idl.ReadonlyAttribute;
+import com.earnix.webk.runtime.web_idl.Unsigned;
+
 /**
  * @author Taras Maslov
  * 8/13/2018
  */
 public interface DOMRectList {
+    @Unsigned
+    @ReadonlyAttribute
+    int length();
+
+    @Getter
+    @Nullable
+    DOMRect item(@Unsigned int index);
 }
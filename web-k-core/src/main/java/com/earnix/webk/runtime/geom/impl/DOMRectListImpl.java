@@ -0,0 +1,29 @@
+package com.earnix.webk.runtime.geom.impl;
+
+import com.earnix.webk.runtime.geom.DOMRect;
+import com.earnix.webk.runtime.geom.DOMRectList;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+/**
+ * Rectangles of the boxes of an element, as returned by {@link com.earnix.webk.runtime.cssom_view.Element#getClientRects()}.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@AllArgsConstructor
+public class DOMRectListImpl implements DOMRectList {
+
+    List<DOMRect> rects;
+
+    @Override
+    public int length() {
+        return rects.size();
+    }
+
+    @Override
+    public DOMRect item(int index) {
+        return index >= 0 && index < rects.size() ? rects.get(index) : null;
+    }
+}
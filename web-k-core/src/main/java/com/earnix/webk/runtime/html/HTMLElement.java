@@ -7,6 +7,7 @@ import com.earnix.webk.runtime.dom.Element;
  * @author Taras Maslov
  * 7/17/2018
  */
-public interface HTMLElement extends Element, ElementCSSInlineStyle, GlobalEventHandlers {
+public interface HTMLElement extends Element, ElementCSSInlineStyle, GlobalEventHandlers,
+        com.earnix.webk.runtime.cssom_view.HTMLElement {
     
 }
@@ -6,6 +6,7 @@ import com.earnix.webk.runtime.web_idl.DOMString;
 import com.earnix.webk.runtime.web_idl.DefaultSequence;
 import com.earnix.webk.runtime.web_idl.DefaultString;
 import com.earnix.webk.runtime.web_idl.Exposed;
+import com.earnix.webk.runtime.web_idl.Function;
 import com.earnix.webk.runtime.web_idl.Getter;
 import com.earnix.webk.runtime.web_idl.Global;
 import com.earnix.webk.runtime.web_idl.LegacyUnenumerableNamedProperties;
@@ -159,6 +160,12 @@ public interface Window extends
 
 //    void postMessage(Object message, @Optional WindowPostMessageOptions options);
 
+    // animation frames, AnimationFrameProvider mixin
+    @Unsigned
+    int requestAnimationFrame(Function callback);
+
+    void cancelAnimationFrame(@Unsigned int handle);
+
     // is not in WebIDL, exposed as namespace. Spec connection.
     @ReadonlyAttribute Console console();
 }
@@ -8,6 +8,7 @@ import com.earnix.webk.runtime.html.Location;
 import com.earnix.webk.runtime.html.WindowProxy;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
 import com.earnix.webk.runtime.dom.impl.NodeImpl;
+import com.earnix.webk.runtime.dom.impl.NodeListImpl;
 import com.earnix.webk.runtime.web_idl.Attribute;
 import com.earnix.webk.runtime.web_idl.DOMString;
 import com.earnix.webk.runtime.web_idl.USVString;
@@ -20,6 +21,8 @@ import lombok.Setter;
 import lombok.experimental.FieldDefaults;
 import lombok.val;
 
+import java.util.ArrayList;
+
 /**
  * @author Taras Maslov
  * 7/17/2018
@@ -150,7 +153,7 @@ public class DocumentImpl extends com.earnix.webk.runtime.dom.impl.DocumentImpl
 
     @Override
     public NodeList getElementsByName(@DOMString String elementName) {
-        return null;
+        return new NodeListImpl(this, () -> new ArrayList<>(getElementsByAttributeValue("name", elementName)));
     }
 
     @Override
@@ -0,0 +1,293 @@
+package com.earnix.webk.runtime.html.impl;
+
+import com.earnix.webk.runtime.ScriptContext;
+import com.earnix.webk.runtime.web_idl.Function;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Event loop of a single window, running timers, animation frame callbacks and microtasks on the event dispatch
+ * thread.
+ * <p>
+ * Work is done in frames: a frame runs all timers due by then (timers due within {@link #TIMER_SLACK} are coalesced
+ * into the same frame), animation frame callbacks once {@link #FRAME_INTERVAL} has passed since the previous ones,
+ * and drains microtasks after each callback. Document changes made by all callbacks of a frame are handled by a
+ * single {@link ScriptContext#handleDocumentUpdate()}, so the document is re-styled and laid out at most once per
+ * frame.
+ * <p>
+ * Swing has no display refresh to sync with, so animation frame callbacks are run by the frame on the event dispatch
+ * thread, and the panel is repainted right after them, so that their changes are painted by the next paint. Scripts
+ * never run while the panel paints.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+class WindowEventLoop {
+
+    /**
+     * Interval of animation frames, ms
+     */
+    static final int FRAME_INTERVAL = 16;
+
+    /**
+     * Timers due within this period after the frame start are run by the same frame, ms
+     */
+    static final int TIMER_SLACK = 4;
+
+    /**
+     * Minimal period of intervals, ms
+     */
+    static final int MIN_INTERVAL = 4;
+
+    final ScriptContext scriptContext;
+    final long origin = System.nanoTime();
+
+    final PriorityQueue<TimerTask> timers = new PriorityQueue<>();
+    final Map<Integer, TimerTask> timerTasks = new HashMap<>();
+    final ArrayDeque<Runnable> microtasks = new ArrayDeque<>();
+    Map<Integer, Function> animationFrameCallbacks = new LinkedHashMap<>();
+
+    final Timer wakeUp;
+    long wakeUpTime = Long.MAX_VALUE;
+    long lastAnimationFrame = -FRAME_INTERVAL;
+
+    int lastHandle;
+    long sequence;
+    boolean closed;
+
+    WindowEventLoop(ScriptContext scriptContext) {
+        this.scriptContext = scriptContext;
+        wakeUp = new Timer(0, e -> runFrame());
+        wakeUp.setRepeats(false);
+        // restarted from its own action, coalescing might drop the next event
+        wakeUp.setCoalesce(false);
+    }
+
+    /**
+     * @param period interval period, or 0 for a single run
+     * @return handle for {@link #clearTimer(int)}
+     */
+    synchronized int setTimer(Function callback, Object[] arguments, int delay, int period) {
+        int handle = ++lastHandle;
+        TimerTask task = new TimerTask(handle, callback, arguments, period > 0 ? Math.max(period, MIN_INTERVAL) : 0);
+        schedule(task, now() + Math.max(delay, 0));
+        timerTasks.put(handle, task);
+        return handle;
+    }
+
+    synchronized void clearTimer(int handle) {
+        TimerTask task = timerTasks.remove(handle);
+        if (task != null) {
+            timers.remove(task);
+        } else {
+            log.trace("No task to cancel for handle {}", handle);
+        }
+    }
+
+    synchronized int requestAnimationFrame(Function callback) {
+        int handle = ++lastHandle;
+        animationFrameCallbacks.put(handle, callback);
+        wakeUpAt(Math.max(now(), lastAnimationFrame + FRAME_INTERVAL));
+        return handle;
+    }
+
+    synchronized void cancelAnimationFrame(int handle) {
+        animationFrameCallbacks.remove(handle);
+    }
+
+    /**
+     * Queues the microtask, to be run right after the current callback, or as soon as possible if called outside
+     * of the loop
+     */
+    synchronized void queueMicrotask(Runnable microtask) {
+        microtasks.add(microtask);
+        wakeUpAt(now());
+    }
+
+    /**
+     * Stops the loop, dropping all pending tasks
+     */
+    synchronized void close() {
+        closed = true;
+        wakeUp.stop();
+        timers.clear();
+        timerTasks.clear();
+        microtasks.clear();
+        animationFrameCallbacks.clear();
+    }
+
+    void runFrame() {
+        long frameStart = now();
+        List<TimerTask> dueTimers = new ArrayList<>();
+        synchronized (this) {
+            wakeUpTime = Long.MAX_VALUE;
+            if (closed) {
+                return;
+            }
+            while (!timers.isEmpty() && timers.peek().due <= frameStart + TIMER_SLACK) {
+                dueTimers.add(timers.poll());
+            }
+        }
+        Map<Integer, Function> dueAnimationFrames = pollAnimationFrames(frameStart);
+
+        scriptContext.storeDocumentState();
+        runMicrotasks();
+        for (TimerTask task : dueTimers) {
+            synchronized (this) {
+                if (closed || timerTasks.get(task.handle) != task) {
+                    // cleared by a previous callback
+                    continue;
+                }
+                if (task.period > 0) {
+                    schedule(task, Math.max(task.due + task.period, frameStart));
+                } else {
+                    timerTasks.remove(task.handle);
+                }
+            }
+            call(task.callback, task.arguments);
+        }
+        if (dueAnimationFrames != null) {
+            callAnimationFrames(dueAnimationFrames, frameStart);
+        }
+        scriptContext.handleDocumentUpdate();
+        if (dueAnimationFrames != null) {
+            // e.g. drawing on a canvas doesn't change the document
+            requestRepaint();
+        }
+
+        synchronized (this) {
+            if (!closed) {
+                if (!microtasks.isEmpty()) {
+                    wakeUpAt(now());
+                }
+                if (!timers.isEmpty()) {
+                    wakeUpAt(timers.peek().due);
+                }
+                if (!animationFrameCallbacks.isEmpty()) {
+                    wakeUpAt(lastAnimationFrame + FRAME_INTERVAL);
+                }
+            }
+        }
+    }
+
+    private synchronized Map<Integer, Function> pollAnimationFrames(long frameStart) {
+        if (closed || animationFrameCallbacks.isEmpty() || frameStart < lastAnimationFrame + FRAME_INTERVAL) {
+            return null;
+        }
+        Map<Integer, Function> dueAnimationFrames = animationFrameCallbacks;
+        animationFrameCallbacks = new LinkedHashMap<>();
+        lastAnimationFrame = frameStart;
+        return dueAnimationFrames;
+    }
+
+    private void callAnimationFrames(Map<Integer, Function> callbacks, long frameStart) {
+        Object[] timestamp = {(double) frameStart};
+        for (Function callback : callbacks.values()) {
+            call(callback, timestamp);
+        }
+    }
+
+    private void call(Function callback, Object[] arguments) {
+        try {
+            callback.call(null, arguments);
+        } catch (RuntimeException e) {
+            log.warn("callback", e);
+        }
+        runMicrotasks();
+    }
+
+    private void runMicrotasks() {
+        Runnable microtask;
+        while ((microtask = pollMicrotask()) != null) {
+            try {
+                microtask.run();
+            } catch (RuntimeException e) {
+                log.warn("microtask", e);
+            }
+        }
+    }
+
+    private synchronized Runnable pollMicrotask() {
+        return closed ? null : microtasks.poll();
+    }
+
+    private void schedule(TimerTask task, long due) {
+        task.due = due;
+        task.sequence = ++sequence;
+        timers.add(task);
+        wakeUpAt(due);
+    }
+
+    /**
+     * Makes sure a frame is run not later than at the given time
+     */
+    private void wakeUpAt(long time) {
+        if (closed || time >= wakeUpTime) {
+            return;
+        }
+        wakeUpTime = time;
+        scheduleFrame(time);
+    }
+
+    /**
+     * Runs {@link #runFrame()} on the event dispatch thread at the given time
+     */
+    void scheduleFrame(long time) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            startWakeUp(time);
+        } else {
+            SwingUtilities.invokeLater(() -> {
+                synchronized (this) {
+                    if (!closed && wakeUpTime == time) {
+                        startWakeUp(time);
+                    }
+                }
+            });
+        }
+    }
+
+    private void startWakeUp(long time) {
+        wakeUp.setInitialDelay((int) Math.max(time - now(), 0));
+        wakeUp.restart();
+    }
+
+    void requestRepaint() {
+        scriptContext.getPanel().repaint();
+    }
+
+    long now() {
+        return (System.nanoTime() - origin) / 1_000_000;
+    }
+
+    private static final class TimerTask implements Comparable<TimerTask> {
+        final int handle;
+        final Function callback;
+        final Object[] arguments;
+        final int period;
+        long due;
+        long sequence;
+
+        TimerTask(int handle, Function callback, Object[] arguments, int period) {
+            this.handle = handle;
+            this.callback = callback;
+            this.arguments = arguments;
+            this.period = period;
+        }
+
+        @Override
+        public int compareTo(TimerTask o) {
+            int result = Long.compare(due, o.due);
+            return result != 0 ? result : Long.compare(sequence, o.sequence);
+        }
+    }
+}
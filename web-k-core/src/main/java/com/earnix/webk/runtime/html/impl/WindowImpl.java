@@ -4,7 +4,7 @@ import com.earnix.webk.runtime.ScriptContext;
 import com.earnix.webk.runtime.console.Console;
 import com.earnix.webk.runtime.console.impl.ConsoleImpl;
 import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
-import com.earnix.webk.runtime.cssom.impl.CSSStyleDeclarationImpl;
+import com.earnix.webk.runtime.cssom.impl.ComputedStyleDeclarationImpl;
 import com.earnix.webk.runtime.fetch.RequestInfo;
 import com.earnix.webk.runtime.fetch.RequestInit;
 import com.earnix.webk.runtime.fetch.Response;
@@ -44,8 +44,6 @@ import lombok.val;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import java.util.HashMap;
-import java.util.Timer;
-import java.util.TimerTask;
 
 /**
  * @author Taras Maslov
@@ -71,6 +69,7 @@ public class WindowImpl implements Window {
         location = new LocationImpl(document);
         eventTargetImpl = new EventTargetImpl(() -> scriptContext);
         level1EventTarget = new Level1EventTarget(() -> scriptContext, eventTargetImpl);
+        eventLoop = new WindowEventLoop(scriptContext);
     }
 
     @Override
@@ -158,7 +157,7 @@ public class WindowImpl implements Window {
 
         @Override
         public void set(String s) {
-            WindowImpl.this.status = status;
+            WindowImpl.this.status = s;
         }
     };
 
@@ -639,9 +638,7 @@ public class WindowImpl implements Window {
 
     // region timers
 
-    Timer timer = new Timer();
-    HashMap<Integer, TimerTask> timeoutTasks = new HashMap<>();
-    HashMap<Integer, TimerTask> intervalTasks = new HashMap<>();
+    final WindowEventLoop eventLoop;
 
     @Override
     public int setTimeout(TimerHandler handler, int timeout, Object... arguments) {
@@ -649,20 +646,7 @@ public class WindowImpl implements Window {
             // unimplemented
             return -1;
         } else if (handler.is(com.earnix.webk.runtime.web_idl.Function.class)) {
-            val task = new TimerTask() {
-                @Override
-                public void run() {
-                    SwingUtilities.invokeLater(() -> {
-                        handler.<Function>get().call(this, arguments);
-                        scriptContext.getPanel().relayout();
-                    });
-                }
-            };
-
-            timer.schedule(task, (long) timeout);
-            val handle = timeoutTasks.size();
-            timeoutTasks.put(handle, task);
-            return handle;
+            return eventLoop.setTimer(handler.get(), arguments, timeout, 0);
         } else {
             throw new IllegalStateException();
         }
@@ -670,13 +654,7 @@ public class WindowImpl implements Window {
 
     @Override
     public void clearTimeout(int handle) {
-        val task = timeoutTasks.get(handle);
-        if (task != null) {
-            task.cancel();
-            timeoutTasks.remove(handle);
-        } else {
-            log.trace("No task to cancel for handle {}", handle);
-        }
+        eventLoop.clearTimer(handle);
     }
 
     /**
@@ -689,19 +667,7 @@ public class WindowImpl implements Window {
             log.warn("Unimplemented");
             return -1;
         } else if (handler.is(com.earnix.webk.runtime.web_idl.Function.class)) {
-            val task = new TimerTask() {
-                @Override
-                public void run() {
-                    SwingUtilities.invokeLater(() -> {
-                        handler.<Function>get().call(this, arguments);
-                        scriptContext.getPanel().reset();
-                    });
-                }
-            };
-            timer.scheduleAtFixedRate(task, 0, (long) timeout);
-            val handle = intervalTasks.size();
-            intervalTasks.put(handle, task);
-            return handle;
+            return eventLoop.setTimer(handler.get(), arguments, timeout, timeout);
         } else {
             throw new IllegalStateException();
         }
@@ -709,22 +675,29 @@ public class WindowImpl implements Window {
 
     @Override
     public void clearInterval(int handle) {
-        val task = intervalTasks.get(handle);
-        if (task != null) {
-            task.cancel();
-            intervalTasks.remove(handle);
-        } else {
-            log.trace("No task to cancel for handle {}", handle);
-        }
+        eventLoop.clearTimer(handle);
+    }
+
+    @Override
+    public int requestAnimationFrame(Function callback) {
+        return eventLoop.requestAnimationFrame(callback);
     }
-    
+
+    @Override
+    public void cancelAnimationFrame(int handle) {
+        eventLoop.cancelAnimationFrame(handle);
+    }
+
+    /**
+     * Stops the window's event loop, dropping pending timers, animation frame callbacks and microtasks
+     */
     public void clearTasks() {
-        timer.cancel();
+        eventLoop.close();
     }
 
     @Override
     public void queueMicrotask(VoidFunction callback) {
-
+        eventLoop.queueMicrotask(callback::call);
     }
 
     // endregion
@@ -772,9 +745,7 @@ public class WindowImpl implements Window {
     @Override
     public CSSStyleDeclaration getComputedStyle(Element elt, String pseudoElt) {
         val element = ((ElementImpl) elt);
-        return new CSSStyleDeclarationImpl(
-                scriptContext.getPanel().getSharedContext().getStyle(element).toString(),
-                scriptContext);
+        return new ComputedStyleDeclarationImpl(scriptContext.getPanel().getSharedContext().getStyle(element));
     }
 
     private void repaintPanel() {
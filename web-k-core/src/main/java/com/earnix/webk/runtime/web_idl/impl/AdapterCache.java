@@ -0,0 +1,60 @@
+package com.earnix.webk.runtime.web_idl.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * {@link WebIDLAdapter}s of a single {@link com.earnix.webk.runtime.ScriptContext}, so that the same Java object is
+ * always exposed to JavaScript as the same object. Objects are matched by identity, their
+ * <code>equals/hashCode</code> are not used.
+ * <p>
+ * Adapters are strongly referenced until {@link #clear()}, which is expected on document unload, so that properties
+ * set by scripts on an adapter are kept while no script refers to it.
+ */
+public class AdapterCache {
+
+    private final ConcurrentHashMap<IdentityKey, WebIDLAdapter<?>> adapters = new ConcurrentHashMap<>();
+
+    <T> WebIDLAdapter<T> obtain(T target, Function<T, WebIDLAdapter<T>> factory) {
+        @SuppressWarnings("unchecked")
+        WebIDLAdapter<T> adapter = (WebIDLAdapter<T>) adapters.get(new IdentityKey(target));
+        if (adapter == null) {
+            WebIDLAdapter<T> created = factory.apply(target);
+            @SuppressWarnings("unchecked")
+            WebIDLAdapter<T> previous = (WebIDLAdapter<T>) adapters.putIfAbsent(new IdentityKey(target), created);
+            adapter = previous != null ? previous : created;
+        }
+        return adapter;
+    }
+
+    /**
+     * Releases all adapters
+     */
+    public void clear() {
+        adapters.clear();
+    }
+
+    public int size() {
+        return adapters.size();
+    }
+
+    private static final class IdentityKey {
+        private final Object target;
+        private final int hash;
+
+        private IdentityKey(Object target) {
+            this.target = target;
+            this.hash = System.identityHashCode(target);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey && ((IdentityKey) o).target == target;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
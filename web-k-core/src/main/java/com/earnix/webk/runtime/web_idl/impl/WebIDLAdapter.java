@@ -18,7 +18,6 @@ import com.earnix.webk.runtime.web_idl.ReadonlyAttribute;
 import com.earnix.webk.runtime.web_idl.Sequence;
 import com.earnix.webk.runtime.web_idl.TreatNullAs;
 import com.earnix.webk.runtime.web_idl.Typedef;
-import com.earnix.webk.util.AssertHelper;
 import jdk.nashorn.api.scripting.JSObject;
 import jdk.nashorn.api.scripting.ScriptObjectMirror;
 import jdk.nashorn.api.scripting.ScriptUtils;
@@ -26,27 +25,21 @@ import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.experimental.FieldDefaults;
-import lombok.experimental.var;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import org.apache.commons.lang3.ClassUtils;
-import org.apache.commons.lang3.reflect.MethodUtils;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.lang.reflect.ParameterizedType;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.WeakHashMap;
-import java.util.stream.Stream;
 
 
 /**
@@ -57,45 +50,48 @@ import java.util.stream.Stream;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class WebIDLAdapter<T> implements JSObject {
 
-    private static WeakHashMap<Object, WebIDLAdapter> all = new WeakHashMap<>();
-
     /**
      * Indicates that named item was set to null during runtime
      */
     private static final Object NULL = new Object();
+
+    /**
+     * Indicates that binding member was removed during runtime
+     */
     private static final Object UNDEFINED = new Object();
 
     T target;
     ScriptContext scriptContext;
-    HashMap<String, Object> members = new HashMap<>();
 
     /**
-     * Reference on the method annotated with {@link PropertyGetter}
+     * Members shared by all instances of the target class
      */
-    Method propertyGetter;
+    WebIDLBinding binding;
 
     /**
-     * Reference on the method annotated with {@link PropertySetter}
+     * Members resolved for this target on first access and custom values set by js runtime
      */
-    Method propertySetter;
-    
+    HashMap<String, Object> members = new HashMap<>();
+
     private WebIDLAdapter(ScriptContext js, T target) {
         this.target = target;
         this.scriptContext = js;
-        processTarget();
+        this.binding = WebIDLBinding.of(target.getClass());
     }
 
     public T getTarget() {
         return target;
     }
 
+    /**
+     * @return adapter of the given object, the same for the same object within script context
+     * @see ScriptContext#getAdapterCache()
+     */
     public static <T> WebIDLAdapter<T> obtain(ScriptContext scriptContext, T target) {
-        WebIDLAdapter result = all.get(target);
-        if (result == null) {
-            result = new WebIDLAdapter(scriptContext, target);
-            all.put(target, result);
+        if (scriptContext == null) {
+            return new WebIDLAdapter<>(null, target);
         }
-        return result;
+        return scriptContext.getAdapterCache().obtain(target, t -> new WebIDLAdapter<>(scriptContext, t));
     }
 
     private static final Object READONLY_ATTRIBUTE_MARK = new Object();
@@ -108,132 +104,59 @@ public class WebIDLAdapter<T> implements JSObject {
     }
 
 
-    class MultiArgFunctionCallback implements Function<T> {
-        private HashMap<Integer, Function> callbacks = new HashMap<>();
+    class OperationCallback implements Function<T> {
+        private final WebIDLBinding.OperationMember operations;
+
+        OperationCallback(WebIDLBinding.OperationMember operations) {
+            this.operations = operations;
+        }
 
         public T call(Object ctx, Object... args) {
             // calling callback with closest but larger args count
-            // todo thing about NPE
-            val callback = get(args.length);
-            if (callback != null) {
-                return (T) callback.call(ctx, args);
+            val operation = operations.select(args.length);
+            if (operation != null) {
+                return (T) convertToScript(operation.invoke(target, prepareArguments(operation, args)));
             } else {
                 log.error("No matching function to call with given args count");
                 throw new RuntimeException();
             }
         }
+    }
 
-        MultiArgFunctionCallback add(Function callback, int argsCount) {
-            callbacks.put(argsCount, callback);
-            return this;
+    /**
+     * Returns member of this adapter, resolving binding members for the target on first access.
+     *
+     * @return {@link AttributeLink}, {@link #READONLY_ATTRIBUTE_MARK}, {@link FunctionAdapter} or custom value
+     */
+    private Object member(String key) {
+        val member = members.get(key);
+        if (member != null || members.containsKey(key)) {
+            return member == UNDEFINED ? null : member;
         }
 
-        @javax.annotation.Nullable
-        Function get(Integer argsCount) {
-            var callback = callbacks.get(argsCount);
-            if (callback == null) {
-                // finding first with larger args count
-                int approximateCount = callbacks.keySet().stream().filter(i -> i > argsCount).mapToInt(i -> i).min().getAsInt();
-                callback = callbacks.get(approximateCount);
+        final Object resolved;
+        if (WebIDLBinding.isToString(key)) {
+            resolved = new FunctionAdapter<>(scriptContext, (ctx, arg) -> WebIDLAdapter.this.toString() + " " + target.toString(), 0, "toString");
+        } else if (WebIDLBinding.isEquals(key)) {
+            resolved = new FunctionAdapter<>(scriptContext, (ctx, arg) ->
+                    WebIDLAdapter.this.equals(arg[0]), 1, "equals");
+        } else {
+            val bindingMember = binding.getMember(key);
+            if (bindingMember instanceof WebIDLBinding.AttributeMember) {
+                val attributeMember = (WebIDLBinding.AttributeMember) bindingMember;
+                resolved = new AttributeLink(attributeMember.attribute(target), attributeMember.getAttributeClass());
+            } else if (bindingMember instanceof WebIDLBinding.ReadonlyAttributeMember) {
+                // resolved on each access
+                return READONLY_ATTRIBUTE_MARK;
+            } else if (bindingMember instanceof WebIDLBinding.OperationMember) {
+                val operations = (WebIDLBinding.OperationMember) bindingMember;
+                resolved = new FunctionAdapter<>(scriptContext, new OperationCallback(operations), operations.getArgsCount(), operations.getName());
+            } else {
+                return null;
             }
-
-            // only functions with less number of args...
-            return callback;
         }
-    }
-
-    private void processTarget() {
-
-        try {
-
-            ClassUtils.getAllInterfaces(target.getClass())
-                    .stream()
-                    .flatMap(i -> Stream.of(i.getMethods()))
-                    .forEach(m -> {
-
-
-                        // Attribute member
-                        try {
-                            if (m.getReturnType().equals(Attribute.class)) {
-                                members.put(m.getName(), new AttributeLink(
-                                        (Attribute<?>) m.invoke(target),
-                                        (Class<?>) ((ParameterizedType) m.getGenericReturnType()).getActualTypeArguments()[0])
-                                );
-                                return;
-                            }
-                        } catch (IllegalAccessException | InvocationTargetException e) {
-                            throw new RuntimeException(e);
-                        } catch (RuntimeException e) {
-                            throw e; // todo rem
-                        }
-
-
-                        if (m.isAnnotationPresent(ReadonlyAttribute.class)) {
-                            members.put(m.getName(), READONLY_ATTRIBUTE_MARK);
-                            return;
-                        }
-
-                        // Function member
-
-                        @SuppressWarnings("RedundantCast")
-                        val callback = (Function) (ctx, args) -> {
-                            final Object res;
-
-                            try {
-                                res = MethodUtils.invokeMethod(target, m.getName(), prepareArguments(m, args), m.getParameterTypes());
-                            } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException | IllegalArgumentException e) {
-                                throw new RuntimeException(e);
-                            }
-                            return convertToScript(res);
-                        };
-
-                        if (m.getAnnotation(PropertyGetter.class) != null) {
-                            AssertHelper.assertState(propertyGetter == null);
-                            propertyGetter = m;
-                        }
-
-
-                        if (m.getAnnotation(PropertySetter.class) != null) {
-                            AssertHelper.assertState(propertySetter == null);
-                            propertySetter = m;
-                        }
-                        
-//                        val function = new Function<>(js, 
-//
-//                        }, m.getName());
-                        // multiple functions are supported for different number of arguments
-                        val currentMember = members.get(m.getName());
-                        if (currentMember != null) {
-                            if (currentMember.getClass().equals(FunctionAdapter.class)) {
-                                val function = (FunctionAdapter) currentMember;
-                                if (function.getCallback() instanceof WebIDLAdapter.MultiArgFunctionCallback) {
-                                    val multiArgCallback = (MultiArgFunctionCallback) function.getCallback();
-                                    multiArgCallback.add(callback, m.getParameterCount());
-                                } else {
-                                    val multiArgCallback = new MultiArgFunctionCallback();
-                                    multiArgCallback.add(function.getCallback(), function.getArgsCount()).add(callback, m.getParameterCount());
-                                    function.setCallback(multiArgCallback);
-                                    function.setArgsCount(null);
-                                }
-                                return;
-                            } else {
-                                log.error("Overriding member {} of {}", m.getName(), m.getDeclaringClass().getName());
-                            }
-                        }
-                        members.put(m.getName(), new FunctionAdapter<>(scriptContext, callback, m.getParameterCount(), m.getName()));
-                    });
-
-
-            members.put("toString", new FunctionAdapter<>(scriptContext, (ctx, arg) -> WebIDLAdapter.this.toString() + " " + target.toString(), 0, "toString"));
-
-            members.put("equals", new FunctionAdapter<>(scriptContext, (ctx, arg) ->
-                    WebIDLAdapter.this.equals(arg[0]), 1, "equals"));
-
-        } catch (RuntimeException e) {
-            e.printStackTrace();
-        }
-        
-        AssertHelper.assertState(propertyGetter != null ^ propertySetter == null, target.toString());
+        members.put(key, resolved);
+        return resolved;
     }
 
     @Override
@@ -256,7 +179,7 @@ public class WebIDLAdapter<T> implements JSObject {
     public Object getMember(String key) {
         log.trace("Getting member {} of {}", key, target);
         try {
-            val member = members.get(key);
+            val member = member(key);
             Object namedItem = null;
 
 
@@ -264,11 +187,8 @@ public class WebIDLAdapter<T> implements JSObject {
                 return convertToScript((((AttributeLink) member).attribute).get());
             } else if (READONLY_ATTRIBUTE_MARK.equals(member)) {
                 
-                try {
-                    return convertToScript(MethodUtils.invokeMethod(target, key));
-                } catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
-                    throw new RuntimeException(e);
-                }
+                val attributeMember = (WebIDLBinding.ReadonlyAttributeMember) binding.getMember(key);
+                return convertToScript(attributeMember.get(target));
                 
             } else if (target instanceof LegacyUnenumerableNamedProperties) {
                 namedItem = ((LegacyUnenumerableNamedProperties) target).namedItem(key);
@@ -280,8 +200,8 @@ public class WebIDLAdapter<T> implements JSObject {
                 return convertToScript(namedItem);
             }
 //
-            if (member == null && propertyGetter != null) {
-                return convertToScript(ReflectionHelper.relaxedInvoke(target, propertyGetter, key));
+            if (member == null && binding.getPropertyGetter() != null) {
+                return convertToScript(binding.getPropertyGetter().relaxedInvoke(target, key));
             }
 
             // function or custom value set by js runtime
@@ -308,7 +228,10 @@ public class WebIDLAdapter<T> implements JSObject {
 
     @Override
     public boolean hasMember(String s) {
-        return members.containsKey(s);
+        if (members.containsKey(s)) {
+            return members.get(s) != UNDEFINED;
+        }
+        return binding.hasMember(s);
     }
 
     @Override
@@ -327,12 +250,16 @@ public class WebIDLAdapter<T> implements JSObject {
 
     @Override
     public void removeMember(String s) {
-        members.remove(s);
+        if (binding.hasMember(s)) {
+            members.put(s, UNDEFINED);
+        } else {
+            members.remove(s);
+        }
     }
 
     @Override
     public void setMember(String key, Object value) {
-        val member = members.get(key);
+        val member = member(key);
         if (member instanceof WebIDLAdapter.AttributeLink) {
             try {
                 val att = ((AttributeLink) member).attribute;
@@ -346,19 +273,19 @@ public class WebIDLAdapter<T> implements JSObject {
 
         } else if (target instanceof LegacyUnenumerableNamedProperties) {
             members.put(key, value);
-        } else if (propertySetter != null) {
+        } else if (binding.getPropertySetter() != null) {
+            val propertySetter = binding.getPropertySetter();
             try {
-                ReflectionHelper.relaxedInvoke(
+                propertySetter.relaxedInvoke(
                         target, 
-                        propertySetter, 
                         key, 
-                        toJavaPresentation(value, propertySetter.getParameterTypes()[1])
+                        toJavaPresentation(value, propertySetter.getParameterType(1))
                 );
             } catch (IllegalArgumentException e) {
                 log.warn("setMember", e);
                 members.put(key, value);
             }
-        } else if (READONLY_ATTRIBUTE_MARK.equals(members.get(key))){
+        } else if (READONLY_ATTRIBUTE_MARK.equals(member)){
            log.error("An attempt to change readonly attribute {} of {}", key, target);
         } else {
             members.put(key, value);
@@ -373,12 +300,24 @@ public class WebIDLAdapter<T> implements JSObject {
 
     @Override
     public Set<String> keySet() {
-        return members.keySet();
+        Set<String> keys = new LinkedHashSet<>(binding.getMemberNames());
+        members.forEach((key, value) -> {
+            if (value == UNDEFINED) {
+                keys.remove(key);
+            } else {
+                keys.add(key);
+            }
+        });
+        return keys;
     }
 
     @Override
     public Collection<Object> values() {
-        return members.values();
+        List<Object> values = new ArrayList<>();
+        for (String key : keySet()) {
+            values.add(member(key));
+        }
+        return values;
     }
 
     @Override
@@ -453,10 +392,11 @@ public class WebIDLAdapter<T> implements JSObject {
      * @param rawArgs Nashorn JavaScript objects
      * @return Java objects (convenient method parameters)
      */
-    private Object[] prepareArguments(Method method, Object[] rawArgs) {
-        Object[] result = new Object[method.getParameterTypes().length];
+    private Object[] prepareArguments(WebIDLBinding.Operation operation, Object[] rawArgs) {
+        val method = operation.getMethod();
+        Object[] result = new Object[operation.getParameterCount()];
         if (log.isDebugEnabled()) {
-            if (result.length < rawArgs.length && !method.isVarArgs()) {
+            if (result.length < rawArgs.length && !operation.isVarArgs()) {
                 log.debug("Too many params from JS call to {}", method.toString());
             }
         }
@@ -466,12 +406,11 @@ public class WebIDLAdapter<T> implements JSObject {
         for (int i = 0; i < result.length; i++) {
             Object arg;
             Object rawArg;
-            val parameter = method.getParameters()[i];
-            val parameterType = method.getParameterTypes()[i];
-            val genericParameterType = method.getGenericParameterTypes()[i];
-            val genericType = (Class) (genericParameterType instanceof ParameterizedType ? ((ParameterizedType) genericParameterType).getActualTypeArguments()[0] : null);
+            val parameter = operation.getParameter(i);
+            val parameterType = operation.getParameterType(i);
+            val genericType = operation.getGenericType(i);
 
-            if (i == method.getParameterCount() - 1 && method.isVarArgs()) {
+            if (i == operation.getParameterCount() - 1 && operation.isVarArgs()) {
                 // all next args are targeted to vararg parameter
                 varargFromIndex = i;
                 break;
@@ -525,7 +464,7 @@ public class WebIDLAdapter<T> implements JSObject {
 
         if (varargFromIndex > -1) {
             List<Object> varArgs = new ArrayList<>();
-            val varArgsArrayType = method.getParameterTypes()[method.getParameterCount() - 1];
+            val varArgsArrayType = operation.getParameterType(operation.getParameterCount() - 1);
             val varArgsElementType = varArgsArrayType.getComponentType();
             for (int i = varargFromIndex; i < rawArgs.length; i++) {
                 varArgs.add(toJavaPresentation(rawArgs[i], varArgsElementType));
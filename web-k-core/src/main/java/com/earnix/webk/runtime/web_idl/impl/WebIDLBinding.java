@@ -0,0 +1,396 @@
+package com.earnix.webk.runtime.web_idl.impl;
+
+import com.earnix.webk.runtime.web_idl.Attribute;
+import com.earnix.webk.runtime.web_idl.ReadonlyAttribute;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable description of WebIDL members of an implementation class. It is built once per class by scanning
+ * the class interfaces and is shared by {@link WebIDLAdapter}s of all its instances.
+ *
+ * @see #of(Class)
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+final class WebIDLBinding {
+
+    private static final ClassValue<WebIDLBinding> bindings = new ClassValue<WebIDLBinding>() {
+        @Override
+        protected WebIDLBinding computeValue(Class<?> type) {
+            return new WebIDLBinding(type);
+        }
+    };
+
+    /**
+     * Members available for every adapter, overriding the implementation ones
+     */
+    private static final String TO_STRING = "toString";
+    private static final String EQUALS = "equals";
+
+    /**
+     * Values are {@link AttributeMember}, {@link ReadonlyAttributeMember} or {@link OperationMember}
+     */
+    Map<String, Object> members;
+    Set<String> memberNames;
+
+    /**
+     * Method annotated with {@link PropertyGetter}
+     */
+    Operation propertyGetter;
+
+    /**
+     * Method annotated with {@link PropertySetter}
+     */
+    Operation propertySetter;
+
+    static WebIDLBinding of(Class<?> implementationClass) {
+        return bindings.get(implementationClass);
+    }
+
+    /**
+     * @throws IllegalStateException if only one of {@link PropertyGetter} and {@link PropertySetter} is defined
+     */
+    private WebIDLBinding(Class<?> implementationClass) {
+        Map<String, Object> scanned = new LinkedHashMap<>();
+        Operation getter = null;
+        Operation setter = null;
+
+        for (Class<?> i : ClassUtils.getAllInterfaces(implementationClass)) {
+            for (Method m : i.getMethods()) {
+
+                // Attribute member
+                if (m.getReturnType().equals(Attribute.class)) {
+                    scanned.put(m.getName(), new AttributeMember(m));
+                    continue;
+                }
+
+                if (m.isAnnotationPresent(ReadonlyAttribute.class)) {
+                    scanned.put(m.getName(), new ReadonlyAttributeMember(m));
+                    continue;
+                }
+
+                // Function member
+                Operation operation = new Operation(m);
+
+                if (m.isAnnotationPresent(PropertyGetter.class)) {
+                    getter = operation;
+                }
+
+                if (m.isAnnotationPresent(PropertySetter.class)) {
+                    setter = operation;
+                }
+
+                // multiple functions are supported for different number of arguments
+                Object currentMember = scanned.get(m.getName());
+                if (currentMember instanceof OperationBuilder) {
+                    ((OperationBuilder) currentMember).add(operation);
+                    continue;
+                } else if (currentMember != null) {
+                    log.error("Overriding member {} of {}", m.getName(), m.getDeclaringClass().getName());
+                }
+                scanned.put(m.getName(), new OperationBuilder(m.getName()).add(operation));
+            }
+        }
+
+        for (Map.Entry<String, Object> entry : scanned.entrySet()) {
+            if (entry.getValue() instanceof OperationBuilder) {
+                entry.setValue(((OperationBuilder) entry.getValue()).build());
+            }
+        }
+        scanned.remove(TO_STRING);
+        scanned.remove(EQUALS);
+
+        this.members = Collections.unmodifiableMap(scanned);
+
+        Set<String> names = new LinkedHashSet<>(scanned.keySet());
+        names.add(TO_STRING);
+        names.add(EQUALS);
+        this.memberNames = Collections.unmodifiableSet(names);
+
+        this.propertyGetter = getter;
+        this.propertySetter = setter;
+
+        if ((getter == null) != (setter == null)) {
+            throw new IllegalStateException(implementationClass.getName());
+        }
+    }
+
+    /**
+     * @return {@link AttributeMember}, {@link ReadonlyAttributeMember}, {@link OperationMember} or null
+     */
+    Object getMember(String name) {
+        return members.get(name);
+    }
+
+    Set<String> getMemberNames() {
+        return memberNames;
+    }
+
+    boolean hasMember(String name) {
+        return memberNames.contains(name);
+    }
+
+    static boolean isToString(String name) {
+        return TO_STRING.equals(name);
+    }
+
+    static boolean isEquals(String name) {
+        return EQUALS.equals(name);
+    }
+
+    Operation getPropertyGetter() {
+        return propertyGetter;
+    }
+
+    Operation getPropertySetter() {
+        return propertySetter;
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            // interfaces of the implementation classes are not necessarily public
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asFixedArity();
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else {
+            return Object.class;
+        }
+    }
+
+    private static Object invoke(MethodHandle handle, Object target, Object[] args) {
+        try {
+            return handle.invokeExact(target, args);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Java method returning {@link Attribute} of the target
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static final class AttributeMember {
+        MethodHandle accessor;
+        Class<?> attributeClass;
+
+        private AttributeMember(Method method) {
+            this.accessor = unreflect(method).asType(MethodType.methodType(Attribute.class, Object.class));
+            Type type = ((ParameterizedType) method.getGenericReturnType()).getActualTypeArguments()[0];
+            this.attributeClass = rawClass(type);
+        }
+
+        Attribute<?> attribute(Object target) {
+            try {
+                return (Attribute<?>) accessor.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        Class<?> getAttributeClass() {
+            return attributeClass;
+        }
+    }
+
+    /**
+     * Java method annotated with {@link ReadonlyAttribute}
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static final class ReadonlyAttributeMember {
+        MethodHandle getter;
+
+        private ReadonlyAttributeMember(Method method) {
+            this.getter = unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+        }
+
+        Object get(Object target) {
+            try {
+                return getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Java method, which may be called from JavaScript.
+     * Reflective data needed for arguments adaptation is resolved once.
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static final class Operation {
+        Method method;
+        MethodHandle invoker;
+        Parameter[] parameters;
+        Class<?>[] parameterTypes;
+
+        /**
+         * First type argument of parametrized parameters, e.g. item type of a sequence
+         */
+        Class<?>[] genericTypes;
+
+        private Operation(Method method) {
+            this.method = method;
+            this.parameters = method.getParameters();
+            this.parameterTypes = method.getParameterTypes();
+            Type[] genericParameterTypes = method.getGenericParameterTypes();
+            this.genericTypes = new Class<?>[parameterTypes.length];
+            for (int i = 0; i < genericParameterTypes.length; i++) {
+                if (genericParameterTypes[i] instanceof ParameterizedType) {
+                    genericTypes[i] = rawClass(((ParameterizedType) genericParameterTypes[i]).getActualTypeArguments()[0]);
+                }
+            }
+
+            int count = parameterTypes.length;
+            this.invoker = unreflect(method)
+                    .asType(MethodType.genericMethodType(count + 1))
+                    .asSpreader(Object[].class, count);
+        }
+
+        Method getMethod() {
+            return method;
+        }
+
+        Parameter getParameter(int i) {
+            return parameters[i];
+        }
+
+        Class<?> getParameterType(int i) {
+            return parameterTypes[i];
+        }
+
+        Class<?> getGenericType(int i) {
+            return genericTypes[i];
+        }
+
+        int getParameterCount() {
+            return parameterTypes.length;
+        }
+
+        boolean isVarArgs() {
+            return method.isVarArgs();
+        }
+
+        /**
+         * @param args already adapted arguments, exactly matching method parameters
+         */
+        Object invoke(Object target, Object[] args) {
+            return WebIDLBinding.invoke(invoker, target, args);
+        }
+
+        /**
+         * Invokes the method replacing its last missing arguments with null's.
+         *
+         * @throws IllegalArgumentException if arguments don't match method parameters
+         */
+        Object relaxedInvoke(Object target, Object... args) {
+            if (args.length > parameterTypes.length) {
+                throw new IllegalArgumentException("Too many arguments for " + method);
+            }
+            Object[] padded = new Object[parameterTypes.length];
+            System.arraycopy(args, 0, padded, 0, args.length);
+            for (int i = 0; i < padded.length; i++) {
+                Object arg = padded[i];
+                if (arg == null ? parameterTypes[i].isPrimitive() : !ClassUtils.isAssignable(arg.getClass(), parameterTypes[i], true)) {
+                    throw new IllegalArgumentException("Argument type mismatch for " + method);
+                }
+            }
+            return invoke(target, padded);
+        }
+    }
+
+    /**
+     * One or more {@link Operation}s with the same name, differing by parameters count
+     */
+    @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+    static final class OperationMember {
+        String name;
+        Map<Integer, Operation> overloads;
+        Operation single;
+
+        private OperationMember(String name, Map<Integer, Operation> overloads) {
+            this.name = name;
+            this.overloads = overloads;
+            this.single = overloads.size() == 1 ? overloads.values().iterator().next() : null;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        /**
+         * @return parameters count if not overloaded, null otherwise
+         */
+        Integer getArgsCount() {
+            return single != null ? single.getParameterCount() : null;
+        }
+
+        /**
+         * Picks operation with given parameters count, or the closest one with more parameters.
+         */
+        Operation select(int argsCount) {
+            if (single != null) {
+                return single;
+            }
+            Operation operation = overloads.get(argsCount);
+            if (operation == null) {
+                int approximateCount = Integer.MAX_VALUE;
+                for (Integer count : overloads.keySet()) {
+                    if (count > argsCount && count < approximateCount) {
+                        approximateCount = count;
+                    }
+                }
+                operation = overloads.get(approximateCount);
+            }
+            return operation;
+        }
+    }
+
+    private static final class OperationBuilder {
+        private final String name;
+        private final Map<Integer, Operation> overloads = new LinkedHashMap<>();
+
+        private OperationBuilder(String name) {
+            this.name = name;
+        }
+
+        private OperationBuilder add(Operation operation) {
+            overloads.put(operation.getParameterCount(), operation);
+            return this;
+        }
+
+        private OperationMember build() {
+            return new OperationMember(name, Collections.unmodifiableMap(overloads));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.earnix.webk.runtime.xhr.impl;
+
+import com.earnix.webk.util.Configuration;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP client shared by {@link XMLHttpRequestImpl}s of a single {@link com.earnix.webk.runtime.ScriptContext}.
+ * Connections are pooled and kept alive between requests, responses are transparently decompressed (gzip, deflate).
+ * Pool limits are set by <code>xr.xhr.max-connections</code> and <code>xr.xhr.max-connections-per-host</code>
+ * configuration properties.
+ * <p>
+ * Asynchronous requests are sent by {@link #getExecutor()}, which may be replaced by {@link #setExecutor(Executor)}.
+ * <p>
+ * The client is created on first request and released by {@link #release()}, expected on document unload.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class XMLHttpRequestClient {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    CloseableHttpClient httpClient;
+    Executor executor;
+
+    /**
+     * @return pooled client, created if needed
+     */
+    public synchronized CloseableHttpClient getHttpClient() {
+        if (httpClient == null) {
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setMaxTotal(Configuration.valueAsInt("xr.xhr.max-connections", 20));
+            connectionManager.setDefaultMaxPerRoute(Configuration.valueAsInt("xr.xhr.max-connections-per-host", 6));
+            httpClient = HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .evictExpiredConnections()
+                    .evictIdleConnections(30, TimeUnit.SECONDS)
+                    .build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * @return executor of asynchronous requests, by default a pool of <code>xr.xhr.threads</code> daemon threads
+     */
+    public synchronized Executor getExecutor() {
+        if (executor == null) {
+            int threads = Configuration.valueAsInt("xr.xhr.threads", 10);
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                Thread thread = new Thread(r, "xhr-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            pool.allowCoreThreadTimeOut(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    public synchronized void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Closes the client along with its pooled connections, the next request creates a new one
+     */
+    public synchronized void release() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                log.debug("release", e);
+            }
+            httpClient = null;
+        }
+    }
+}
@@ -38,21 +38,19 @@ import org.apache.http.conn.ConnectTimeoutException;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 
 import javax.swing.SwingUtilities;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
 import java.net.SocketTimeoutException;
 import java.net.URL;
-import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.NoSuchElementException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.stream.Stream;
 
 /**
@@ -83,8 +81,6 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
 
     boolean send;
 
-    static ExecutorService executor = Executors.newFixedThreadPool(10);
-
     final Level1EventTarget level1EventTarget;
 
     byte[] response;
@@ -98,7 +94,6 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
     short readyState = UNSENT;
 
     HashMap<String, String> responseHeaders = new HashMap<>();
-    ByteBuffer responseBytes;
     
     public XMLHttpRequestImpl(ScriptContext scriptContext) {
         this.context = scriptContext;
@@ -198,7 +193,7 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
         this.requestBody = body;
         fireEvent("loadstart");
         if (async) {
-            executor.submit(this::sendImpl);
+            context.getXhrClient().getExecutor().execute(this::sendImpl);
         } else {
             sendImpl();
         }
@@ -243,8 +238,8 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
                     ctx.setCredentialsProvider(credentialsProvider);
                 }
 
-                requestHeaders.forEach(ctx::setAttribute);
-                CloseableHttpClient httpClient = HttpClients.createDefault();
+                requestHeaders.forEach(request::setHeader);
+                CloseableHttpClient httpClient = context.getXhrClient().getHttpClient();
 
                 try (CloseableHttpResponse response = httpClient.execute(request, ctx)) {
 
@@ -254,26 +249,27 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
 
                     setReadyState(HEADERS_RECEIVED);
 
-                    responseBytes = ByteBuffer.allocate(0);
+                    val entity = response.getEntity();
+                    total = entity != null ? (int) entity.getContentLength() : 0;
+                    val responseBytes = new ByteArrayOutputStream(Math.max(total, 256));
 
-                    try (val responseStream = response.getEntity().getContent()) {
+                    try (val responseStream = entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0])) {
 
                         setReadyState(LOADING);
 
-                        total = (int) response.getEntity().getContentLength();
                         loaded = 0;
-                        byte[] buffer = new byte[256];
+                        byte[] buffer = new byte[8192];
                         int read;
-                        while ((read = responseStream.read(buffer)) != 0) {
-                            responseBytes.put(buffer, 0, read);
+                        while ((read = responseStream.read(buffer)) != -1) {
+                            responseBytes.write(buffer, 0, read);
                             loaded += read;
                             val event = new ProgressEventImpl("progress", null);
                             event.setTotal(total);
                             event.setLoaded(loaded);
                             SwingUtilities.invokeLater(() -> {
-                                context.storeDocumentHash();
+                                context.storeDocumentState();
                                 context.getEventManager().publishEvent(eventTarget, event);
-                                context.handleDocumentHashUpdate();
+                                context.handleDocumentUpdate();
                             });
                             if (aborted) {
                                 fireEvent("abort");
@@ -282,6 +278,7 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
                         }
                     }
 
+                    this.response = responseBytes.toByteArray();
                     setReadyState(DONE);
                     
                 } catch (ConnectTimeoutException | SocketTimeoutException e) {
@@ -330,7 +327,7 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
                         log.error(e.getMessage(), e);
                     }
                 }
-                return new HttpPost(urlString);
+                return request;
             case TRACE:
                 return new HttpTrace(urlString);
             case DELETE:
@@ -461,9 +458,9 @@ public class XMLHttpRequestImpl implements XMLHttpRequest {
 
     private void fireEvent(EventImpl event) {
         if (SwingUtilities.isEventDispatchThread()) {
-            context.storeDocumentHash();
+            context.storeDocumentState();
             context.getEventManager().publishEvent(eventTarget, event);
-            context.handleDocumentHashUpdate();
+            context.handleDocumentUpdate();
         } else {
             SwingUtilities.invokeLater(() -> fireEvent(event));
         }
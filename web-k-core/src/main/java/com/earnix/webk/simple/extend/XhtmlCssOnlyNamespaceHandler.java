@@ -81,6 +81,10 @@ public class XhtmlCssOnlyNamespaceHandler extends NoNamespaceHandler {
         return e.getId();
     }
 
+    public boolean hasClass(ElementImpl e, String className) {
+        return e.hasClassName(className);
+    }
+
     protected String convertToLength(String value) {
         if (isInteger(value)) {
             return value + "px";
@@ -170,7 +174,10 @@ public class XhtmlCssOnlyNamespaceHandler extends NoNamespaceHandler {
                 style.append(";");
             }
         }
-        style.append(e.attr("style"));
+        if (e.getInlineStyle() == null) {
+            // declarations scripts wrote are taken from the element by the matcher, without parsing the attribute
+            style.append(e.attr("style"));
+        }
         return style.toString();
     }
 
@@ -50,6 +50,8 @@ import java.awt.LayoutManager;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.Shape;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
 import java.awt.print.PrinterGraphics;
 import java.io.BufferedReader;
 import java.io.InputStream;
@@ -78,6 +80,11 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
     private boolean centeredPagedView;
     protected FormSubmissionListener formSubmissionListener;
 
+    private boolean tileCacheEnabled = Configuration.isTrue("xr.paint.tile-cache", false);
+    // read by repaint(), which may be called from any thread
+    private volatile TileCache tileCache;
+    private long forcedLayoutCount;
+
     public BasicPanel() {
         this(new NaiveUserAgent());
     }
@@ -111,14 +118,25 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
             paintDefaultBackground(g);
             return;
         }
-        
+
         // if this is the first time painting this document, then calc layout
         Layer root = getRootLayer();
-        if (root == null || isNeedRelayout()) {
-            doDocumentLayout(g.create());
-            root = getRootLayer();
+        if (isBackgroundLayoutEnabled()) {
+            // the current box tree is painted until the new one is laid out, a pending relayout waits for it
+            if ((root == null || isNeedRelayout()) && !isBackgroundLayoutPending()) {
+                startBackgroundLayout(g.create());
+                setNeedRelayout(false);
+            }
+        } else {
+            if (root == null || isNeedRelayout()) {
+                doDocumentLayout(g.create());
+                root = getRootLayer();
+                if (tileCache != null) {
+                    tileCache.clear();
+                }
+            }
+            setNeedRelayout(false);
         }
-        setNeedRelayout(false);
         if (root == null) {
             //Uu.p("dispatching an initial resize event");
             //queue.dispatchLayoutEvent(new ReflowEvent(ReflowEvent.CANVAS_RESIZED, this.getSize()));
@@ -132,6 +150,48 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
         }
     }
 
+    /**
+     * Lays out the document right away, unless the box tree shown is up to date, so that scripts reading geometry of
+     * elements get the current one. A layout in progress on the layout thread is superseded by this one.
+     * <p>
+     * Such layouts are counted, see {@link #getForcedLayoutCount()}, and logged, as scripts interleaving changes of
+     * the document with geometry reads force a layout on each read.
+     *
+     * @return true if the document was laid out
+     */
+    public boolean forceLayout() {
+        if (doc == null || getRootLayer() != null && !isNeedRelayout() && !isBackgroundLayoutPending()) {
+            return false;
+        }
+        cancelBackgroundLayout();
+
+        Graphics g = getGraphics();
+        if (g == null) {
+            // not displayed yet, fonts are measured the way an offscreen paint would
+            g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        }
+        try {
+            doDocumentLayout(g);
+        } finally {
+            g.dispose();
+        }
+        setNeedRelayout(false);
+        if (tileCache != null) {
+            tileCache.clear();
+        }
+        forcedLayoutCount++;
+        XRLog.layout(Level.FINE, "Forced synchronous layout #" + forcedLayoutCount);
+        repaint();
+        return true;
+    }
+
+    /**
+     * @return number of layouts forced by {@link #forceLayout()}
+     */
+    public long getForcedLayoutCount() {
+        return forcedLayoutCount;
+    }
+
     protected void doRender(RenderingContext c, Layer root) {
         try {
             // paint the normal swing background first
@@ -148,7 +208,11 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
 
             long start = System.currentTimeMillis();
             if (!c.isPrint()) {
-                root.paint(c);
+                if (isTileCacheUsable((Graphics2D) g, root)) {
+                    paintTiles(c, (Graphics2D) g, root);
+                } else {
+                    root.paint(c);
+                }
             } else {
                 paintPagedView(c, root);
             }
@@ -175,6 +239,54 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
         }
     }
 
+    /**
+     * Tiles are painted in document coordinates, so they can't be used for scaled painting. Backgrounds fixed to the
+     * viewport would have to be painted in every tile again after scrolling.
+     */
+    private boolean isTileCacheUsable(Graphics2D g, Layer root) {
+        return tileCacheEnabled
+                && (g.getTransform().getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+                && !root.isFixedBackground();
+    }
+
+    /**
+     * Draws the cached tiles of the document and paints the fixed positioned layers over them.
+     */
+    private void paintTiles(RenderingContext c, Graphics2D g, Layer root) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = getVisibleRect();
+        }
+        if (clip.isEmpty()) {
+            return;
+        }
+        if (tileCache == null) {
+            tileCache = new TileCache(Configuration.valueAsInt("xr.paint.tile-cache.max-tiles", 128));
+        }
+        // the background of an opaque panel is painted under the document anyway
+        tileCache.paint(g, root, clip, explicitlyOpaque ? getBackground() : null, tileGraphics -> {
+            RenderingContext tileContext = newRenderingContext(tileGraphics);
+            tileContext.setFixedLayersSkipped(true);
+            root.paint(tileContext);
+        });
+        root.paintFixedLayers(c);
+    }
+
+    /**
+     * Drops the cached tiles of the repainted region, see <code>xr.paint.tile-cache</code> configuration property.
+     */
+    public void repaint(long tm, int x, int y, int width, int height) {
+        if (tileCache != null) {
+            Rectangle region = new Rectangle(x, y, width, height);
+            if (getEnclosingScrollPane() == null) {
+                Insets insets = getInsets();
+                region.translate(-insets.left, -insets.top);
+            }
+            tileCache.invalidate(region);
+        }
+        super.repaint(tm, x, y, width, height);
+    }
+
     private void paintDefaultBackground(Graphics g) {
         if (!(g instanceof PrinterGraphics) && explicitlyOpaque) {
             g.setColor(getBackground());
@@ -569,6 +681,19 @@ public abstract class BasicPanel extends RootPanel implements FormSubmissionList
         this.centeredPagedView = centeredPagedView;
     }
 
+    /**
+     * Whether painted tiles of the document are cached and drawn again when scrolling, see
+     * <code>xr.paint.tile-cache</code> configuration property.
+     */
+    public boolean isTileCacheEnabled() {
+        return tileCacheEnabled;
+    }
+
+    public void setTileCacheEnabled(boolean tileCacheEnabled) {
+        this.tileCacheEnabled = tileCacheEnabled;
+        tileCache = null;
+    }
+
     public void submit(String url) {
         formSubmissionListener.submit(url);
     }
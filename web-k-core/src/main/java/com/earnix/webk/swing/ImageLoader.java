@@ -0,0 +1,229 @@
+package com.earnix.webk.swing;
+
+import com.earnix.webk.util.ImageUtil;
+import com.earnix.webk.util.StreamResource;
+import com.earnix.webk.util.XRLog;
+import org.apache.commons.io.IOUtils;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+/**
+ * Loads images in background for {@link ImageResourceLoader}.
+ * <ul>
+ * <li>images are fetched and decoded by a work-stealing pool of <code>xr.image.background.workers</code> threads</li>
+ * <li>at most <code>xr.image.background.workers-per-host</code> images are fetched from the same host at once,
+ * others wait without occupying a thread</li>
+ * <li>an image requested at several sizes is fetched once</li>
+ * <li>images requested at a smaller size are subsampled while decoding, so the full-size raster isn't created</li>
+ * </ul>
+ */
+class ImageLoader {
+
+    private static final AtomicInteger threadCount = new AtomicInteger();
+
+    private final ForkJoinPool pool;
+    private final int hostLimit;
+
+    /**
+     * Content of images being fetched, by URI
+     */
+    private final Map<String, CompletableFuture<byte[]>> fetches = new ConcurrentHashMap<>();
+
+    /**
+     * Fetches waiting for the host limit, guarded by itself
+     */
+    private final Map<String, HostQueue> hosts = new HashMap<>();
+
+    ImageLoader(int workers, int hostLimit) {
+        this.hostLimit = Math.max(hostLimit, 1);
+        this.pool = new ForkJoinPool(Math.max(workers, 1), pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("ImageLoadWorker(" + threadCount.getAndIncrement() + ")");
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }, null, true);
+    }
+
+    /**
+     * @param width  target width or -1
+     * @param height target height or -1
+     * @return image decoded at target size if both dimensions are given, completed exceptionally if image can't
+     * be loaded
+     */
+    CompletableFuture<BufferedImage> load(String uri, int width, int height) {
+        return fetch(uri).thenApplyAsync(content -> {
+            try {
+                BufferedImage image = decode(content, width, height);
+                if (image == null) {
+                    throw new IOException("No image reader for " + uri);
+                }
+                XRLog.load(Level.FINE, "Loaded " + uri);
+                return image;
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, pool);
+    }
+
+    /**
+     * Drops fetches which haven't started yet
+     */
+    void cancelPending() {
+        synchronized (hosts) {
+            for (HostQueue queue : hosts.values()) {
+                for (PendingFetch pending : queue.pending) {
+                    pending.fetch.cancel(false);
+                }
+                queue.pending.clear();
+            }
+        }
+    }
+
+    private CompletableFuture<byte[]> fetch(String uri) {
+        CompletableFuture<byte[]> fetch = fetches.get(uri);
+        if (fetch == null) {
+            CompletableFuture<byte[]> created = new CompletableFuture<>();
+            fetch = fetches.putIfAbsent(uri, created);
+            if (fetch == null) {
+                fetch = created;
+                created.whenComplete((content, e) -> fetches.remove(uri, created));
+                enqueue(host(uri), created, () -> {
+                    if (!created.isDone()) {
+                        try {
+                            created.complete(read(uri));
+                        } catch (IOException | RuntimeException e) {
+                            created.completeExceptionally(e);
+                        }
+                    }
+                });
+            }
+        }
+        return fetch;
+    }
+
+    /**
+     * Runs the fetch once there are less than {@link #hostLimit} active fetches of the host
+     */
+    private void enqueue(String host, CompletableFuture<byte[]> fetch, Runnable read) {
+        Runnable task = () -> {
+            try {
+                read.run();
+            } finally {
+                PendingFetch next;
+                synchronized (hosts) {
+                    HostQueue queue = hosts.get(host);
+                    next = queue.pending.poll();
+                    if (next == null) {
+                        queue.active--;
+                        if (queue.active == 0) {
+                            hosts.remove(host);
+                        }
+                    }
+                }
+                if (next != null) {
+                    pool.execute(next.task);
+                }
+            }
+        };
+        synchronized (hosts) {
+            HostQueue queue = hosts.computeIfAbsent(host, h -> new HostQueue());
+            if (queue.active >= hostLimit) {
+                queue.pending.add(new PendingFetch(task, fetch));
+                return;
+            }
+            queue.active++;
+        }
+        pool.execute(task);
+    }
+
+    private static String host(String uri) {
+        try {
+            String host = new URI(uri).getHost();
+            return host != null ? host : "";
+        } catch (Exception e) {
+            return "";
+        }
+    }
+
+    /**
+     * Fetches content of the image, on a pool thread
+     */
+    byte[] read(String uri) throws IOException {
+        StreamResource sr = new StreamResource(uri);
+        try {
+            sr.connect();
+            try (InputStream is = sr.bufferedStream()) {
+                return IOUtils.toByteArray(is);
+            }
+        } finally {
+            sr.close();
+        }
+    }
+
+    /**
+     * Decodes the image, subsampling it by the largest factor that keeps it not smaller than target size. The result
+     * is then scaled to exact target size.
+     *
+     * @return decoded image or null if there is no reader for its format
+     */
+    static BufferedImage decode(byte[] content, int width, int height) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            BufferedImage image;
+            try {
+                reader.setInput(iis, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (width > 0 && height > 0) {
+                    int factor = Math.min(reader.getWidth(0) / width, reader.getHeight(0) / height);
+                    if (factor > 1) {
+                        param.setSourceSubsampling(factor, factor, 0, 0);
+                    }
+                }
+                image = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+            if (width > 0 && height > 0 && (image.getWidth() != width || image.getHeight() != height)) {
+                image = ImageUtil.getScaledInstance(image, width, height);
+            }
+            return image;
+        }
+    }
+
+    private static final class HostQueue {
+        int active;
+        final ArrayDeque<PendingFetch> pending = new ArrayDeque<>();
+    }
+
+    private static final class PendingFetch {
+        final Runnable task;
+        final CompletableFuture<byte[]> fetch;
+
+        PendingFetch(Runnable task, CompletableFuture<byte[]> fetch) {
+            this.task = task;
+            this.fetch = fetch;
+        }
+    }
+}
@@ -8,18 +8,24 @@ import com.earnix.webk.util.StreamResource;
 import com.earnix.webk.util.XRLog;
 
 import javax.imageio.ImageIO;
+import java.awt.EventQueue;
 import java.awt.image.BufferedImage;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 
 /**
- *
+ * Loads and caches images. Cache lookups don't lock, images of remote URIs are loaded in background by
+ * {@link ImageLoader} if <code>xr.image.background.loading.enable</code> is set.
  */
 public class ImageResourceLoader {
     public static final RepaintListener NO_OP_REPAINT_LISTENER = new RepaintListener() {
@@ -27,9 +33,14 @@ public class ImageResourceLoader {
             XRLog.general(Level.FINE, "No-op repaint requested");
         }
     };
-    private final Map _imageCache;
+    private final Map<CacheKey, CacheEntry> _imageCache = new ConcurrentHashMap<>();
 
-    private final ImageLoadQueue _loadQueue;
+    /**
+     * Access order of cache entries, for {@link #shrink()}
+     */
+    private final AtomicLong _accessClock = new AtomicLong();
+
+    private final ImageLoader _loader;
 
     private final int _imageCacheCapacity;
 
@@ -47,20 +58,17 @@ public class ImageResourceLoader {
         this._useBackgroundImageLoading = Configuration.isTrue("xr.image.background.loading.enable", false);
 
         if (_useBackgroundImageLoading) {
-            this._loadQueue = new ImageLoadQueue();
-            final int workerCount = Configuration.valueAsInt("xr.image.background.workers", 5);
-            for (int i = 0; i < workerCount; i++) {
-                new ImageLoadWorker(_loadQueue).start();
-            }
+            this._loader = new ImageLoader(
+                    Configuration.valueAsInt("xr.image.background.workers", 5),
+                    Configuration.valueAsInt("xr.image.background.workers-per-host", 4));
         } else {
-            this._loadQueue = null;
+            this._loader = null;
         }
 
         this._repaintListener = NO_OP_REPAINT_LISTENER;
 
-        // note we do *not* override removeEldestEntry() here--users of this class must call shrinkImageCache().
+        // note the cache is not shrunk automatically--users of this class must call shrink().
         // that's because we don't know when is a good time to flush the cache
-        this._imageCache = new LinkedHashMap(cacheSize, 0.75f, true);
     }
 
     public static ImageResource loadImageResourceFromUri(final String uri) {
@@ -107,16 +115,21 @@ public class ImageResourceLoader {
         }
     }
 
-    public synchronized void shrink() {
+    /**
+     * Drops least recently used images, until cache size is within its capacity.
+     */
+    public void shrink() {
         int ovr = _imageCache.size() - _imageCacheCapacity;
-        Iterator it = _imageCache.keySet().iterator();
-        while (it.hasNext() && ovr-- > 0) {
-            it.next();
-            it.remove();
+        if (ovr > 0) {
+            List<Map.Entry<CacheKey, CacheEntry>> entries = new ArrayList<>(_imageCache.entrySet());
+            entries.sort(Comparator.comparingLong(e -> e.getValue().lastAccess));
+            for (int i = 0; i < ovr && i < entries.size(); i++) {
+                _imageCache.remove(entries.get(i).getKey(), entries.get(i).getValue());
+            }
         }
     }
 
-    public synchronized void clear() {
+    public void clear() {
         _imageCache.clear();
     }
 
@@ -124,19 +137,23 @@ public class ImageResourceLoader {
         return get(uri, -1, -1);
     }
 
-    public synchronized ImageResource get(final String uri, final int width, final int height) {
+    public ImageResource get(final String uri, final int width, final int height) {
         if (ImageUtil.isEmbeddedBase64Image(uri)) {
             ImageResource resource = loadEmbeddedBase64ImageResource(uri);
             resource.getImage().scale(width, height);
             return resource;
         } else {
             CacheKey key = new CacheKey(uri, width, height);
-            ImageResource ir = (ImageResource) _imageCache.get(key);
+            ImageResource ir = cached(key);
             if (ir == null) {
                 // not loaded, or not loaded at target size
 
                 // loaded a base size?
-                ir = (ImageResource) _imageCache.get(new CacheKey(uri, -1, -1));
+                ir = cached(new CacheKey(uri, -1, -1));
+                if (ir != null && ir.getImage() instanceof MutableFSImage && !((MutableFSImage) ir.getImage()).isLoaded()) {
+                    // still loading in background
+                    ir = null;
+                }
 
                 // no: loaded
                 if (ir == null) {
@@ -152,14 +169,10 @@ public class ImageResourceLoader {
                             ir = new ImageResource(ir.getImageUri(), AWTFSImage.createImage(newImg));
                             loaded(ir, width, height);
                         }
+                        _imageCache.put(key, new CacheEntry(ir, _accessClock.incrementAndGet()));
                     } else {
-                        XRLog.load(Level.FINE, "Image cache miss, URI not yet loaded, queueing: " + uri);
-                        MutableFSImage mfsi = new MutableFSImage(_repaintListener);
-                        ir = new ImageResource(uri, mfsi);
-                        _loadQueue.addToQueue(this, uri, mfsi, width, height);
+                        ir = loadInBackground(key);
                     }
-
-                    _imageCache.put(key, ir);
                 } else {
                     // loaded at base size, need to scale
                     XRLog.load(Level.FINE, this + ", scaling " + uri + " to " + width + ", " + height);
@@ -175,14 +188,56 @@ public class ImageResourceLoader {
         }
     }
 
+    private ImageResource cached(CacheKey key) {
+        CacheEntry entry = _imageCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        entry.lastAccess = _accessClock.incrementAndGet();
+        return entry.resource;
+    }
+
+    /**
+     * @return placeholder resource, its image is replaced on EDT once loaded
+     */
+    private ImageResource loadInBackground(final CacheKey key) {
+        final String uri = key.uri;
+        final MutableFSImage mfsi = new MutableFSImage(_repaintListener);
+        final CacheEntry entry = new CacheEntry(new ImageResource(uri, mfsi), _accessClock.incrementAndGet());
+        CacheEntry existing = _imageCache.putIfAbsent(key, entry);
+        if (existing != null) {
+            return existing.resource;
+        }
+
+        XRLog.load(Level.FINE, "Image cache miss, URI not yet loaded, queueing: " + uri);
+        final boolean scaled = key.width > -1 && key.height > -1;
+        _loader.load(uri, key.width, key.height).whenComplete((image, e) -> {
+            if (e instanceof CancellationException || e != null && e.getCause() instanceof CancellationException) {
+                // requested again if needed
+                _imageCache.remove(key, entry);
+                return;
+            }
+            if (e != null) {
+                XRLog.exception("Can't load image at URI '" + uri + "'", e);
+            }
+            ImageResource ir = createImageResource(uri, image);
+            loaded(ir, key.width, key.height);
+
+            // msfImage belongs to the Swing AWT thread
+            final BufferedImage newImg = ((AWTFSImage) ir.getImage()).getImage();
+            EventQueue.invokeLater(() -> mfsi.setImage(uri, newImg, scaled));
+        });
+        return entry.resource;
+    }
+
     public boolean isImmediateLoadUri(final String uri) {
         return !_useBackgroundImageLoading || uri.startsWith("jar:file:") || uri.startsWith("file:");
     }
 
-    public synchronized void loaded(final ImageResource ir, final int width, final int height) {
+    public void loaded(final ImageResource ir, final int width, final int height) {
         String imageUri = ir.getImageUri();
         if (imageUri != null) {
-            _imageCache.put(new CacheKey(imageUri, width, height), ir);
+            _imageCache.put(new CacheKey(imageUri, width, height), new CacheEntry(ir, _accessClock.incrementAndGet()));
         }
     }
 
@@ -199,9 +254,19 @@ public class ImageResourceLoader {
     }
 
     public void stopLoading() {
-        if (_loadQueue != null) {
-            XRLog.load("By request, clearing pending items from load queue: " + _loadQueue.size());
-            _loadQueue.reset();
+        if (_loader != null) {
+            XRLog.load("By request, clearing pending items from load queue");
+            _loader.cancelPending();
+        }
+    }
+
+    private static class CacheEntry {
+        final ImageResource resource;
+        volatile long lastAccess;
+
+        CacheEntry(final ImageResource resource, final long lastAccess) {
+            this.resource = resource;
+            this.lastAccess = lastAccess;
         }
     }
 
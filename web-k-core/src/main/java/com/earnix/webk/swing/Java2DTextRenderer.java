@@ -34,9 +34,13 @@ import java.awt.Graphics2D;
 import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Toolkit;
+import java.awt.font.FontRenderContext;
 import java.awt.font.GlyphVector;
 import java.awt.geom.Point2D;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 
 /**
@@ -51,6 +55,27 @@ public class Java2DTextRenderer implements TextRenderer {
     protected Object antiAliasRenderingHint;
     protected Object fractionalFontMetricsHint;
 
+    /**
+     * Fonts whose widths are cached at once, the least recently used one is dropped when exceeded
+     */
+    private static final int MAX_CACHED_FONTS = 64;
+
+    /**
+     * Widths measured by {@link #getWidth(FontContext, FSFont, String)}, by font. Line breaking measures the same
+     * words many times per layout and again on every relayout. Both the fonts and the widths of each font are
+     * evicted least recently used first, see <code>xr.text.width-cache-size</code> configuration property.
+     */
+    private final Map<Font, WidthCache> widthCaches = Collections.synchronizedMap(
+            new LinkedHashMap<Font, WidthCache>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Font, WidthCache> eldest) {
+                    return size() > MAX_CACHED_FONTS;
+                }
+            });
+    private final int widthCacheCapacity = Configuration.valueAsInt("xr.text.width-cache-size", 4096);
+    private final AtomicLong widthCacheHits = new AtomicLong();
+    private final AtomicLong widthCacheMisses = new AtomicLong();
+
     public Java2DTextRenderer() {
         scale = Configuration.valueAsFloat("xr.text.scale", 1.0f);
         threshold = Configuration.valueAsFloat("xr.text.aa-fontsize-threshhold", 25);
@@ -196,11 +221,31 @@ public class Java2DTextRenderer implements TextRenderer {
     }
 
     public int getWidth(FontContext fc, FSFont font, String string) {
-        Object fracHint = null;
         Graphics2D graphics = ((Java2DFontContext) fc).getGraphics();
-        fracHint = graphics.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS);
-        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalFontMetricsHint);
         Font awtFont = ((AWTFSFont) font).getAWTFont();
+
+        // measured widths depend on the rendering context as well, the hint below is applied to it
+        FontRenderContext frc = graphics.getFontRenderContext();
+        WidthCache cache = widthCaches.get(awtFont);
+        if (cache == null || !cache.frc.equals(frc)) {
+            cache = new WidthCache(frc, widthCacheCapacity);
+            widthCaches.put(awtFont, cache);
+        }
+        Integer cached = cache.widths.get(string);
+        if (cached != null) {
+            widthCacheHits.incrementAndGet();
+            return cached;
+        }
+        widthCacheMisses.incrementAndGet();
+
+        int width = measureWidth(graphics, awtFont, string);
+        cache.widths.put(string, width);
+        return width;
+    }
+
+    private int measureWidth(Graphics2D graphics, Font awtFont, String string) {
+        Object fracHint = graphics.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalFontMetricsHint);
         int width = 0;
         if (fractionalFontMetricsHint == RenderingHints.VALUE_FRACTIONALMETRICS_ON) {
             width = (int) Math.round(
@@ -213,6 +258,50 @@ public class Java2DTextRenderer implements TextRenderer {
         return width;
     }
 
+    public float[] getAdvances(FontContext fc, FSFont font, String string) {
+        Graphics2D graphics = ((Java2DFontContext) fc).getGraphics();
+        Font awtFont = ((AWTFSFont) font).getAWTFont();
+        if (awtFont.hasLayoutAttributes()) {
+            return null;
+        }
+
+        Object fracHint = graphics.getRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fractionalFontMetricsHint);
+        GlyphVector vector = awtFont.createGlyphVector(graphics.getFontRenderContext(), string);
+        graphics.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, fracHint);
+        if (vector.getNumGlyphs() != string.length()) {
+            return null;
+        }
+
+        float[] positions = vector.getGlyphPositions(0, string.length() + 1, null);
+        float[] result = new float[string.length() + 1];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = positions[i * 2];
+        }
+        // complex text (bidi, shaping) is measured with a text layout instead, the glyph positions don't match it
+        float total = result[string.length()];
+        int width = fractionalFontMetricsHint == RenderingHints.VALUE_FRACTIONALMETRICS_ON ?
+                Math.round(total) : (int) Math.ceil(total);
+        if (width != measureWidth(graphics, awtFont, string)) {
+            return null;
+        }
+        return result;
+    }
+
+    /**
+     * @return number of widths found in the cache since creation
+     */
+    public long getWidthCacheHits() {
+        return widthCacheHits.get();
+    }
+
+    /**
+     * @return number of widths measured since creation, as they weren't in the cache
+     */
+    public long getWidthCacheMisses() {
+        return widthCacheMisses.get();
+    }
+
     public float getFontScale() {
         return this.scale;
     }
@@ -342,5 +431,22 @@ public class Java2DTextRenderer implements TextRenderer {
 
         return new AWTFSGlyphVector(vector);
     }
-}
 
+    /**
+     * Widths of strings in a font, valid for the rendering context they were measured with
+     */
+    private static final class WidthCache {
+        final FontRenderContext frc;
+        final Map<String, Integer> widths;
+
+        WidthCache(FontRenderContext frc, final int capacity) {
+            this.frc = frc;
+            this.widths = Collections.synchronizedMap(new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                    return size() > capacity;
+                }
+            });
+        }
+    }
+}
@@ -23,9 +23,11 @@ import com.earnix.webk.event.DocumentListener;
 import com.earnix.webk.extend.UserAgentCallback;
 import com.earnix.webk.resource.CSSResource;
 import com.earnix.webk.resource.ImageResource;
+import com.earnix.webk.resource.ResourcePreloader;
 import com.earnix.webk.resource.XMLResource;
 import com.earnix.webk.runtime.ScriptContext;
 import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.util.Configuration;
 import com.earnix.webk.util.FontUtil;
 import com.earnix.webk.util.ImageUtil;
 import com.earnix.webk.util.XRLog;
@@ -82,6 +84,8 @@ public class NaiveUserAgent implements UserAgentCallback, DocumentListener {
     int _imageCacheCapacity;
     String _baseURL;
     ScriptContext scriptContext;
+    final ResourcePreloader preloader =
+            new ResourcePreloader(Configuration.valueAsInt("xr.load.preload-threads", 6));
 
     /**
      * Creates a new instance of NaiveUserAgent with a max image cache of 16 images.
@@ -134,6 +138,10 @@ public class NaiveUserAgent implements UserAgentCallback, DocumentListener {
     protected InputStream resolveAndOpenStream(final String uri) {
         java.io.InputStream is = null;
         String resolvedUri = resolveURI(uri);
+        InputStream preloaded = preloader.take(resolvedUri);
+        if (preloaded != null) {
+            return preloaded;
+        }
         try {
             if (FontUtil.isEmbeddedBase64Font(uri)) {
                 is = FontUtil.getEmbeddedBase64Data(uri);
@@ -443,7 +451,20 @@ public class NaiveUserAgent implements UserAgentCallback, DocumentListener {
         return _baseURL;
     }
 
+    /**
+     * Starts fetching of the document's resources by {@link ResourcePreloader}, skipping images already in cache.
+     * Fetched content is then consumed by {@link #resolveAndOpenStream(String)}.
+     */
+    @Override
+    public void preload(DocumentImpl document) {
+        preloader.preload(document, uri -> {
+            String resolvedUri = resolveURI(uri);
+            return resolvedUri != null && _imageCache.containsKey(resolvedUri) ? null : resolvedUri;
+        }, this::openStream);
+    }
+
     public void documentStarted() {
+        preloader.clear();
         shrinkImageCache();
     }
 
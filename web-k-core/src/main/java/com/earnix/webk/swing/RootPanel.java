@@ -35,6 +35,9 @@ import com.earnix.webk.layout.BoxBuilder;
 import com.earnix.webk.layout.Layer;
 import com.earnix.webk.layout.LayoutContext;
 import com.earnix.webk.layout.SharedContext;
+import com.earnix.webk.newtable.TableBox;
+import com.earnix.webk.newtable.TableRowBox;
+import com.earnix.webk.newtable.TableSectionBox;
 import com.earnix.webk.render.BlockBox;
 import com.earnix.webk.render.Box;
 import com.earnix.webk.render.PageBox;
@@ -42,6 +45,7 @@ import com.earnix.webk.render.RenderingContext;
 import com.earnix.webk.render.ViewportBox;
 import com.earnix.webk.runtime.ScriptContext;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.NodeImpl;
 import com.earnix.webk.runtime.html.impl.DocumentImpl;
 import com.earnix.webk.util.Configuration;
 import com.earnix.webk.util.XRLog;
@@ -55,6 +59,7 @@ import javax.swing.JViewport;
 import javax.swing.Scrollable;
 import javax.swing.SwingConstants;
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Container;
 import java.awt.Dimension;
 import java.awt.EventQueue;
@@ -63,9 +68,22 @@ import java.awt.Graphics2D;
 import java.awt.Insets;
 import java.awt.Rectangle;
 import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 
 
@@ -74,6 +92,10 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
 
     private Box rootBox = null;
     private boolean needRelayout = false;
+    // the box tree shown is kept until a new one is laid out in background, but can't be laid out again itself
+    private boolean needRebuild = false;
+    // blocks, which children have to be re-created from the document on next layout
+    private final Set<BlockBox> invalidatedBoxes = new HashSet<>();
     private CellRendererPane cellRendererPane;
     private final Set<DocumentListener> documentListeners = new HashSet<DocumentListener>();
     private boolean defaultFontFromComponent;
@@ -101,6 +123,14 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
     private boolean repaintRequestPending = false;
     private long pendingRepaintCount = 0;
 
+    private static final AtomicInteger layoutThreadCount = new AtomicInteger();
+    // background layout run by the current thread
+    private static final ThreadLocal<BackgroundLayout> currentBackgroundLayout = new ThreadLocal<>();
+
+    private boolean backgroundLayoutEnabled = Configuration.isTrue("xr.layout.background", false);
+    private ThreadPoolExecutor layoutExecutor;
+    private BackgroundLayout pendingLayout;
+
     public RootPanel() {
     }
 
@@ -120,8 +150,10 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
         documentListeners.forEach(DocumentListener::documentStarted);
 
         resetScrollPosition();
+        cancelBackgroundLayout();
         setRootBox(null);
         this.doc = doc;
+        doc.clearDirtyNodes();
 
         //have to do this first
         if (Configuration.isTrue("xr.cache.stylesheets", true)) {
@@ -132,6 +164,8 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
 
         getSharedContext().reset();
         getSharedContext().setBaseURL(url);
+        // resources are fetched in background, while stylesheets and scripts are taken in document order
+        getSharedContext().getUac().preload(doc);
         getSharedContext().setNamespaceHandler(nsh);
         getSharedContext().getCss().setDocumentContext(getSharedContext(), getSharedContext().getNamespaceHandler(), doc, this);
 
@@ -141,11 +175,33 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
 
     /**
      * Resets panel rendered state and causes it's re-rendering on next paint cycle.
+     * If possible, only the changed parts of the document are re-styled and their boxes re-created
+     * (see <code>xr.incremental.restyle</code> configuration property).
      */
     public void reset() {
+        // the document changed, so the layout in progress is superseded
+        cancelBackgroundLayout();
         scriptContext.setRendered(false);
         scriptContext.getMouseEventsAdapter().reset();
-        setRootBox(null);
+
+        if (Configuration.isTrue("xr.incremental.restyle", true) && invalidateDirtyBoxes()) {
+            doc.clearDirtyNodes();
+            relayout();
+            return;
+        }
+
+        if (!backgroundLayoutEnabled) {
+            setRootBox(null);
+        } else {
+            setNeedRebuild(true);
+        }
+        synchronized (invalidatedBoxes) {
+            invalidatedBoxes.clear();
+        }
+        if (doc != null) {
+            // the whole document is re-rendered, so particular changes are of no interest
+            doc.clearDirtyNodes();
+        }
 
         //have to do this first
         if (Configuration.isTrue("xr.cache.stylesheets", true)) {
@@ -159,6 +215,109 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
         relayout();
     }
 
+    /**
+     * Drops cached styles of the document's changed subtrees and marks the nearest block boxes containing them
+     * for children re-creation.
+     *
+     * @return false if the changes can't be applied incrementally and the whole document has to be re-rendered
+     */
+    private boolean invalidateDirtyBoxes() {
+        if (doc == null || getRootBox() == null || isNeedRebuild() || !doc.isDirty()) {
+            return false;
+        }
+
+        List<BlockBox> boxes = new ArrayList<>();
+        for (NodeImpl node : doc.getDirtyNodes()) {
+            if (node.ownerDocument() != doc) {
+                // detached since, former parent is registered as changed
+                continue;
+            }
+            ElementImpl element = node instanceof ElementImpl ? (ElementImpl) node : (ElementImpl) node.parent();
+            if (element == null || element == doc || isAffectingStylesheets(element)) {
+                return false;
+            }
+
+            getSharedContext().removeElementReferences(element);
+            // following siblings may be matched by sibling combinators, so they are re-styled as well
+            List<ElementImpl> siblings = element.parent().getChildren();
+            int index = siblings.indexOf(element);
+            boolean hasFollowingSiblings = index + 1 < siblings.size();
+            for (int i = index + 1; i < siblings.size(); i++) {
+                getSharedContext().removeElementReferences(siblings.get(i));
+            }
+            BlockBox box = findInvalidatedBox(hasFollowingSiblings ? element.parent() : element);
+            if (box == null) {
+                return false;
+            }
+            boxes.add(box);
+        }
+
+        synchronized (invalidatedBoxes) {
+            invalidatedBoxes.addAll(boxes);
+        }
+        return true;
+    }
+
+    private static boolean isAffectingStylesheets(ElementImpl element) {
+        for (ElementImpl e = element; e != null; e = e.parent()) {
+            String name = e.nodeName();
+            if (name.equalsIgnoreCase("head") || name.equalsIgnoreCase("style") || name.equalsIgnoreCase("link")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Looks for the nearest block box, which children may be re-created in order to reflect changes of the given
+     * element. The element's own box is used only if it's style isn't changed.
+     */
+    private BlockBox findInvalidatedBox(ElementImpl element) {
+        for (ElementImpl e = element; e != null && e != doc; e = e.parent()) {
+            Box box = e.getView();
+            if (isRebuildable(box, e)
+                    && (e != element || box.getStyle() == getSharedContext().getStyle(e))) {
+                return (BlockBox) box;
+            }
+        }
+        return null;
+    }
+
+    private boolean isRebuildable(Box box, ElementImpl element) {
+        if (!(box instanceof BlockBox) || box.getElement() != element || box.isAnonymous()
+                || box.getPseudoElementOrClass() != null || ((BlockBox) box).isReplaced()) {
+            return false;
+        }
+        // table structure is resolved by the whole table
+        if (box instanceof TableBox || box instanceof TableSectionBox || box instanceof TableRowBox) {
+            return false;
+        }
+        return isInBoxTree(box);
+    }
+
+    /**
+     * @return whether the box belongs to the box tree shown, as a view of an element may be left from a previously
+     * discarded one
+     */
+    public boolean isInBoxTree(Box box) {
+        Box root = box;
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        return root == getRootBox();
+    }
+
+    private void recreateInvalidatedBoxes() {
+        synchronized (invalidatedBoxes) {
+            for (BlockBox box : invalidatedBoxes) {
+                box.removeAllChildren();
+                box.setInlineContent(null);
+                box.setChildrenContentType(BlockBox.CONTENT_UNKNOWN);
+            }
+            invalidatedBoxes.clear();
+        }
+    }
+
     // iterates over all boxes and, if they have a BG url assigned, makes a call to the UAC
     // to request it. when running with async image loading, this means BG images will start
     // loading before the box ever shows on screen
@@ -346,11 +505,16 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
         long start = System.currentTimeMillis();
 
         BlockBox root = (BlockBox) getRootBox();
-        if (root != null && isNeedRelayout()) {
+        if (root != null && isNeedRelayout() && !isNeedRebuild()) {
             root.reset(c);
+            recreateInvalidatedBoxes();
         } else {
+            synchronized (invalidatedBoxes) {
+                invalidatedBoxes.clear();
+            }
             root = BoxBuilder.createRootBox(c, doc);
             setRootBox(root);
+            setNeedRebuild(false);
         }
 
         initFontFromComponent(root);
@@ -368,23 +532,33 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
             System.out.println(root.dump(c, "", BlockBox.DUMP_LAYOUT));
             */
 
-        // if there is a fixed child then we need to set opaque to false
-        // so that the entire viewport will be repainted. this is slower
-        // but that's the hit you get from using fixed layout
-        if (root.getLayer().containsFixedContent()) {
-            super.setOpaque(false);
-        } else {
-            super.setOpaque(true);
-        }
-
         XRLog.layout(Level.FINEST, "after layout: " + root);
 
+        showLayout(root, initialExtents, getIntrinsicSize(c, root));
+    }
+
+    private static Dimension getIntrinsicSize(LayoutContext c, BlockBox root) {
         Dimension intrinsic_size = root.getLayer().getPaintingDimension(c);
 
         if (c.isPrint()) {
             root.getLayer().trimEmptyPages(c, intrinsic_size.height);
             root.getLayer().layoutPages(c);
         }
+        return intrinsic_size;
+    }
+
+    /**
+     * Adjusts the panel to the laid out box tree.
+     */
+    private void showLayout(BlockBox root, Rectangle initialExtents, Dimension intrinsic_size) {
+        // if there is a fixed child then we need to set opaque to false
+        // so that the entire viewport will be repainted. this is slower
+        // but that's the hit you get from using fixed layout
+        if (root.getLayer().containsFixedContent()) {
+            super.setOpaque(false);
+        } else {
+            super.setOpaque(true);
+        }
 
         // If the initial size we fed into the layout matches the width
         // of the layout generated then we can set the scrollable property
@@ -423,6 +597,223 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
             }*/
     }
 
+    /**
+     * Whether the document is laid out in background, see <code>xr.layout.background</code> configuration property.
+     * The box tree shown is then replaced only once the new one is laid out.
+     */
+    public boolean isBackgroundLayoutEnabled() {
+        return backgroundLayoutEnabled;
+    }
+
+    public void setBackgroundLayoutEnabled(boolean backgroundLayoutEnabled) {
+        this.backgroundLayoutEnabled = backgroundLayoutEnabled;
+    }
+
+    /**
+     * Starts laying out a new box tree of the document on the layout thread, cancelling the one in progress. The
+     * current box tree is painted until the new one replaces it.
+     */
+    public void startBackgroundLayout(Graphics g) {
+        cancelBackgroundLayout();
+        if (g == null || doc == null) {
+            return;
+        }
+
+        LayoutContext c = newLayoutContext((Graphics2D) g);
+        BackgroundLayout layout = new BackgroundLayout(c, doc, getInitialExtents(c));
+        synchronized (this) {
+            pendingLayout = layout;
+            if (layoutExecutor == null) {
+                layoutExecutor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+                    Thread thread = new Thread(r, "layout-" + layoutThreadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                layoutExecutor.allowCoreThreadTimeOut(true);
+            }
+            layoutExecutor.execute(layout);
+        }
+    }
+
+    /**
+     * Cancels the layout in progress on the layout thread, if any, and waits for the layout thread to stop, so that
+     * the shared context and the document may be changed afterwards. The layout thread reads the document with no
+     * synchronization, so this has to be called before scripts run, see {@link ScriptContext#storeDocumentState()}.
+     * The document is laid out again on the next paint.
+     */
+    public void cancelBackgroundLayout() {
+        BackgroundLayout layout;
+        synchronized (this) {
+            layout = pendingLayout;
+            if (layout == null) {
+                return;
+            }
+            layout.context.cancel();
+            pendingLayout = null;
+        }
+        layout.awaitStopped();
+        relayout();
+    }
+
+    /**
+     * @return whether the current thread lays out a box tree in background
+     */
+    static boolean isBackgroundLayoutThread() {
+        return currentBackgroundLayout.get() != null;
+    }
+
+    /**
+     * Runs the task on the event dispatch thread and waits for its result. The layout thread stops waiting once its
+     * layout is cancelled, as the event dispatch thread may be waiting for the layout thread to stop.
+     *
+     * @throws CancellationException if the layout run by the current thread was cancelled
+     */
+    static <T> T invokeOnEventDispatchThread(Supplier<T> task) {
+        if (EventQueue.isDispatchThread()) {
+            return task.get();
+        }
+        BackgroundLayout layout = currentBackgroundLayout.get();
+        FutureTask<T> future = new FutureTask<>(() -> layout == null || !layout.context.isCancelled() ? task.get() : null);
+        EventQueue.invokeLater(future);
+        try {
+            while (true) {
+                if (layout != null) {
+                    layout.context.checkCancelled();
+                }
+                try {
+                    return future.get(10, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // checking cancellation again
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            } else if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * @return whether a box tree is being laid out on the layout thread
+     */
+    public synchronized boolean isBackgroundLayoutPending() {
+        return pendingLayout != null;
+    }
+
+    /**
+     * Replaces the box tree shown by the one laid out in background, unless it was superseded meanwhile.
+     */
+    private void finishBackgroundLayout(BackgroundLayout layout) {
+        synchronized (this) {
+            if (pendingLayout != layout) {
+                return;
+            }
+            pendingLayout = null;
+            layoutContext = layout.context;
+            rootBox = layout.root;
+            needRebuild = false;
+        }
+        synchronized (invalidatedBoxes) {
+            invalidatedBoxes.clear();
+        }
+
+        // components of the previous box tree are replaced by the ones of the new one
+        removeAll();
+        synchronized (layout.components) {
+            layout.components.forEach(this::add);
+        }
+
+        showLayout(layout.root, layout.extents, layout.intrinsicSize);
+        repaint();
+    }
+
+    private void failBackgroundLayout(BackgroundLayout layout, Throwable t) {
+        synchronized (this) {
+            if (pendingLayout != layout) {
+                return;
+            }
+            pendingLayout = null;
+        }
+        if (hasDocumentListeners()) {
+            fireOnLayoutException(t);
+        } else {
+            XRLog.exception("Background layout failed", t);
+        }
+    }
+
+    /**
+     * Adds the component of a replaced element laid out. Components laid out in background are added once their
+     * box tree is shown, on the event dispatch thread.
+     */
+    public void addReplacedComponent(Component component) {
+        BackgroundLayout layout = currentBackgroundLayout.get();
+        if (layout != null) {
+            layout.components.add(component);
+        } else {
+            add(component);
+        }
+    }
+
+    /**
+     * A box tree built and laid out on the layout thread.
+     */
+    private class BackgroundLayout implements Runnable {
+        private final LayoutContext context;
+        private final DocumentImpl document;
+        private final Rectangle extents;
+        private final List<Component> components = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch stopped = new CountDownLatch(1);
+        private BlockBox root;
+        private Dimension intrinsicSize;
+
+        BackgroundLayout(LayoutContext context, DocumentImpl document, Rectangle extents) {
+            this.context = context;
+            this.document = document;
+            this.extents = extents;
+        }
+
+        @Override
+        public void run() {
+            currentBackgroundLayout.set(this);
+            try {
+                if (context.isCancelled()) {
+                    return;
+                }
+                long start = System.currentTimeMillis();
+
+                root = BoxBuilder.createRootBox(context, document);
+                initFontFromComponent(root);
+                root.setContainingBlock(new ViewportBox(extents));
+                root.layout(context);
+                intrinsicSize = getIntrinsicSize(context, root);
+
+                XRLog.layout(Level.INFO, "Background layout took " + (System.currentTimeMillis() - start) + "ms");
+                EventQueue.invokeLater(() -> finishBackgroundLayout(this));
+            } catch (CancellationException e) {
+                // superseded by another layout
+            } catch (RuntimeException e) {
+                EventQueue.invokeLater(() -> failBackgroundLayout(this, e));
+            } finally {
+                currentBackgroundLayout.remove();
+                stopped.countDown();
+            }
+        }
+
+        void awaitStopped() {
+            try {
+                stopped.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     private void initFontFromComponent(BlockBox root) {
         if (isDefaultFontFromComponent()) {
             CalculatedStyle style = root.getStyle();
@@ -580,6 +971,7 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
 
     public void doLayout() {
         if (isExtentsHaveChanged()) {
+            cancelBackgroundLayout();
             setNeedRelayout(true);
         }
         super.doLayout();
@@ -589,12 +981,19 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
         super.validate();
 
         if (isExtentsHaveChanged()) {
+            cancelBackgroundLayout();
             setNeedRelayout(true);
         }
     }
 
     protected boolean isExtentsHaveChanged() {
-        if (rootBox == null) {
+        BackgroundLayout layout;
+        synchronized (this) {
+            layout = pendingLayout;
+        }
+        if (layout != null) {
+            return !layout.extents.equals(getScreenExtents());
+        } else if (rootBox == null) {
             return true;
         } else {
             Rectangle oldExtents = ((ViewportBox) rootBox.getContainingBlock()).getExtents();
@@ -614,6 +1013,18 @@ public class RootPanel extends JPanel implements Scrollable, UserInterface, FSCa
         this.needRelayout = needRelayout;
     }
 
+    /**
+     * @return whether the box tree shown is of the document before a change, which isn't applied incrementally, so
+     * it has to be re-created by the next layout
+     */
+    protected synchronized boolean isNeedRebuild() {
+        return needRebuild;
+    }
+
+    protected synchronized void setNeedRebuild(boolean needRebuild) {
+        this.needRebuild = needRebuild;
+    }
+
     public void repaintRequested(final boolean doLayout) {
         final long now = System.currentTimeMillis();
         final long el = now - lastRepaintRunAt;
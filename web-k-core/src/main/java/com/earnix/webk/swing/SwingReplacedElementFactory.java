@@ -41,7 +41,6 @@ import com.earnix.webk.util.XRLog;
 import javax.swing.JComponent;
 import javax.swing.SwingUtilities;
 import java.awt.Color;
-import java.awt.Container;
 import java.awt.Font;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
@@ -92,6 +91,11 @@ public class SwingReplacedElementFactory implements ReplacedElementFactory {
             int cssHeight
     ) {
         ElementImpl el = box.getElement();
+        if (RootPanel.isBackgroundLayoutThread() && isFormElement(context, el)) {
+            // Swing components of form fields are created and configured on the event dispatch thread
+            return RootPanel.invokeOnEventDispatchThread(
+                    () -> createReplacedElement(context, box, uac, cssWidth, cssHeight));
+        }
         ReplacedElement replacedEl = createReplacedElementImpl(context, box, uac, cssWidth, cssHeight);
 
         if (replacedEl instanceof SwingReplacedElement) {
@@ -119,6 +123,17 @@ public class SwingReplacedElementFactory implements ReplacedElementFactory {
         return replacedEl;
     }
 
+    /**
+     * @return whether the element is replaced by a form field component, see
+     * {@link #createReplacedElementImpl(LayoutContext, BlockBox, UserAgentCallback, int, int)}
+     */
+    private static boolean isFormElement(LayoutContext context, ElementImpl e) {
+        return e != null
+                && !context.getNamespaceHandler().isImageElement(e)
+                && !context.getNamespaceHandler().isCanvasElement(e)
+                && !context.getNamespaceHandler().isSvgElement(e);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -170,7 +185,7 @@ public class SwingReplacedElementFactory implements ReplacedElementFactory {
             result.setIntrinsicSize(formField.getIntrinsicSize());
 
             if (context.isInteractive()) {
-                ((Container) context.getCanvas()).add(cc);
+                ((RootPanel) context.getCanvas()).addReplacedComponent(cc);
             }
             return result;
         }
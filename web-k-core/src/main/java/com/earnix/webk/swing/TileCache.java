@@ -0,0 +1,131 @@
+package com.earnix.webk.swing;
+
+import com.earnix.webk.layout.Layer;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Images of the painted document, in tiles of a fixed size, which are drawn instead of painting the document again
+ * when the panel is scrolled or exposed. Tiles are painted for a root layer, and dropped when the region they cover
+ * is repainted or another layer is painted. Once there are more tiles than the maximum, the least recently drawn
+ * ones are dropped.
+ * <p>
+ * Tiles are painted and drawn on the event dispatch thread, while regions may be invalidated from any thread, so
+ * invalidated regions are queued and the tiles are dropped by the next paint.
+ */
+class TileCache {
+    static final int TILE_SIZE = 256;
+
+    private final Map<Point, BufferedImage> tiles;
+    private final Queue<Rectangle> invalidated = new ConcurrentLinkedQueue<>();
+    private Layer layer;
+    private int paintedTiles;
+
+    TileCache(final int maxTiles) {
+        tiles = new LinkedHashMap<Point, BufferedImage>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Point, BufferedImage> eldest) {
+                return size() > maxTiles;
+            }
+        };
+    }
+
+    void clear() {
+        tiles.clear();
+    }
+
+    /**
+     * Drops the tiles intersecting the given region of the document, once the tiles are painted next time. May be
+     * called from any thread.
+     */
+    void invalidate(Rectangle region) {
+        invalidated.add(region);
+    }
+
+    private void dropInvalidatedTiles() {
+        Rectangle region;
+        while ((region = invalidated.poll()) != null) {
+            for (Iterator<Point> i = tiles.keySet().iterator(); i.hasNext(); ) {
+                Point tile = i.next();
+                if (region.intersects(tile.x * TILE_SIZE, tile.y * TILE_SIZE, TILE_SIZE, TILE_SIZE)) {
+                    i.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Draws the tiles covering the clip of the graphics, which is in document coordinates. Missing tiles are painted
+     * first, by the painter given graphics clipped to the tile.
+     *
+     * @param background the color tiles are filled with before painting, which makes them opaque, or null for
+     *                   translucent tiles
+     */
+    void paint(Graphics2D g, Layer root, Rectangle clip, Color background, Consumer<Graphics2D> painter) {
+        dropInvalidatedTiles();
+        if (root != layer) {
+            tiles.clear();
+            layer = root;
+        }
+        int firstColumn = Math.floorDiv(clip.x, TILE_SIZE);
+        int lastColumn = Math.floorDiv(clip.x + clip.width - 1, TILE_SIZE);
+        int firstRow = Math.floorDiv(clip.y, TILE_SIZE);
+        int lastRow = Math.floorDiv(clip.y + clip.height - 1, TILE_SIZE);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Point key = new Point(column, row);
+                BufferedImage tile = tiles.get(key);
+                if (tile == null) {
+                    tile = paintTile(g, column * TILE_SIZE, row * TILE_SIZE, background, painter);
+                    tiles.put(key, tile);
+                }
+                g.drawImage(tile, column * TILE_SIZE, row * TILE_SIZE, null);
+            }
+        }
+    }
+
+    private BufferedImage paintTile(Graphics2D g, int x, int y, Color background, Consumer<Graphics2D> painter) {
+        // images compatible with the device are drawn the fastest, opaque ones are just copied
+        GraphicsConfiguration configuration = g.getDeviceConfiguration();
+        BufferedImage tile = background != null ?
+                configuration.createCompatibleImage(TILE_SIZE, TILE_SIZE) :
+                configuration.createCompatibleImage(TILE_SIZE, TILE_SIZE, Transparency.TRANSLUCENT);
+        Graphics2D tileGraphics = tile.createGraphics();
+        try {
+            if (background != null) {
+                tileGraphics.setColor(background);
+                tileGraphics.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+            }
+            tileGraphics.setRenderingHints(g.getRenderingHints());
+            tileGraphics.translate(-x, -y);
+            tileGraphics.setClip(x, y, TILE_SIZE, TILE_SIZE);
+            painter.accept(tileGraphics);
+        } finally {
+            tileGraphics.dispose();
+        }
+        paintedTiles++;
+        return tile;
+    }
+
+    /**
+     * Returns the number of tiles painted so far.
+     */
+    int getPaintedTiles() {
+        return paintedTiles;
+    }
+
+    int size() {
+        return tiles.size();
+    }
+}
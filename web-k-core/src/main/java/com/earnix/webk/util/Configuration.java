@@ -871,6 +871,7 @@ public class Configuration {
         props.setProperty("xr.load.string-interning", "false");
         props.setProperty("xr.load.namespaces", "false");
         props.setProperty("xr.load.namespace-prefixes", "false");
+        props.setProperty("xr.load.preload-threads", "6");
         props.setProperty("xr.layout.whitespace.experimental", "true");
         props.setProperty("xr.layout.bad-sizing-hack", "false");
         props.setProperty("xr.renderer.viewport-repaint", "true");
@@ -885,6 +886,7 @@ public class Configuration {
         props.setProperty("xr.text.aa-rendering-hint", "RenderingHints.VALUE_TEXT_ANTIALIAS_HGRB");
         props.setProperty("xr.cache.stylesheets", "false");
         props.setProperty("xr.incremental.enabled", "false");
+        props.setProperty("xr.incremental.restyle", "true");
         props.setProperty("xr.incremental.lazyimage", "false");
         props.setProperty("xr.incremental.debug.layoutdelay", "0");
         props.setProperty("xr.incremental.repaint.print-timing", "false");
@@ -893,6 +895,10 @@ public class Configuration {
         props.setProperty("xr.image.buffered", "false");
         props.setProperty("xr.image.scale", "LOW");
         props.setProperty("xr.image.render-quality", "java.awt.RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR");
+        props.setProperty("xr.script.cache-size", "64");
+        props.setProperty("xr.xhr.max-connections", "20");
+        props.setProperty("xr.xhr.max-connections-per-host", "6");
+        props.setProperty("xr.xhr.threads", "10");
         return props;
     }
 }
@@ -0,0 +1,58 @@
+/*
+ * Exposes members of the window WebIDL implementation as properties of the global object.
+ *
+ * Evaluates to a function, taking window adapter and names of its members. Global properties are defined
+ * as accessors of the window members, so no copying is needed when either side changes.
+ * The function returns synchronizer, to be called after each script: global declarations (e.g.
+ * "function onload() {}") replace accessors with plain values, those are passed to the window and
+ * accessors are restored. Values of other globals defined by scripts are passed to the window as well.
+ */
+(function (global) {
+    return function (win, keys) {
+
+        function bind(key) {
+            Object.defineProperty(global, key, {
+                get: function () {
+                    return win[key];
+                },
+                set: function (value) {
+                    win[key] = value;
+                },
+                enumerable: true,
+                configurable: true
+            });
+        }
+
+        function isBindable(key) {
+            var descriptor = Object.getOwnPropertyDescriptor(global, key);
+            return !descriptor || descriptor.configurable;
+        }
+
+        var members = {};
+        for (var i = 0; i < keys.length; i++) {
+            members[keys[i]] = true;
+            if (isBindable(keys[i])) {
+                bind(keys[i]);
+            }
+        }
+
+        var skipped = {"window": true, "self": true, "__win": true};
+
+        return function () {
+            var names = Object.keys(global);
+            for (var i = 0; i < names.length; i++) {
+                var key = names[i];
+                if (skipped[key]) {
+                    continue;
+                }
+                var descriptor = Object.getOwnPropertyDescriptor(global, key);
+                if (descriptor.hasOwnProperty("value")) {
+                    win[key] = descriptor.value;
+                    if (members[key] && descriptor.configurable) {
+                        bind(key);
+                    }
+                }
+            }
+        };
+    };
+})(this);
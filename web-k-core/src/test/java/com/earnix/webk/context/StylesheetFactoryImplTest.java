@@ -0,0 +1,25 @@
+package com.earnix.webk.context;
+
+import com.earnix.webk.css.sheet.Ruleset;
+import com.earnix.webk.css.sheet.StylesheetInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class StylesheetFactoryImplTest {
+
+    @Test
+    public void testStyleDeclarationsAreShared() {
+        StylesheetFactoryImpl factory = new StylesheetFactoryImpl(null);
+        Ruleset first = factory.parseStyleDeclaration(StylesheetInfo.AUTHOR, "color: red; width: 10px");
+        assertEquals(2, first.getPropertyDeclarations().size());
+
+        assertSame(first, factory.parseStyleDeclaration(StylesheetInfo.AUTHOR, "color: red; width: 10px"));
+        assertNotSame(first, factory.parseStyleDeclaration(StylesheetInfo.AUTHOR, "color: red"));
+
+        Ruleset user = factory.parseStyleDeclaration(StylesheetInfo.USER, "color: red; width: 10px");
+        assertEquals(StylesheetInfo.USER, user.getOrigin());
+    }
+}
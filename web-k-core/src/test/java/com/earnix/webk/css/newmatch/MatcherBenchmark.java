@@ -0,0 +1,103 @@
+package com.earnix.webk.css.newmatch;
+
+import com.earnix.webk.css.extend.lib.DOMStaticXhtmlAttributeResolver;
+import com.earnix.webk.css.extend.lib.DOMTreeResolver;
+import com.earnix.webk.css.parser.CSSParser;
+import com.earnix.webk.css.sheet.Stylesheet;
+import com.earnix.webk.css.sheet.StylesheetInfo;
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching of all elements of a real-world page against a large stylesheet: the page's own embedded
+ * styles (~580 rules), repeated to reach the size of an enterprise stylesheet.
+ * <p>
+ * Harness is generated with <code>mvn -Pbenchmark clean test-compile</code>, then run {@link #main(String[])}
+ * from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MatcherBenchmark {
+
+    @Param({"5"})
+    int stylesheetCopies;
+
+    List<ElementImpl> elements;
+    List<Stylesheet> stylesheets;
+    Matcher matcher;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        String html = IOUtils.toString(MatcherBenchmark.class.getResourceAsStream("/htmltests/yahoo-jp.html"),
+                StandardCharsets.UTF_8);
+        DocumentImpl document = Jsoup.parse(html);
+
+        StringBuilder css = new StringBuilder();
+        for (ElementImpl style : document.select("style")) {
+            css.append(style.data()).append('\n');
+        }
+        CSSParser parser = new CSSParser((uri, message) -> {
+        });
+        stylesheets = new ArrayList<>();
+        for (int i = 0; i < stylesheetCopies; i++) {
+            stylesheets.add(parser.parseStylesheet("copy" + i, StylesheetInfo.AUTHOR, new StringReader(css.toString())));
+        }
+
+        elements = new ArrayList<>();
+        document.walkElementsTree(elements::add);
+    }
+
+    /**
+     * Fresh matcher, so that no element mappings are re-used
+     */
+    @Setup(Level.Invocation)
+    public void createMatcher() {
+        matcher = new Matcher(new DOMTreeResolver(), new DOMStaticXhtmlAttributeResolver(), null, stylesheets, "screen");
+    }
+
+    @Benchmark
+    public int matchAllElements() {
+        int styled = 0;
+        for (ElementImpl element : elements) {
+            if (matcher.getCascadedStyle(element, false) != CascadedStyle.emptyCascadedStyle) {
+                styled++;
+            }
+        }
+        return styled;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MatcherBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
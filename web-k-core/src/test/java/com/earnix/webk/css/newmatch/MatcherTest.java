@@ -0,0 +1,173 @@
+package com.earnix.webk.css.newmatch;
+
+import com.earnix.webk.css.constants.CSSName;
+import com.earnix.webk.css.extend.lib.DOMStaticXhtmlAttributeResolver;
+import com.earnix.webk.css.extend.lib.DOMTreeResolver;
+import com.earnix.webk.css.parser.CSSParser;
+import com.earnix.webk.css.sheet.Stylesheet;
+import com.earnix.webk.css.sheet.StylesheetInfo;
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.dom.impl.select.Elements;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MatcherTest {
+
+    private static final String INDEXED_HTML = "<div id='main' class='box  wide'>"
+            + "<h1 class='title'>1</h1><p>2</p><p class='wide' title='x'>3</p>"
+            + "<ul><li id='first' class='box'>4</li><li class='box'>5</li><li lang='en-US'>6</li></ul>"
+            + "<DIV class='inner'><span>7</span><p><span class='box'>8</span></p></DIV>"
+            + "</div><p id='last' class='title'>9</p>";
+
+    private static final String[] INDEXED_SELECTORS = {
+            "#main", "p#last", "#first.box", ".box", ".wide", "li.box", ".box.wide", "p", "DIV", "span",
+            "*", "[title]", "p[title=x]", "[lang|=en]", "[class~=wide]", "*.title",
+            "div p", "#main span", ".box span", "div > p", "ul > li", "#main > div > p > span", "div .box",
+            "h1 + p", "li + li", ".title + p", "div p + p", "li:first-child", "li:first-child + li",
+    };
+
+    private static Matcher createMatcher(String css) throws IOException {
+        return createMatcher(css, true);
+    }
+
+    private static Matcher createMatcher(String css, boolean indexed) throws IOException {
+        Stylesheet sheet = new CSSParser((uri, message) -> {
+        }).parseStylesheet("test", StylesheetInfo.AUTHOR, new StringReader(css));
+        return new Matcher(new DOMTreeResolver(), new DOMStaticXhtmlAttributeResolver(), null,
+                Collections.singletonList(sheet), "screen", indexed);
+    }
+
+    @Test
+    public void testIndexedMatchingOfEachSelector() throws IOException {
+        DocumentImpl doc = Jsoup.parse(INDEXED_HTML);
+        for (String selector : INDEXED_SELECTORS) {
+            String css = selector + " { color: red }";
+            Matcher indexed = createMatcher(css, true);
+            Matcher unindexed = createMatcher(css, false);
+            int matched = 0;
+            for (ElementImpl e : doc.getAllElements()) {
+                boolean expected = unindexed.getCascadedStyle(e, false).hasProperty(CSSName.COLOR);
+                assertEquals(selector + " of " + e.cssSelector(), expected,
+                        indexed.getCascadedStyle(e, false).hasProperty(CSSName.COLOR));
+                if (expected) {
+                    matched++;
+                }
+            }
+            assertTrue(selector + " matches nothing", matched > 0);
+        }
+    }
+
+    @Test
+    public void testIndexedMatchingKeepsCascadeOrder() throws IOException {
+        StringBuilder css = new StringBuilder();
+        for (int i = 0; i < INDEXED_SELECTORS.length; i++) {
+            css.append(INDEXED_SELECTORS[i]).append(" { z-index: ").append(i).append(" }\n");
+            css.append(INDEXED_SELECTORS[INDEXED_SELECTORS.length - i - 1])
+                    .append(" { order: ").append(i).append(" }\n");
+        }
+        DocumentImpl doc = Jsoup.parse(INDEXED_HTML);
+        Matcher indexed = createMatcher(css.toString(), true);
+        Matcher unindexed = createMatcher(css.toString(), false);
+        for (ElementImpl e : doc.getAllElements()) {
+            assertEquals(e.cssSelector(), unindexed.getCascadedStyle(e, false).getFingerprint(),
+                    indexed.getCascadedStyle(e, false).getFingerprint());
+        }
+    }
+
+    @Test
+    public void testShareMapping() throws IOException {
+        DocumentImpl doc = Jsoup.parse("<table><tr><td class=a>1</td><td class=a>2</td></tr></table>");
+        Elements cells = doc.select("td");
+        Matcher matcher = createMatcher("td.a { color: red } td span { color: blue }");
+
+        assertFalse(matcher.shareMapping(cells.get(1), cells.get(0))); // not matched yet
+        CascadedStyle first = matcher.getCascadedStyle(cells.get(0), false);
+        assertTrue(matcher.shareMapping(cells.get(1), cells.get(0)));
+        assertEquals(first.getFingerprint(), matcher.getCascadedStyle(cells.get(1), false).getFingerprint());
+    }
+
+    @Test
+    public void testNoSharingOfPositionalMatching() throws IOException {
+        DocumentImpl doc = Jsoup.parse("<ul><li>1</li><li>2</li></ul>");
+        Elements items = doc.select("li");
+
+        Matcher positional = createMatcher("li:first-child { color: red }");
+        positional.getCascadedStyle(items.get(0), false);
+        assertFalse(positional.shareMapping(items.get(1), items.get(0)));
+
+        Matcher hover = createMatcher("li:hover { color: red }");
+        hover.getCascadedStyle(items.get(0), false);
+        assertFalse(hover.shareMapping(items.get(1), items.get(0)));
+    }
+
+    @Test
+    public void testNoSharingOfSiblingMatching() throws IOException {
+        DocumentImpl doc = Jsoup.parse("<div><h1>1</h1><p>2</p><p>3</p></div>");
+        Elements paragraphs = doc.select("p");
+        Matcher matcher = createMatcher("h1 + p { color: red }");
+
+        CascadedStyle first = matcher.getCascadedStyle(paragraphs.get(0), false);
+        assertFalse(matcher.shareMapping(paragraphs.get(1), paragraphs.get(0)));
+        CascadedStyle second = matcher.getCascadedStyle(paragraphs.get(1), false);
+        assertTrue(first.hasProperty(CSSName.COLOR));
+        assertFalse(second.hasProperty(CSSName.COLOR));
+    }
+
+    @Test
+    public void testNoSharingOfPositionalSiblingMatching() throws IOException {
+        DocumentImpl doc = Jsoup.parse("<ul><li>1</li><li>2</li><li>3</li></ul>");
+        Elements items = doc.select("li");
+        Matcher matcher = createMatcher("li:first-child + li { color: red }");
+
+        matcher.getCascadedStyle(items.get(0), false);
+        CascadedStyle second = matcher.getCascadedStyle(items.get(1), false);
+        assertFalse(matcher.shareMapping(items.get(2), items.get(1)));
+        CascadedStyle third = matcher.getCascadedStyle(items.get(2), false);
+        assertTrue(second.hasProperty(CSSName.COLOR));
+        assertFalse(third.hasProperty(CSSName.COLOR));
+    }
+
+    @Test
+    public void testAttributeWordMatching() throws IOException {
+        ElementImpl p = Jsoup.parse("<p title=' a  b\tc '>1</p>").selectFirst("p");
+
+        assertTrue(matches(p, "[title~=a]"));
+        assertTrue(matches(p, "[title~=b]"));
+        assertTrue(matches(p, "[title~=c]"));
+        assertFalse(matches(p, "[title~=' ']"));
+        assertFalse(matches(p, "[title~='']"));
+        assertFalse(matches(p, "[title~='a b']"));
+        assertFalse(matches(p, "[title~='b\\9 c']"));
+
+        ElementImpl empty = Jsoup.parse("<p title=''>1</p>").selectFirst("p");
+        assertFalse(matches(empty, "[title~='']"));
+    }
+
+    @Test
+    public void testClassAndAttributeWordMatchingAgree() throws IOException {
+        // U+001F and U+00A0 are not HTML whitespace, the class is a single token
+        ElementImpl p = Jsoup.parse("<p class='a\u001Fb c\u00A0d'>1</p>").selectFirst("p");
+
+        assertFalse(matches(p, ".a"));
+        assertFalse(matches(p, "[class~=a]"));
+        assertFalse(matches(p, ".c"));
+        assertFalse(matches(p, "[class~=c]"));
+        assertTrue(matches(p, ".c\\a0 d"));
+        assertTrue(matches(p, "[class~='c\\a0 d']"));
+        assertTrue(p.hasClass("c\u00A0d"));
+        assertFalse(p.hasClass("a"));
+    }
+
+    private static boolean matches(ElementImpl element, String selector) throws IOException {
+        return createMatcher(selector + " { color: red }").getCascadedStyle(element, false).hasProperty(CSSName.COLOR);
+    }
+}
@@ -0,0 +1,66 @@
+package com.earnix.webk.layout;
+
+import com.earnix.webk.render.Box;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ChildBoundsIndexTest {
+
+    private XHTMLPanel panel;
+    private Box body;
+
+    @Before
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<html><body style='margin:0'>");
+        for (int i = 0; i < 40; i++) {
+            // one paragraph overlaps the ones above it, so the children aren't sorted by their position
+            String style = i == 30 ? "margin:-400px 0 0 0; height:20px" : "margin:0; height:20px";
+            html.append("<p style='").append(style).append("'>Paragraph ").append(i).append("</p>");
+        }
+        html.append("</body></html>");
+
+        panel = new XHTMLPanel();
+        panel.setSize(400, 300);
+        panel.setDocument(Jsoup.parse(html.toString()));
+        panel.paintComponent(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB).createGraphics());
+        body = panel.getRootBox().getChild(0);
+    }
+
+    @Test
+    public void testCandidatesContainAllIntersectingChildren() {
+        ChildBoundsIndex index = ChildBoundsIndex.of(body);
+        assertNotNull(index);
+        assertEquals(40, index.getChildCount());
+
+        for (int y = -10; y < 800; y += 5) {
+            int first = index.getFirst(y);
+            int end = index.getEnd(y + 10);
+            for (int i = 0; i < body.getChildCount(); i++) {
+                Rectangle bounds = body.getChild(i).getPaintingInfo().getAggregateBounds();
+                if (bounds.y < y + 10 && bounds.y + bounds.height > y) {
+                    assertTrue("child " + i + " at " + y, first <= i && i < end);
+                }
+            }
+        }
+        // above the overlapping paragraph only the children in the range are candidates
+        assertEquals(2, index.getFirst(50));
+        assertEquals(3, index.getEnd(60));
+    }
+
+    @Test
+    public void testFindInDocumentOrder() {
+        // paragraphs 15 and 35 overlap, the first one is found
+        assertEquals(body.getChild(15), panel.find(390, 310));
+        assertEquals(body.getChild(29), panel.find(390, 590));
+        assertEquals(body.getChild(0), panel.find(390, 5));
+    }
+}
@@ -0,0 +1,165 @@
+package com.earnix.webk.layout.breaker;
+
+import com.earnix.webk.render.BlockBox;
+import com.earnix.webk.render.Box;
+import com.earnix.webk.render.InlineLayoutBox;
+import com.earnix.webk.render.InlineText;
+import com.earnix.webk.render.LineBox;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Texts shorter than 256 characters are broken by summing widths of their words, longer ones by the advances
+ * measured for the whole text, both have to break at the same positions.
+ */
+public class BreakerTest {
+
+    private static final int WIDTH = 200;
+
+    private static final String WORDS = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod "
+            + "tempor incididunt ut labore et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ";
+
+    @Test
+    public void testLongTextBreaksAsShortText() {
+        assertTrue(WORDS.length() < 256);
+        List<String> shortLines = lines(WORDS, "normal");
+        List<String> longLines = lines(WORDS + WORDS + WORDS, "normal");
+
+        assertTrue(shortLines.size() > 3);
+        // the last line of the short text isn't full
+        for (int i = 0; i < shortLines.size() - 1; i++) {
+            assertEquals(shortLines.get(i), longLines.get(i));
+        }
+        assertFits(WORDS + WORDS + WORDS, "normal");
+    }
+
+    @Test
+    public void testNowrap() {
+        String text = WORDS + WORDS + WORDS;
+        assertEquals(1, lines(text, "nowrap").size());
+        assertEquals(1, lines(WORDS, "nowrap").size());
+    }
+
+    @Test
+    public void testLongUnbreakableWord() {
+        String word = repeat("a", 300);
+        List<String> lines = lines("short " + word + " tail words", "normal");
+
+        assertEquals("short ", lines.get(0));
+        // ends at the next break point, not at the end of the text
+        assertEquals(word + " ", lines.get(1));
+        assertEquals("tail words", String.join("", lines.subList(2, lines.size())));
+    }
+
+    @Test
+    public void testLongWordBrokenAnywhere() {
+        String word = repeat("a", 300);
+        List<String> lines = lines(word, "normal; word-wrap: break-word");
+
+        assertTrue(lines.size() > 1);
+        assertEquals(word, String.join("", lines));
+        assertFits(word, "normal; word-wrap: break-word");
+    }
+
+    @Test
+    public void testPreWrapTrailingSpaces() {
+        List<String> lines = lines("first line   \nsecond", "pre-wrap");
+        assertEquals(2, lines.size());
+        // trailing spaces are kept, the newline isn't rendered
+        assertEquals("first line   ", lines.get(0));
+        assertEquals("second", lines.get(1));
+
+        // the measured advances of a long text don't skip its newlines
+        String line = "log line 0123456789  ";
+        StringBuilder log = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            log.append(i > 0 ? "\n" : "").append(line);
+        }
+        lines = lines(log.toString(), "pre-wrap");
+        assertEquals(20, lines.size());
+        for (String l : lines) {
+            assertEquals(line, l);
+        }
+    }
+
+    private static void assertFits(String text, String whitespace) {
+        List<Integer> widths = new ArrayList<>();
+        lines(text, whitespace, widths);
+        for (int width : widths) {
+            assertTrue(width + " > " + WIDTH, width <= WIDTH);
+        }
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            result.append(s);
+        }
+        return result.toString();
+    }
+
+    /**
+     * @return texts of the lines of the text laid out in a block of {@link #WIDTH}
+     */
+    private static List<String> lines(String text, String whitespace) {
+        return lines(text, whitespace, new ArrayList<>());
+    }
+
+    private static List<String> lines(String text, String whitespace, List<Integer> widths) {
+        DocumentImpl doc = Jsoup.parse("<html><body style='margin: 0'><div style='width: " + WIDTH + "px; "
+                + "font: 12px serif; white-space: " + whitespace + "'></div></body></html>");
+        doc.selectFirst("div").appendText(text);
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setSize(800, 600);
+        panel.setDocument(doc);
+        panel.paintComponent(new BufferedImage(800, 600, BufferedImage.TYPE_INT_RGB).createGraphics());
+
+        BlockBox div = find(panel.getRootBox(), doc.selectFirst("div"));
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < div.getChildCount(); i++) {
+            StringBuilder line = new StringBuilder();
+            int[] width = new int[1];
+            appendText(line, width, div.getChild(i));
+            lines.add(line.toString());
+            widths.add(width[0]);
+        }
+        return lines;
+    }
+
+    private static BlockBox find(Box box, Object element) {
+        if (box instanceof BlockBox && box.getElement() == element) {
+            return (BlockBox) box;
+        }
+        for (int i = 0; i < box.getChildCount(); i++) {
+            BlockBox result = find(box.getChild(i), element);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    private static void appendText(StringBuilder line, int[] width, Object box) {
+        if (box instanceof InlineText) {
+            line.append(((InlineText) box).getSubstring());
+            width[0] += ((InlineText) box).getWidth();
+        } else if (box instanceof InlineLayoutBox) {
+            for (Object child : ((InlineLayoutBox) box).getInlineChildren()) {
+                appendText(line, width, child);
+            }
+        } else if (box instanceof LineBox) {
+            for (int i = 0; i < ((LineBox) box).getChildCount(); i++) {
+                appendText(line, width, ((LineBox) box).getChild(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.earnix.webk.layout.breaker;
+
+import org.junit.Test;
+
+import java.text.BreakIterator;
+
+import static org.junit.Assert.assertEquals;
+
+public class TextBreakPointsTest {
+
+    private static final String TEXT = "Hello World! World foo";
+
+    @Test
+    public void testPositionsRelativeToLine() {
+        TextBreakPoints breakPoints = new TextBreakPoints(
+                new DefaultLineBreakingStrategy().getBreakPointsProvider(TEXT, "en", null), 0);
+        assertEquals(6, breakPoints.next().getPosition()); // "Hello "
+        assertEquals(13, breakPoints.next().getPosition()); // "World! "
+
+        // the line overflowed at "World! ", it is looked at again from the next line
+        breakPoints.setStart(6);
+        assertEquals(7, breakPoints.next().getPosition());
+        assertEquals(13, breakPoints.next().getPosition()); // "World "
+
+        breakPoints.setStart(22);
+        assertEquals(BreakIterator.DONE, breakPoints.next().getPosition());
+    }
+
+    @Test
+    public void testOffset() {
+        TextBreakPoints breakPoints = new TextBreakPoints(
+                new DefaultLineBreakingStrategy().getBreakPointsProvider(TEXT.substring(13), "en", null), 13);
+        breakPoints.setStart(15);
+        assertEquals(4, breakPoints.next().getPosition());
+        assertEquals(7, breakPoints.next().getPosition());
+        assertEquals(BreakIterator.DONE, breakPoints.next().getPosition());
+    }
+}
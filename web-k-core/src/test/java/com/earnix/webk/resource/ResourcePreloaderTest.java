@@ -0,0 +1,104 @@
+package com.earnix.webk.resource;
+
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.swing.NaiveUserAgent;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ResourcePreloaderTest {
+
+    private static final String HTML = "<html><head>"
+            + "<script src='script.js'></script>"
+            + "<link rel='stylesheet' href='style.css'>"
+            + "<link rel='icon' href='icon.png'>"
+            + "</head><body><img src='image.png'><img src='image.png'></body></html>";
+
+    @Test
+    public void testPreloadedContentIsTakenOnce() throws IOException {
+        TestUserAgent userAgent = new TestUserAgent();
+        userAgent.preload(document());
+
+        assertEquals("http://test/script.js", read(userAgent.open("script.js")));
+        assertEquals("http://test/style.css", read(userAgent.open("style.css")));
+        assertEquals("http://test/image.png", read(userAgent.open("image.png")));
+        assertEquals(1, userAgent.opens("http://test/script.js"));
+        assertEquals(1, userAgent.opens("http://test/style.css"));
+        assertEquals(1, userAgent.opens("http://test/image.png"));
+        // not a stylesheet
+        assertEquals(0, userAgent.opens("http://test/icon.png"));
+
+        // taken, so fetched again
+        assertEquals("http://test/script.js", read(userAgent.open("script.js")));
+        assertEquals(2, userAgent.opens("http://test/script.js"));
+    }
+
+    @Test
+    public void testFailedPreloadFallsBackToFetch() throws IOException {
+        TestUserAgent userAgent = new TestUserAgent();
+        userAgent.failing = "http://test/script.js";
+        userAgent.preload(document());
+
+        assertEquals("http://test/script.js", read(userAgent.open("script.js")));
+        assertEquals(2, userAgent.opens("http://test/script.js"));
+    }
+
+    @Test
+    public void testClearDropsPreloadedContent() {
+        ResourcePreloader preloader = new ResourcePreloader(2);
+        preloader.preload(document(), uri -> "http://test/" + uri, uri -> new ByteArrayInputStream(new byte[1]));
+        preloader.clear();
+
+        assertNull(preloader.take("http://test/script.js"));
+    }
+
+    private static DocumentImpl document() {
+        return Jsoup.parse(HTML);
+    }
+
+    private static String read(InputStream is) throws IOException {
+        try (InputStream in = is) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Serves the URI as content of the resource, counting the streams opened
+     */
+    private static class TestUserAgent extends NaiveUserAgent {
+        final Map<String, AtomicInteger> opens = new ConcurrentHashMap<>();
+        volatile String failing;
+
+        TestUserAgent() {
+            setBaseURL("http://test/");
+        }
+
+        InputStream open(String uri) {
+            return resolveAndOpenStream(uri);
+        }
+
+        int opens(String uri) {
+            AtomicInteger count = opens.get(uri);
+            return count != null ? count.get() : 0;
+        }
+
+        @Override
+        protected InputStream openStream(String uri) throws IOException {
+            if (opens.computeIfAbsent(uri, u -> new AtomicInteger()).incrementAndGet() == 1 && uri.equals(failing)) {
+                throw new IOException("Failed " + uri);
+            }
+            return new ByteArrayInputStream(uri.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
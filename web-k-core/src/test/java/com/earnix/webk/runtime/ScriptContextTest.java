@@ -0,0 +1,67 @@
+package com.earnix.webk.runtime;
+
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.simple.XHTMLPanel;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScriptContextTest {
+
+    XHTMLPanel panel;
+    ScriptContext sc;
+
+    @Before
+    public void setUp() {
+        panel = new XHTMLPanel();
+        panel.setDocument(Jsoup.parse("<html><body><p id='first'></p></body></html>"));
+        sc = panel.getScriptContext();
+    }
+
+    @Test
+    public void testFunctionDeclarationReachesWindow() {
+        sc.eval("var loaded = false; function onload() { loaded = true; }");
+
+        val onload = sc.getWindow().onload().get();
+        Assert.assertNotNull(onload);
+        onload.call(null);
+        Assert.assertEquals(true, sc.eval("loaded"));
+    }
+
+    @Test
+    public void testFalsyReassignment() {
+        sc.eval("function onload() {}");
+        sc.eval("var onload = null;");
+        Assert.assertNull(sc.getWindow().onload().get());
+
+        sc.eval("var flag = 1;");
+        Assert.assertEquals(1, sc.eval("__win.flag"));
+        sc.eval("flag = 0;");
+        Assert.assertEquals(0, sc.eval("__win.flag"));
+    }
+
+    @Test
+    public void testGlobalsAreWindowProperties() {
+        sc.eval("var x = 1;");
+        Assert.assertEquals(1, sc.eval("window.x"));
+
+        sc.eval("window.x = 2;");
+        Assert.assertEquals(2, sc.eval("x"));
+
+        sc.eval("window.status = 'first';");
+        Assert.assertEquals("first", sc.eval("status"));
+        sc.eval("status = 'second';");
+        Assert.assertEquals("second", sc.eval("window.status"));
+        Assert.assertEquals("second", sc.getWindow().status().get());
+    }
+
+    @Test
+    public void testDocumentAfterNavigation() {
+        Assert.assertEquals("first", sc.eval("document.getElementById('first').id"));
+
+        panel.setDocument(Jsoup.parse("<html><body><p id='second'></p></body></html>"));
+        Assert.assertNull(sc.eval("document.getElementById('first')"));
+        Assert.assertEquals("second", sc.eval("document.getElementById('second').id"));
+    }
+}
@@ -0,0 +1,32 @@
+package com.earnix.webk.runtime;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.script.CompiledScript;
+import javax.script.ScriptException;
+
+public class SharedScriptEngineTest {
+
+    @Test
+    public void testRepeatedScriptIsCompiledOnce() throws ScriptException {
+        String source = "var compiledOnce = 1;";
+        CompiledScript compiled = SharedScriptEngine.compile(source);
+
+        // same content of another document
+        Assert.assertSame(compiled, SharedScriptEngine.compile(new String(source.toCharArray())));
+        Assert.assertNotSame(compiled, SharedScriptEngine.compile("var compiledOnce = 2;"));
+    }
+
+    @Test
+    public void testCompiledScriptIsEvaluatedInEachContext() throws ScriptException {
+        CompiledScript compiled = SharedScriptEngine.compile(
+                "var counter = (typeof counter == 'number' ? counter : 0) + 1; counter");
+        javax.script.ScriptContext first = SharedScriptEngine.createContext();
+        javax.script.ScriptContext second = SharedScriptEngine.createContext();
+
+        Assert.assertEquals(1, ((Number) compiled.eval(first)).intValue());
+        Assert.assertEquals(2, ((Number) compiled.eval(first)).intValue());
+        Assert.assertEquals(1, ((Number) compiled.eval(second)).intValue());
+    }
+}
@@ -2,6 +2,9 @@ package com.earnix.webk.runtime.cssom.impl;
 
 import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
 import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -55,4 +58,78 @@ public class CSSStyleDeclarationImplTest
 		String display = cssStyle.getPropertyValue("display");
 		Assert.assertEquals("none", display);
 	}
-}
\ No newline at end of file
+
+	@Test public void batchElementStyleWrites()
+	{
+		ElementImpl model = new ElementImpl("div");
+		model.attr("style", "display: none");
+
+		CSSStyleDeclarationImpl cssStyle = (CSSStyleDeclarationImpl) model.style();
+		Assert.assertSame(cssStyle, model.style());
+
+		// writes are kept in the declaration block until the attribute is read
+		cssStyle.setProperty("color", "red", null);
+		cssStyle.setProperty("fontSize", "22px", "important");
+		cssStyle.removeProperty("display");
+		Assert.assertTrue(cssStyle.isPending());
+		Assert.assertEquals(" \n color: red; \n font-size: 22px !important;", model.attr("style"));
+		Assert.assertFalse(cssStyle.isPending());
+
+		// writing the attribute replaces the declarations
+		model.attr("style", "width: 10px");
+		Assert.assertEquals("", cssStyle.getPropertyValue("color"));
+		Assert.assertEquals("10px", cssStyle.getPropertyValue("width"));
+	}
+
+	@Test public void applyElementStyleDeclarations()
+	{
+		DocumentImpl doc = Jsoup.parse("<html><body><div style='color: #f00'>One</div></body></html>");
+		ElementImpl div = doc.selectFirst("div");
+		div.style().setProperty("backgroundColor", "#00f", null);
+		div.style().setProperty("color", "#0f0", null);
+
+		XHTMLPanel panel = new XHTMLPanel();
+		panel.setDocument(doc);
+		Assert.assertEquals("#00ff00", panel.getSharedContext().getStyle(div).valueByName(
+				com.earnix.webk.css.constants.CSSName.COLOR).toString());
+		Assert.assertEquals("#0000ff", panel.getSharedContext().getStyle(div).valueByName(
+				com.earnix.webk.css.constants.CSSName.BACKGROUND_COLOR).toString());
+		Assert.assertEquals(" \n color: #0f0; \n background-color: #00f;", div.attr("style"));
+	}
+
+	@Test public void keepSharedElementStylingUnchanged()
+	{
+		DocumentImpl doc = Jsoup.parse("<html><body><table><tr><td colspan='1'>One</td><td colspan='1'>Two</td></tr>"
+				+ "</table></body></html>");
+		ElementImpl first = doc.select("td").get(0);
+		ElementImpl second = doc.select("td").get(1);
+		first.style().setProperty("color", "#f00", null);
+
+		XHTMLPanel panel = new XHTMLPanel();
+		panel.setDocument(doc);
+		Assert.assertEquals("#ff0000", panel.getSharedContext().getStyle(first).valueByName(
+				com.earnix.webk.css.constants.CSSName.COLOR).toString());
+		// both cells have the same presentational hints, which are parsed once
+		Assert.assertEquals("#000000", panel.getSharedContext().getStyle(second).valueByName(
+				com.earnix.webk.css.constants.CSSName.COLOR).toString());
+	}
+
+	@Test public void keepStyleDeclarationsPendingOnQueries()
+	{
+		DocumentImpl doc = Jsoup.parse("<html><body><div class='outer'><p class='inner'>One</p></div></body></html>");
+		ElementImpl div = doc.selectFirst("div");
+		ElementImpl p = doc.selectFirst("p");
+		ElementImpl bare = new ElementImpl("span");
+		Assert.assertFalse(bare.hasAttributes());
+		bare.style().setProperty("color", "#f00", null);
+		div.style().setProperty("color", "#f00", null);
+
+		Assert.assertTrue(bare.hasAttributes());
+		Assert.assertSame(p, doc.selectFirst(".outer .inner"));
+		// serialized only once the attributes are read
+		Assert.assertTrue(bare.getInlineStyle().isPending());
+		Assert.assertTrue(div.getInlineStyle().isPending());
+		Assert.assertEquals(" \n color: #f00;", div.attr("style"));
+		Assert.assertFalse(div.getInlineStyle().isPending());
+	}
+}
@@ -0,0 +1,53 @@
+package com.earnix.webk.runtime.cssom.impl;
+
+import com.earnix.webk.runtime.cssom.CSSStyleDeclaration;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.runtime.web_idl.DOMException;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ComputedStyleDeclarationImplTest {
+
+    @Test
+    public void testReadComputedStyle() {
+        DocumentImpl doc = Jsoup.parse("<html><body><div style='color: #f00; display: none'>"
+                + "<span>One</span></div></body></html>");
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setSize(400, 300);
+        panel.setDocument(doc);
+        panel.paintComponent(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB).createGraphics());
+
+        CSSStyleDeclaration style = new ComputedStyleDeclarationImpl(
+                panel.getSharedContext().getStyle(doc.selectFirst("span")));
+        // inherited and initial values are computed as well as the declared ones
+        assertEquals("#ff0000", style.getPropertyValue("color"));
+        assertEquals("inline", style.getPropertyValue("display"));
+        assertEquals("transparent", style.getPropertyValue("backgroundColor"));
+        assertEquals("none", style.cssFloat().get());
+        assertEquals("", style.getPropertyValue("margin"));
+        assertEquals("", style.getPropertyValue("no-such-property"));
+        // values are derived once
+        assertSame(style.getPropertyValue("color"), style.getPropertyValue("color"));
+
+        assertTrue(style.length() > 0);
+        assertEquals("", style.item(style.length()));
+        assertEquals(style.getPropertyValue(style.item(0)), style.getPropertyValue(style.item(0)));
+        assertTrue(style.cssText().get().contains("color: #ff0000;"));
+    }
+
+    @Test(expected = DOMException.class)
+    public void testComputedStyleIsReadOnly() {
+        DocumentImpl doc = Jsoup.parse("<p>One</p>");
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setDocument(doc);
+        new ComputedStyleDeclarationImpl(panel.getSharedContext().getStyle(doc.selectFirst("p")))
+                .setProperty("color", "red", "");
+    }
+}
@@ -0,0 +1,79 @@
+package com.earnix.webk.runtime.dom.impl;
+
+import com.earnix.webk.runtime.dom.impl.nodes.DataImpl;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ElementGeometryTest {
+
+    XHTMLPanel panel;
+    DocumentImpl doc;
+
+    @Before
+    public void setUp() {
+        doc = Jsoup.parse("<html><body style='margin: 0'>"
+                + "<div id='outer' style='position: relative; padding: 3px'>"
+                + "<div id='box' style='width: 100px; height: 20px; padding: 10px; border: 2px solid; margin: 5px'></div>"
+                + "<div id='hidden' style='display: none'></div>"
+                + "</div></body></html>");
+        panel = new XHTMLPanel();
+        panel.setSize(400, 300);
+        panel.setDocument(doc);
+    }
+
+    @Test
+    public void testReadGeometry() {
+        ElementImpl box = doc.getElementById("box");
+        assertEquals(124, box.offsetWidth());
+        assertEquals(44, box.offsetHeight());
+        assertEquals(120, box.clientWidth());
+        assertEquals(40, box.clientHeight());
+        assertEquals(2, box.clientTop());
+        assertEquals(124, box.getBoundingClientRect().width().get(), 0);
+        assertEquals(8, box.getBoundingClientRect().y().get(), 0);
+        assertEquals(1, box.getClientRects().length());
+
+        // relative to the padding edge of the positioned parent, so including its padding
+        assertSame(doc.getElementById("outer"), box.offsetParent());
+        assertEquals(8, box.offsetTop());
+        assertEquals(8, box.offsetLeft());
+
+        ElementImpl hidden = doc.getElementById("hidden");
+        assertEquals(0, hidden.offsetWidth());
+        assertEquals(0, hidden.getClientRects().length());
+        assertNull(hidden.offsetParent());
+    }
+
+    @Test
+    public void testLayoutIsForcedOnlyAfterChanges() {
+        ElementImpl box = doc.getElementById("box");
+        box.offsetWidth();
+        long count = panel.getForcedLayoutCount();
+        box.offsetHeight();
+        box.getBoundingClientRect();
+        assertEquals(count, panel.getForcedLayoutCount());
+
+        box.style().setProperty("width", "50px", null);
+        assertEquals(74, box.offsetWidth());
+        assertEquals(74, box.getBoundingClientRect().width().get(), 0);
+        assertEquals(count + 1, panel.getForcedLayoutCount());
+    }
+
+    @Test
+    public void testStylesheetChangeWithBackgroundLayout() {
+        panel.setBackgroundLayoutEnabled(true);
+        ElementImpl box = doc.getElementById("box");
+        assertEquals(124, box.offsetWidth());
+
+        // the whole box tree is re-created, not only laid out again
+        doc.selectFirst("head").appendElement("style").appendChild(new DataImpl("#box { width: 50px !important }"));
+        assertEquals(74, box.offsetWidth());
+        assertEquals(74, box.getBoundingClientRect().width().get(), 0);
+    }
+}
@@ -0,0 +1,96 @@
+package com.earnix.webk.runtime.dom.impl;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class ElementIndexTest {
+
+    @Test
+    public void testIndexFollowsAttributeChanges() {
+        DocumentImpl doc = Jsoup.parse("<div id=a class='x Y'><p id=b class=y>One</p></div>");
+        ElementImpl div = doc.getElementById("a");
+        ElementImpl p = doc.getElementById("b");
+        assertEquals("div", div.tagName());
+        assertEquals(2, doc.getElementsByClass("y").size());
+        assertEquals(2, doc.getElementIndex().getByClass("Y").size());
+
+        p.attr("id", "c");
+        assertNull(doc.getElementById("b"));
+        assertSame(p, doc.getElementById("c"));
+
+        div.removeClass("Y");
+        assertEquals(1, doc.getElementsByClass("Y").size());
+        assertSame(p, doc.select(".y").first());
+
+        p.tagName("span");
+        assertEquals(0, doc.getElementsByTag("p").size());
+        assertSame(p, doc.selectFirst("span"));
+    }
+
+    @Test
+    public void testDatasetChangesAreRegistered() {
+        DocumentImpl doc = Jsoup.parse("<div id=a data-x=1></div>");
+        ElementImpl div = doc.getElementById("a");
+        long count = doc.getMutationCount();
+
+        div.dataset().put("y", "2");
+        assertEquals(count + 1, doc.getMutationCount());
+        assertSame(div, doc.selectFirst("[data-y=2]"));
+
+        div.dataset().entrySet().removeIf(e -> e.getKey().equals("x"));
+        assertEquals(count + 2, doc.getMutationCount());
+        assertNull(doc.selectFirst("[data-x]"));
+    }
+
+    @Test
+    public void testIndexFollowsTreeChanges() {
+        DocumentImpl doc = Jsoup.parse("<div id=a><p class=x>One</p><p class=x>Two</p></div>");
+        ElementImpl div = doc.getElementById("a");
+        assertEquals(2, doc.getElementsByClass("x").size());
+
+        ElementImpl first = doc.getElementsByClass("x").first();
+        first.remove();
+        assertEquals("Two", doc.getElementsByClass("x").text());
+        assertNull(first.ownerDocument());
+
+        div.prependChild(first);
+        div.appendElement("p").addClass("x").text("Three");
+        assertEquals("One Two Three", doc.getElementsByClass("x").text());
+
+        div.empty();
+        assertEquals(0, doc.getElementsByClass("x").size());
+        assertNull(first.ownerDocument());
+        assertSame(div, doc.getElementById("a"));
+
+        // elements of a cloned document are found in it, not in the original one
+        div.appendElement("p").attr("id", "b");
+        DocumentImpl clone = doc.clone();
+        ElementImpl copy = clone.getElementById("b");
+        assertSame(clone, copy.ownerDocument());
+        copy.remove();
+        assertNull(clone.getElementById("b"));
+        assertEquals("p", doc.getElementById("b").tagName());
+    }
+
+    @Test
+    public void testElementsInDocumentOrder() {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            html.append("<div><span id=dup class=s>").append(i).append("</span></div>");
+        }
+        DocumentImpl doc = Jsoup.parse(html.toString());
+        assertEquals("0", doc.getElementById("dup").text());
+        assertEquals(40, doc.select("#dup").size());
+        assertEquals("0", doc.select(".s").first().text());
+        assertEquals("39", doc.select(".s").last().text());
+
+        // queries under an element only find the elements under it
+        ElementImpl third = doc.select("div").get(2);
+        assertEquals("2", third.getElementById("dup").text());
+        assertEquals(1, third.getElementsByClass("S").size());
+        assertEquals("div", third.getElementsByTag("div").first().tagName());
+    }
+}
@@ -0,0 +1,55 @@
+package com.earnix.webk.runtime.dom.impl;
+
+import com.earnix.webk.runtime.dom.NodeList;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class HTMLCollectionImplTest {
+
+    @Test
+    public void testCollectionIsLive() {
+        com.earnix.webk.runtime.html.impl.DocumentImpl doc = Jsoup.parse(
+                "<div id=a><p class=x>One</p><p>Two</p></div>");
+        HTMLCollectionImpl paragraphs = (HTMLCollectionImpl) doc.getElementsByTagName("p");
+        HTMLCollectionImpl xs = (HTMLCollectionImpl) doc.getElementsByClassName("x");
+        assertEquals(2, paragraphs.length());
+        assertEquals(1, xs.length());
+
+        // the elements are queried once until the document is modified
+        assertSame(paragraphs.getModel(), paragraphs.getModel());
+        Object before = paragraphs.getModel();
+
+        doc.getElementById("a").appendElement("p").addClass("x").attr("name", "three");
+        assertNotSame(before, paragraphs.getModel());
+        assertEquals(3, paragraphs.length());
+        assertEquals(2, xs.length());
+        assertEquals("three", ((ElementImpl) paragraphs.item(2)).attr("name"));
+        assertSame(paragraphs.item(2), paragraphs.namedItem("three"));
+        assertNull(paragraphs.item(3));
+
+        ((ElementImpl) paragraphs.item(0)).remove();
+        assertEquals(1, xs.length());
+        assertEquals("Two", ((ElementImpl) paragraphs.item(0)).text());
+
+        NodeList named = doc.getElementsByName("three");
+        assertEquals(1, named.length());
+        ((ElementImpl) named.item(0)).removeAttr("name");
+        assertEquals(0, named.length());
+    }
+
+    @Test
+    public void testCollectionUnderDetachedElement() {
+        ElementImpl div = Jsoup.parse("<div><span>One</span></div>").selectFirst("div");
+        div.remove();
+        HTMLCollectionImpl children = (HTMLCollectionImpl) div.children();
+        assertEquals(1, children.length());
+
+        // modifications of detached elements aren't counted, so the children are queried on every access
+        div.appendElement("span");
+        assertEquals(2, children.length());
+    }
+}
@@ -478,4 +478,27 @@ public class DocumentTest {
         assertEquals(StandardCharsets.US_ASCII, doc.outputSettings().charset());
         assertEquals(asci, p.outerHtml());
     }
+
+    @Test
+    public void tracksMutations() {
+        DocumentImpl doc = Jsoup.parse("<div id=a><p>One</p></div><div id=b></div>");
+        doc.clearDirtyNodes();
+        long count = doc.getMutationCount();
+        assertFalse(doc.isDirty());
+
+        ElementImpl a = doc.getElementById("a");
+        a.attr("title", "x");
+        a.select("p").first().text("Two");
+        assertTrue(doc.getMutationCount() > count);
+        assertTrue(doc.getDirtyNodes().contains(a));
+        assertFalse(doc.getDirtyNodes().contains(doc.getElementById("b")));
+
+        doc.clearDirtyNodes();
+        count = doc.getMutationCount();
+        new ElementImpl("span").attr("class", "detached");
+        assertEquals(count, doc.getMutationCount());
+
+        doc.getBody().appendElement("span");
+        assertTrue(doc.getDirtyNodes().contains(doc.getBody()));
+    }
 }
@@ -202,6 +202,40 @@ public class ElementTest {
         assertTrue(2 == ps.get(2).elementSiblingIndex());
     }
 
+    @Test
+    public void testElementSiblingIndexAfterChange() {
+        DocumentImpl doc = Jsoup.parse("<div><p>One</p>...<p>Two</p>...<p>Three</p></div>");
+        Elements ps = doc.select("p");
+        assertEquals(2, ps.get(2).elementSiblingIndex());
+        assertTrue(ps.get(2).isLastElementSibling());
+
+        ps.get(0).remove();
+        assertEquals(0, ps.get(1).elementSiblingIndex());
+        assertEquals(1, ps.get(2).elementSiblingIndex());
+
+        doc.selectFirst("div").appendElement("span");
+        assertEquals(1, ps.get(2).elementSiblingIndex());
+        assertFalse(ps.get(2).isLastElementSibling());
+    }
+
+    @Test
+    public void testClassNameAndIdAfterChange() {
+        DocumentImpl doc = Jsoup.parse("<div id=a class='one\ttwo'></div>");
+        ElementImpl div = doc.selectFirst("div");
+        assertTrue(div.hasClassName("two"));
+        assertFalse(div.hasClassName("One"));
+        assertEquals("a", div.getId());
+
+        div.attr("class", "three");
+        div.attr("id", "b");
+        assertFalse(div.hasClassName("two"));
+        assertTrue(div.hasClassName("three"));
+        assertEquals("b", div.getId());
+
+        div.getAttributes().iterator().next().setValue("c");
+        assertEquals("c", div.getId());
+    }
+
     @Test
     public void testGetElementsWithClass() {
         DocumentImpl doc = Jsoup.parse("<div class='mellow yellow'><span class=mellow>Hello <b class='yellow'>Yellow!</b></span><p>Empty</p></div>");
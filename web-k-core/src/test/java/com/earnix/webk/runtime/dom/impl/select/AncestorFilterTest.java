@@ -0,0 +1,62 @@
+package com.earnix.webk.runtime.dom.impl.select;
+
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AncestorFilterTest {
+
+    @Test
+    public void testPushPop() {
+        DocumentImpl doc = Jsoup.parse("<div id=outer class='a  B'><p class=c>One</p></div>");
+        ElementImpl div = doc.selectFirst("div");
+        ElementImpl p = doc.selectFirst("p");
+
+        AncestorFilter filter = new AncestorFilter();
+        filter.push(div);
+        filter.push(p);
+        assertTrue(filter.mayContain(AncestorFilter.tagHash("DIV")));
+        assertTrue(filter.mayContain(AncestorFilter.idHash("outer")));
+        assertTrue(filter.mayContain(AncestorFilter.classHash("b")));
+        assertTrue(filter.mayContain(AncestorFilter.classHash("c")));
+
+        filter.pop();
+        assertTrue(filter.mayContain(AncestorFilter.classHash("A")));
+        assertFalse(filter.mayContain(AncestorFilter.classHash("c")));
+        assertFalse(filter.mayContain(AncestorFilter.tagHash("p")));
+
+        filter.pop();
+        assertFalse(filter.mayContain(AncestorFilter.tagHash("div")));
+        assertFalse(filter.mayContain(AncestorFilter.idHash("outer")));
+    }
+
+    @Test
+    public void testDescendantSelection() {
+        DocumentImpl doc = Jsoup.parse("<div class=A><section id=s><p class=b>1</p><p>2</p></section></div>"
+                + "<div><p class=b>3</p><span class=C><p class=b>4</p></span></div>");
+
+        assertEquals("1", doc.select(".a .b").text());
+        assertEquals("1", doc.select("DIV.a p.b").text());
+        assertEquals("1 2", doc.select("#s p").text());
+        assertEquals("4", doc.select(".c > .b").text());
+        assertEquals("1 4", doc.select(".a .b, .c .b").text());
+        assertEquals("", doc.select("#S p").text());
+        assertEquals("", doc.select(".x .b").text());
+        assertEquals("2", doc.selectFirst("section p:not(.b)").text());
+    }
+
+    @Test
+    public void testSelectionFromInnerRoot() {
+        DocumentImpl doc = Jsoup.parse("<div class=a><section><p>1</p></section></div>");
+        ElementImpl section = doc.selectFirst("section");
+
+        // ancestors above the root of the matching subtree don't count
+        assertEquals(0, section.select(".a p").size());
+        assertEquals(1, section.select("section p").size());
+    }
+}
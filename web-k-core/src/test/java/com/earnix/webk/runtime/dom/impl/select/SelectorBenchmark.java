@@ -0,0 +1,72 @@
+package com.earnix.webk.runtime.dom.impl.select;
+
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures <code>select</code> of descendant selectors on a deep document: blocks of nested <code>div</code>s,
+ * each with a <code>span</code> at the bottom.
+ * <p>
+ * Harness is generated with <code>mvn -Pbenchmark clean test-compile</code>, then run {@link #main(String[])}
+ * from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SelectorBenchmark {
+
+    @Param({"25"})
+    int depth;
+
+    @Param({".missing div", ".x3 .x20 div", ".a .b .c", ".x1 .x20 span", "div div"})
+    String query;
+
+    DocumentImpl document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder html = new StringBuilder("<html><body>");
+        for (int block = 0; block < 200; block++) {
+            for (int i = 0; i < depth; i++) {
+                html.append("<div class='x").append(i).append("'>");
+            }
+            html.append("<span class=c>text</span>");
+            for (int i = 0; i < depth; i++) {
+                html.append("</div>");
+            }
+        }
+        document = Jsoup.parse(html.toString());
+    }
+
+    @Benchmark
+    public Elements select() {
+        return document.select(query);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SelectorBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
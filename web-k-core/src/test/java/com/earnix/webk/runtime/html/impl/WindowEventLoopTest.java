@@ -0,0 +1,149 @@
+package com.earnix.webk.runtime.html.impl;
+
+import com.earnix.webk.runtime.ScriptContext;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.web_idl.Function;
+import com.earnix.webk.simple.XHTMLPanel;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class WindowEventLoopTest {
+
+    ManualLoop loop;
+    List<String> log = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        val panel = new XHTMLPanel();
+        panel.setDocument(Jsoup.parse("<html><body></body></html>"));
+        loop = new ManualLoop(panel.getScriptContext());
+    }
+
+    @Test
+    public void testCallbacksOrder() {
+        loop.setTimer(log("late"), new Object[0], 50, 0);
+        loop.setTimer((ctx, args) -> {
+            log.add("timeout");
+            loop.queueMicrotask(() -> log.add("microtask"));
+            return null;
+        }, new Object[0], 0, 0);
+        loop.requestAnimationFrame((ctx, args) -> log.add("frame " + args[0]));
+
+        loop.pump();
+        Assert.assertEquals(Arrays.asList("timeout", "microtask", "frame 0.0"), log);
+
+        while (log.size() < 4) {
+            loop.pump();
+        }
+        Assert.assertEquals(50, loop.time);
+        Assert.assertEquals(Arrays.asList("timeout", "microtask", "frame 0.0", "late"), log);
+        Assert.assertEquals(Long.MAX_VALUE, loop.next);
+    }
+
+    @Test
+    public void testTimersDueTogetherRunInOneFrame() {
+        loop.setTimer(log("first"), new Object[0], 10, 0);
+        loop.setTimer(log("second"), new Object[0], 10 + WindowEventLoop.TIMER_SLACK, 0);
+        loop.setTimer(log("third"), new Object[0], 20, 0);
+
+        loop.pump();
+        Assert.assertEquals(10, loop.time);
+        Assert.assertEquals(Arrays.asList("first", "second"), log);
+        Assert.assertEquals(20, loop.next);
+    }
+
+    @Test
+    public void testClearInterval() {
+        int[] handle = new int[1];
+        handle[0] = loop.setTimer((ctx, args) -> {
+            log.add(String.valueOf(loop.time));
+            if (log.size() == 3) {
+                loop.clearTimer(handle[0]);
+            }
+            return null;
+        }, new Object[0], 5, 5);
+
+        while (loop.next != Long.MAX_VALUE) {
+            loop.pump();
+        }
+        Assert.assertEquals(Arrays.asList("5", "10", "15"), log);
+    }
+
+    @Test
+    public void testCancelAnimationFrame() {
+        int handle = loop.requestAnimationFrame(log("frame"));
+        loop.cancelAnimationFrame(handle);
+
+        loop.pump();
+        Assert.assertTrue(log.isEmpty());
+        Assert.assertEquals(Long.MAX_VALUE, loop.next);
+    }
+
+    @Test
+    public void testAnimationFramesRepaint() {
+        loop.requestAnimationFrame((ctx, args) -> {
+            log.add("frame " + args[0]);
+            return loop.requestAnimationFrame((ctx2, args2) -> log.add("next frame " + args2[0]));
+        });
+
+        // the panel is repainted after the callbacks, which don't run while it paints
+        loop.pump();
+        Assert.assertEquals(Arrays.asList("frame 0.0"), log);
+        Assert.assertEquals(1, loop.repaints);
+
+        // frames are run each frame interval
+        loop.pump();
+        Assert.assertEquals(WindowEventLoop.FRAME_INTERVAL, loop.time);
+        Assert.assertEquals(Arrays.asList("frame 0.0", "next frame 16.0"), log);
+        Assert.assertEquals(2, loop.repaints);
+        Assert.assertEquals(Long.MAX_VALUE, loop.next);
+    }
+
+    private Function<Object> log(String entry) {
+        return (ctx, args) -> log.add(entry);
+    }
+
+    /**
+     * Loop with the time and frames advanced by the test
+     */
+    static class ManualLoop extends WindowEventLoop {
+
+        long time;
+        long next = Long.MAX_VALUE;
+        int repaints;
+
+        ManualLoop(ScriptContext scriptContext) {
+            super(scriptContext);
+        }
+
+        /**
+         * Advances the time to the next scheduled frame and runs it
+         */
+        void pump() {
+            time = Math.max(time, next);
+            next = Long.MAX_VALUE;
+            runFrame();
+        }
+
+        @Override
+        long now() {
+            return time;
+        }
+
+        @Override
+        void scheduleFrame(long time) {
+            next = time;
+        }
+
+        @Override
+        void requestRepaint() {
+            repaints++;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.earnix.webk.runtime.web_idl.impl;
+
+import com.earnix.webk.runtime.ScriptContext;
+import com.earnix.webk.runtime.dom.impl.ElementImpl;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures exposing DOM elements to JavaScript: <code>document.querySelectorAll('*')</code> followed by attribute
+ * reads of every found element.
+ * <p>
+ * Harness is generated with <code>mvn -Pbenchmark clean test-compile</code>, then run {@link #main(String[])}
+ * from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WebIDLAdapterBenchmark {
+
+    private static final String SCRIPT = "var all = document.querySelectorAll('*'), n = 0;"
+            + "for (var i = 0; i < all.length; i++) {"
+            + "  var e = all[i];"
+            + "  if (e.getAttribute('id')) n++;"
+            + "  if (e.className) n++;"
+            + "  if (e.tagName) n++;"
+            + "}"
+            + "n";
+
+    @Param({"1000"})
+    int elements;
+
+    String body;
+    ElementImpl bodyElement;
+
+    // not a ScriptContext field, JMH processor can't traverse Swing classes it refers to
+    Supplier<Object> script;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < elements / 2; i++) {
+            sb.append("<div id='d").append(i).append("' class='row'><span class='cell'>").append(i).append("</span></div>");
+        }
+        body = sb.toString();
+
+        DocumentImpl document = Jsoup.parse("<html><body></body></html>");
+        bodyElement = document.selectFirst("body");
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setDocument(document);
+        ScriptContext scriptContext = panel.getScriptContext();
+        script = () -> scriptContext.eval(SCRIPT);
+    }
+
+    /**
+     * Fresh elements, so the measurement includes wrappers creation
+     */
+    @Setup(Level.Invocation)
+    public void replaceBody() {
+        bodyElement.html(body);
+    }
+
+    @Benchmark
+    public Object querySelectorAllAndReadAttributes() {
+        return script.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebIDLAdapterBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
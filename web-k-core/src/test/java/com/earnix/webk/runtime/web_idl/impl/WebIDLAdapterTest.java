@@ -22,6 +22,22 @@ public class WebIDLAdapterTest {
             return 1;
         }
     }
+
+    /**
+     * Equal to any other instance
+     */
+    public class TestValueImpl extends TestIterableImpl {
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof TestValueImpl;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
     
     
     @Test
@@ -33,7 +49,7 @@ public class WebIDLAdapterTest {
         
         val impl = new TestIterableImpl();
         WebIDLAdapter adapter = WebIDLAdapter.obtain(sc, impl);
-        sc.getEngine().put("testObject", adapter);
+        sc.put("testObject", adapter);
         
         Object returned = sc.eval("testObject[0]");
         Object returnedLength = sc.eval("testObject.length");
@@ -41,4 +57,55 @@ public class WebIDLAdapterTest {
         Assert.assertEquals("A", returned);
         Assert.assertEquals(1, returnedLength);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testAdaptersIdentity() {
+        val panel = new XHTMLPanel();
+        panel.setDocument(Jsoup.parse("<html></html>"));
+        ScriptContext sc = panel.getScriptContext();
+
+        val first = new TestValueImpl();
+        val second = new TestValueImpl();
+        WebIDLAdapter adapter = WebIDLAdapter.obtain(sc, first);
+
+        Assert.assertSame(adapter, WebIDLAdapter.obtain(sc, first));
+        Assert.assertNotSame(adapter, WebIDLAdapter.obtain(sc, second));
+
+        // released on document unload
+        panel.setDocument(Jsoup.parse("<html></html>"));
+        Assert.assertNotSame(adapter, WebIDLAdapter.obtain(sc, first));
+    }
+
+    @Test
+    public void testNodeAdaptersIdentity() {
+        val doc = Jsoup.parse("<html><body><p id='p'></p></body></html>");
+        val panel = new XHTMLPanel();
+        panel.setDocument(doc);
+        ScriptContext sc = panel.getScriptContext();
+
+        WebIDLAdapter adapter = WebIDLAdapter.obtain(sc, doc.getElementById("p"));
+        Assert.assertSame(adapter, WebIDLAdapter.obtain(sc, doc.getElementById("p")));
+        Assert.assertSame(adapter, WebIDLAdapter.obtain(sc, doc.getBody().child(0)));
+    }
+
+    @Test
+    public void testAdaptersWithoutScriptContextAreNotCached() {
+        val target = new TestValueImpl();
+        Assert.assertNotSame(WebIDLAdapter.obtain(null, target), WebIDLAdapter.obtain(null, target));
+    }
+
+    @Test
+    public void testPropertiesAreKeptWhileNotReferenced() throws InterruptedException {
+        val panel = new XHTMLPanel();
+        panel.setDocument(Jsoup.parse("<html></html>"));
+        ScriptContext sc = panel.getScriptContext();
+
+        val target = new TestValueImpl();
+        WebIDLAdapter.obtain(sc, target).setMember("foo", "bar");
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertEquals("bar", WebIDLAdapter.obtain(sc, target).getMember("foo"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.earnix.webk.runtime.xhr.impl;
+
+import com.earnix.webk.runtime.ScriptContext;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Measures throughput of synchronous <code>XMLHttpRequest</code>s sent by a script to a local Jetty server.
+ * <p>
+ * Harness is generated with <code>mvn -Pbenchmark clean test-compile</code>, then run {@link #main(String[])}
+ * from the test classpath.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class XMLHttpRequestBenchmark {
+
+    @Param({"1024"})
+    int responseSize;
+
+    Server jetty;
+
+    // not a ScriptContext field, JMH processor can't traverse Swing classes it refers to
+    Supplier<Object> script;
+
+    public static class PayloadServlet extends HttpServlet {
+        static byte[] payload;
+
+        @Override
+        protected void doGet(HttpServletRequest req, HttpServletResponse res) throws IOException {
+            res.setContentType("text/plain");
+            res.setContentLength(payload.length);
+            res.getOutputStream().write(payload);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        byte[] payload = new byte[responseSize];
+        Arrays.fill(payload, (byte) 'x');
+        PayloadServlet.payload = payload;
+
+        jetty = new Server(0);
+        ServletHandler handler = new ServletHandler();
+        handler.addServletWithMapping(PayloadServlet.class, "/payload");
+        jetty.setHandler(handler);
+        jetty.start();
+        int port = ((ServerConnector) jetty.getConnectors()[0]).getLocalPort();
+
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setDocument(Jsoup.parse("<html><body></body></html>"));
+        ScriptContext scriptContext = panel.getScriptContext();
+        String request = "var xhr = new XMLHttpRequest();"
+                + "xhr.open('GET', 'http://localhost:" + port + "/payload', false, null, null);"
+                + "xhr.send(null);"
+                + "xhr.responseText.length";
+        script = () -> scriptContext.eval(request);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        jetty.stop();
+    }
+
+    @Benchmark
+    public Object synchronousGet() {
+        return script.get();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(XMLHttpRequestBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,130 @@
+package com.earnix.webk.swing;
+
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ImageLoaderTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentRequestsShareFetch() throws Exception {
+        TestLoader loader = new TestLoader(4, 4);
+        List<CompletableFuture<BufferedImage>> loads = new ArrayList<>();
+        loads.add(loader.load("http://a/image.png", -1, -1));
+        loads.add(loader.load("http://a/image.png", -1, -1));
+        loads.add(loader.load("http://a/image.png", 10, 10));
+        loader.awaitActive("a", 1);
+
+        release.countDown();
+        for (CompletableFuture<BufferedImage> load : loads) {
+            load.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(1, loader.reads.get());
+        assertEquals(20, loads.get(0).get().getWidth());
+        assertEquals(10, loads.get(2).get().getWidth());
+    }
+
+    @Test(timeout = 10000)
+    public void testHostLimit() throws Exception {
+        TestLoader loader = new TestLoader(8, 2);
+        List<CompletableFuture<BufferedImage>> loads = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            loads.add(loader.load("http://a/" + i + ".png", -1, -1));
+        }
+        loads.add(loader.load("http://b/0.png", -1, -1));
+
+        // fetches of another host are not held up by the waiting ones
+        loader.awaitActive("a", 2);
+        loader.awaitActive("b", 1);
+
+        release.countDown();
+        for (CompletableFuture<BufferedImage> load : loads) {
+            load.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(7, loader.reads.get());
+        assertEquals(2, loader.maxActive.get("a").get());
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelPending() throws Exception {
+        TestLoader loader = new TestLoader(4, 1);
+        CompletableFuture<BufferedImage> started = loader.load("http://a/0.png", -1, -1);
+        CompletableFuture<BufferedImage> pending = loader.load("http://a/1.png", -1, -1);
+        loader.awaitActive("a", 1);
+
+        loader.cancelPending();
+        release.countDown();
+        started.get(5, TimeUnit.SECONDS);
+        assertTrue(pending.isCompletedExceptionally());
+        assertEquals(1, loader.reads.get());
+    }
+
+    private static byte[] png() {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB), "png", out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Fetches blocked until {@link #release}, counted by host
+     */
+    private class TestLoader extends ImageLoader {
+        final AtomicInteger reads = new AtomicInteger();
+        final Map<String, AtomicInteger> active = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> maxActive = new ConcurrentHashMap<>();
+
+        TestLoader(int workers, int hostLimit) {
+            super(workers, hostLimit);
+        }
+
+        @Override
+        byte[] read(String uri) throws IOException {
+            reads.incrementAndGet();
+            String host = URI.create(uri).getHost();
+            AtomicInteger count = active.computeIfAbsent(host, h -> new AtomicInteger());
+            AtomicInteger max = maxActive.computeIfAbsent(host, h -> new AtomicInteger());
+            max.accumulateAndGet(count.incrementAndGet(), Math::max);
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            count.decrementAndGet();
+            return png();
+        }
+
+        void awaitActive(String host, int count) throws InterruptedException {
+            while (active.get(host) == null || active.get(host).get() < count) {
+                Thread.sleep(5);
+            }
+        }
+    }
+}
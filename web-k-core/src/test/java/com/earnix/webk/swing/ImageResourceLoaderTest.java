@@ -0,0 +1,36 @@
+package com.earnix.webk.swing;
+
+import com.earnix.webk.resource.ImageResource;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ImageResourceLoaderTest {
+
+    @Test
+    public void testShrinkDropsLeastRecentlyUsed() {
+        ImageResourceLoader loader = new ImageResourceLoader(2);
+        ImageResource first = image("file:/missing/first.png");
+        ImageResource second = image("file:/missing/second.png");
+        ImageResource third = image("file:/missing/third.png");
+        loader.loaded(first, -1, -1);
+        loader.loaded(second, -1, -1);
+        loader.loaded(third, -1, -1);
+
+        // first is used after second
+        assertSame(first, loader.get("file:/missing/first.png"));
+        loader.shrink();
+
+        assertSame(first, loader.get("file:/missing/first.png"));
+        assertSame(third, loader.get("file:/missing/third.png"));
+        // dropped, so loaded again
+        assertNotSame(second, loader.get("file:/missing/second.png"));
+    }
+
+    private static ImageResource image(String uri) {
+        return ImageResourceLoader.createImageResource(uri, new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB));
+    }
+}
@@ -0,0 +1,120 @@
+package com.earnix.webk.swing;
+
+import com.earnix.webk.render.BlockBox;
+import com.earnix.webk.render.Box;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.dom.impl.nodes.DataImpl;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Changes of the document are applied by {@link RootPanel#reset()}, and the box tree is compared to the one of a full
+ * layout of the changed document.
+ */
+public class IncrementalRestyleTest {
+
+    private static final String STYLE = "<style>"
+            + ".big p { font-size: 30px }"
+            + "div[title] p { margin-left: 20px }"
+            + ".on + p { padding-left: 30px }"
+            + "</style>";
+
+    @Test
+    public void testTextChange() {
+        assertIncremental("<div><p id='a'>One</p><p>Two</p></div>",
+                doc -> doc.getElementById("a").text("One, a longer text which wraps to the next line of the panel"));
+    }
+
+    @Test
+    public void testClassChange() {
+        assertIncremental("<div id='d'><p>One</p><p>Two</p></div><p>Three</p>",
+                doc -> doc.getElementById("d").addClass("big"));
+    }
+
+    @Test
+    public void testAttributeChange() {
+        assertIncremental("<div id='d'><p>One</p><p>Two</p></div><p>Three</p>",
+                doc -> doc.getElementById("d").attr("title", "Title"));
+    }
+
+    @Test
+    public void testFollowingSiblingsChange() {
+        assertIncremental("<div><p id='a'>One</p><p>Two</p><p>Three</p></div>",
+                doc -> doc.getElementById("a").addClass("on"));
+    }
+
+    @Test
+    public void testManyChanges() {
+        StringBuilder html = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            html.append("<p>").append(i).append("</p>");
+        }
+        // the document is considered dirty as a whole
+        assertFullRelayout(html.toString(), doc -> doc.select("p").forEach(p -> p.text(p.text() + " changed")));
+    }
+
+    @Test
+    public void testStylesheetChange() {
+        assertFullRelayout("<div><p id='a'>One</p><p>Two</p></div>",
+                doc -> doc.selectFirst("style").appendChild(new DataImpl("p { margin-left: 50px }")));
+    }
+
+    @Test
+    public void testHeadChange() {
+        assertFullRelayout("<div><p id='a'>One</p><p>Two</p></div>",
+                doc -> doc.selectFirst("head").appendElement("style").appendChild(new DataImpl("p { margin-left: 50px }")));
+    }
+
+    private static void assertIncremental(String body, Consumer<DocumentImpl> change) {
+        assertChange(body, change, true);
+    }
+
+    private static void assertFullRelayout(String body, Consumer<DocumentImpl> change) {
+        assertChange(body, change, false);
+    }
+
+    private static void assertChange(String body, Consumer<DocumentImpl> change, boolean incremental) {
+        DocumentImpl doc = Jsoup.parse("<html><head>" + STYLE + "</head><body>" + body + "</body></html>");
+        XHTMLPanel panel = render(doc);
+        Box root = panel.getRootBox();
+        String before = dump(panel);
+
+        change.accept(doc);
+        panel.reset();
+        paint(panel);
+        if (incremental) {
+            assertSame(root, panel.getRootBox());
+        } else {
+            assertNotSame(root, panel.getRootBox());
+        }
+        String changed = dump(panel);
+        assertFalse(before.equals(changed));
+
+        assertEquals(dump(render(doc)), changed);
+    }
+
+    private static XHTMLPanel render(DocumentImpl doc) {
+        XHTMLPanel panel = new XHTMLPanel();
+        panel.setSize(400, 300);
+        panel.setDocument(doc);
+        paint(panel);
+        return panel;
+    }
+
+    private static void paint(XHTMLPanel panel) {
+        panel.paintComponent(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB).createGraphics());
+    }
+
+    private static String dump(XHTMLPanel panel) {
+        return ((BlockBox) panel.getRootBox()).dump(panel.getLayoutContext(), "", Box.DUMP_RENDER);
+    }
+}
@@ -0,0 +1,56 @@
+package com.earnix.webk.swing;
+
+import org.junit.Test;
+
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+
+import static org.junit.Assert.assertEquals;
+
+public class Java2DTextRendererTest {
+
+    @Test
+    public void testWidthCache() {
+        Graphics2D graphics = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        Java2DFontContext fontContext = new Java2DFontContext(graphics);
+        AWTFSFont font = new AWTFSFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        Java2DTextRenderer renderer = new Java2DTextRenderer();
+
+        int width = renderer.getWidth(fontContext, font, "Hello ");
+        assertEquals(width, renderer.getWidth(fontContext, font, "Hello "));
+        assertEquals(1, renderer.getWidthCacheHits());
+        assertEquals(1, renderer.getWidthCacheMisses());
+
+        // another font or rendering context is measured again
+        AWTFSFont bold = new AWTFSFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
+        renderer.getWidth(fontContext, bold, "Hello ");
+        graphics.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        assertEquals(width, renderer.getWidth(fontContext, font, "Hello "));
+        assertEquals(1, renderer.getWidthCacheHits());
+        assertEquals(3, renderer.getWidthCacheMisses());
+    }
+
+    @Test
+    public void testWidthCacheEvictsLeastRecentlyUsed() {
+        Graphics2D graphics = new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB).createGraphics();
+        Java2DFontContext fontContext = new Java2DFontContext(graphics);
+        AWTFSFont font = new AWTFSFont(new Font(Font.SANS_SERIF, Font.PLAIN, 12));
+        Java2DTextRenderer renderer = new Java2DTextRenderer();
+
+        // one more than the default capacity
+        for (int i = 0; i <= 4096; i++) {
+            renderer.getWidth(fontContext, font, "word" + i);
+        }
+        assertEquals(4097, renderer.getWidthCacheMisses());
+
+        // only the first one is dropped
+        for (int i = 1; i <= 4096; i++) {
+            renderer.getWidth(fontContext, font, "word" + i);
+        }
+        assertEquals(4096, renderer.getWidthCacheHits());
+        renderer.getWidth(fontContext, font, "word0");
+        assertEquals(4098, renderer.getWidthCacheMisses());
+    }
+}
@@ -0,0 +1,169 @@
+package com.earnix.webk.swing;
+
+import com.earnix.webk.event.DefaultDocumentListener;
+import com.earnix.webk.render.BlockBox;
+import com.earnix.webk.render.Box;
+import com.earnix.webk.runtime.dom.impl.Jsoup;
+import com.earnix.webk.runtime.html.impl.DocumentImpl;
+import com.earnix.webk.simple.XHTMLPanel;
+import com.earnix.webk.simple.extend.form.DefaultFormFieldFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.SwingUtilities;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RootPanelTest {
+
+    XHTMLPanel panel;
+
+    @Before
+    public void setUp() {
+        panel = new XHTMLPanel();
+        panel.setBackgroundLayoutEnabled(true);
+        panel.setSize(400, 300);
+    }
+
+    @Test
+    public void testBackgroundLayoutSwap() throws Exception {
+        panel.setDocument(Jsoup.parse("<html><body><p>Hello</p></body></html>"));
+        SwingUtilities.invokeAndWait(this::paint);
+        Box first = awaitRootBox(null);
+        assertNotNull(first);
+
+        SwingUtilities.invokeAndWait(() -> {
+            panel.relayout();
+            paint();
+            // the shown box tree is painted until the new one is laid out
+            assertTrue(panel.isBackgroundLayoutPending());
+            assertSame(first, panel.getRootBox());
+        });
+        assertNotSame(first, awaitRootBox(first));
+    }
+
+    @Test
+    public void testSupersededLayoutIsCancelled() throws Exception {
+        DocumentImpl second = Jsoup.parse("<html><body><p>World</p></body></html>");
+        SwingUtilities.invokeAndWait(() -> {
+            panel.setDocument(Jsoup.parse("<html><body><p>Hello</p></body></html>"));
+            paint();
+            panel.setDocument(second);
+            assertFalse(panel.isBackgroundLayoutPending());
+            paint();
+        });
+        assertSame(second, awaitRootBox(null).getElement().ownerDocument());
+    }
+
+    @Test
+    public void testFormComponentsAreCreatedOnEventDispatchThread() throws Exception {
+        List<Boolean> threads = new ArrayList<>();
+        panel.getSharedContext().setFormFieldFactory((form, context, box) -> {
+            threads.add(SwingUtilities.isEventDispatchThread());
+            return new DefaultFormFieldFactory().create(form, context, box);
+        });
+        panel.setDocument(Jsoup.parse("<html><body><form><input type='text'/></form></body></html>"));
+        SwingUtilities.invokeAndWait(this::paint);
+
+        assertNotNull(awaitRootBox(null));
+        SwingUtilities.invokeAndWait(() -> assertEquals(1, threads.size()));
+        assertTrue(threads.get(0));
+    }
+
+    @Test(timeout = 10000)
+    public void testCancelWhileLayoutThreadWaits() throws Exception {
+        CountDownLatch cancelled = new CountDownLatch(1);
+        panel.getSharedContext().setFormFieldFactory((form, context, box) -> {
+            // the layout thread waits for the component, and stops once cancelled
+            panel.cancelBackgroundLayout();
+            cancelled.countDown();
+            return new DefaultFormFieldFactory().create(form, context, box);
+        });
+        panel.setDocument(Jsoup.parse("<html><body><form><input type='text'/></form></body></html>"));
+        SwingUtilities.invokeAndWait(this::paint);
+
+        cancelled.await();
+        SwingUtilities.invokeAndWait(() -> {
+            assertFalse(panel.isBackgroundLayoutPending());
+            assertNull(panel.getRootBox());
+        });
+    }
+
+    @Test
+    public void testScriptCancelsLayout() throws Exception {
+        panel.setDocument(Jsoup.parse("<html><body><p id='p'>Hello</p></body></html>"));
+        boolean[] pendingInScript = new boolean[1];
+        SwingUtilities.invokeAndWait(() -> {
+            paint();
+            assertTrue(panel.isBackgroundLayoutPending());
+            // the layout thread doesn't read the document changed by the script
+            panel.getScriptContext().put("checkLayout",
+                    (Runnable) () -> pendingInScript[0] = panel.isBackgroundLayoutPending());
+            panel.getScriptContext().eval("checkLayout.run(); document.getElementById('p').textContent = 'World'");
+            assertFalse(pendingInScript[0]);
+        });
+
+        Box root = awaitRootBox(null);
+        String dump = ((BlockBox) root).dump(panel.getLayoutContext(), "", Box.DUMP_RENDER);
+        assertTrue(dump, dump.contains("World"));
+    }
+
+    @Test
+    public void testLayoutFailureIsReported() throws Exception {
+        List<Throwable> failures = new ArrayList<>();
+        panel.addDocumentListener(new DefaultDocumentListener() {
+            @Override
+            public void onLayoutException(Throwable t) {
+                failures.add(t);
+            }
+        });
+        panel.getSharedContext().setFormFieldFactory((form, context, box) -> {
+            throw new IllegalStateException();
+        });
+        panel.setDocument(Jsoup.parse("<html><body><form><input type='text'/></form></body></html>"));
+        SwingUtilities.invokeAndWait(this::paint);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        boolean[] pending = {true};
+        while (pending[0] && System.currentTimeMillis() < deadline) {
+            SwingUtilities.invokeAndWait(() -> pending[0] = panel.isBackgroundLayoutPending());
+        }
+        SwingUtilities.invokeAndWait(() -> {
+            assertEquals(1, failures.size());
+            assertTrue(failures.get(0) instanceof IllegalStateException);
+        });
+    }
+
+    private void paint() {
+        panel.paintComponent(new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB).createGraphics());
+    }
+
+    private Box awaitRootBox(Box previous) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            Box[] root = new Box[1];
+            SwingUtilities.invokeAndWait(() -> {
+                root[0] = panel.getRootBox();
+                // a restarted layout is started by the next paint
+                if (root[0] == null && !panel.isBackgroundLayoutPending()) {
+                    paint();
+                }
+            });
+            if (root[0] != null && root[0] != previous) {
+                return root[0];
+            }
+            Thread.sleep(10);
+        }
+        return null;
+    }
+}
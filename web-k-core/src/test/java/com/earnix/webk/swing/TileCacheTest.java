@@ -0,0 +1,71 @@
+package com.earnix.webk.swing;
+
+import org.junit.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+
+public class TileCacheTest {
+
+    private static final Consumer<Graphics2D> PAINTER = g -> {
+        g.setColor(Color.RED);
+        g.fillRect(300, 10, 10, 10);
+    };
+
+    @Test
+    public void testTilesArePaintedOnce() {
+        TileCache cache = new TileCache(16);
+        Graphics2D g = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB).createGraphics();
+
+        cache.paint(g, null, new Rectangle(0, 0, 300, 300), null, PAINTER);
+        assertEquals(4, cache.getPaintedTiles());
+
+        cache.paint(g, null, new Rectangle(0, 0, 300, 300), null, PAINTER);
+        assertEquals(4, cache.getPaintedTiles());
+
+        // the repainted region is painted again
+        cache.invalidate(new Rectangle(300, 10, 10, 10));
+        cache.paint(g, null, new Rectangle(0, 0, 300, 300), null, PAINTER);
+        assertEquals(5, cache.getPaintedTiles());
+    }
+
+    @Test
+    public void testScrolledTilesAreDrawnInPlace() {
+        TileCache cache = new TileCache(2);
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+
+        // scrolled to the right, opaque tiles
+        g.translate(-250, 0);
+        g.setClip(250, 0, 100, 100);
+        cache.paint(g, null, g.getClipBounds(), Color.WHITE, PAINTER);
+        assertEquals(2, cache.getPaintedTiles());
+        assertEquals(Color.RED.getRGB(), image.getRGB(55, 15));
+        assertEquals(Color.WHITE.getRGB(), image.getRGB(45, 15));
+
+        // least recently drawn tiles beyond the maximum are dropped
+        cache.paint(g, null, new Rectangle(0, 300, 10, 10), null, PAINTER);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testInvalidationFromAnotherThreadIsAppliedByPaint() throws InterruptedException {
+        TileCache cache = new TileCache(16);
+        Graphics2D g = new BufferedImage(300, 300, BufferedImage.TYPE_INT_RGB).createGraphics();
+        cache.paint(g, null, new Rectangle(0, 0, 300, 300), null, PAINTER);
+
+        Thread thread = new Thread(() -> cache.invalidate(new Rectangle(300, 10, 10, 10)));
+        thread.start();
+        thread.join();
+        // the tiles are only changed by the paint
+        assertEquals(4, cache.size());
+
+        cache.paint(g, null, new Rectangle(0, 0, 300, 300), null, PAINTER);
+        assertEquals(5, cache.getPaintedTiles());
+    }
+}